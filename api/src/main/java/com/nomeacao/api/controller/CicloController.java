@@ -1,9 +1,16 @@
 package com.nomeacao.api.controller;
 
+import com.nomeacao.api.dto.BurnUpCicloDTO;
 import com.nomeacao.api.dto.DadosCriacaoCiclo;
 import com.nomeacao.api.dto.DadosListagemCiclo;
+import com.nomeacao.api.dto.DadosProximoItemCiclo;
+import com.nomeacao.api.dto.DadosRebalanceamentoCiclo;
 import com.nomeacao.api.dto.DadosSugestaoCiclo;
+import com.nomeacao.api.dto.DadosSugestaoLote;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.Versionado;
 import com.nomeacao.api.model.Usuario;
+import com.nomeacao.api.service.BurnUpCicloService;
 import com.nomeacao.api.service.CicloService;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
@@ -19,6 +26,7 @@ import java.util.List;
 public class CicloController {
 
     @Autowired private CicloService service;
+    @Autowired private BurnUpCicloService burnUpService;
 
     @PostMapping
     @Transactional
@@ -28,6 +36,7 @@ public class CicloController {
     }
 
     @GetMapping("/sugestao")
+    @Versionado({Agregado.CONCURSOS, Agregado.MATERIAS})
     public ResponseEntity<List<DadosSugestaoCiclo>> obterSugestao(
             @RequestParam Long concursoId,
             @RequestParam Double horas,
@@ -37,13 +46,48 @@ public class CicloController {
         return ResponseEntity.ok(sugestao);
     }
 
+    // Ex.: ?concursoId=1&horas=10,15,20&questoes=100 (pré-cálculo da faixa de um slider)
+    @GetMapping("/sugestao/lote")
+    @Versionado({Agregado.CONCURSOS, Agregado.MATERIAS})
+    public ResponseEntity<List<DadosSugestaoLote>> obterSugestaoEmLote(
+            @RequestParam Long concursoId,
+            @RequestParam List<Double> horas,
+            @RequestParam(required = false, defaultValue = "0") Integer questoes) {
+        return ResponseEntity.ok(service.sugerirEmLote(concursoId, horas, questoes));
+    }
+
+    // Redistribui o que falta da volta do ciclo ativo pelo desempenho (acerto e déficit de horas)
+    @GetMapping("/sugestao/rebalanceamento")
+    @Versionado({Agregado.CICLOS, Agregado.REGISTROS, Agregado.CONCURSOS, Agregado.MATERIAS})
+    public ResponseEntity<List<DadosRebalanceamentoCiclo>> obterRebalanceamento(@AuthenticationPrincipal Usuario usuario) {
+        return service.rebalancear(usuario)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
     @GetMapping
+    @Versionado({Agregado.CICLOS, Agregado.REGISTROS, Agregado.CONCURSOS, Agregado.MATERIAS})
     public ResponseEntity<List<DadosListagemCiclo>> listarHistorico(
             @RequestParam Long concursoId,
             @AuthenticationPrincipal Usuario usuario) {
         return ResponseEntity.ok(service.listarHistorico(concursoId, usuario));
     }
 
+    // Barra do cronômetro consulta com If-None-Match: sem registro/ciclo novo a resposta é 304
+    @GetMapping("/proximo")
+    @Versionado({Agregado.CICLOS, Agregado.REGISTROS})
+    public ResponseEntity<DadosProximoItemCiclo> buscarProximo(@AuthenticationPrincipal Usuario usuario) {
+        return service.buscarProximo(usuario)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @GetMapping("/{id}/burn-up")
+    @Versionado({Agregado.CICLOS, Agregado.REGISTROS, Agregado.MATERIAS})
+    public ResponseEntity<BurnUpCicloDTO> burnUp(@PathVariable Long id, @AuthenticationPrincipal Usuario usuario) {
+        return ResponseEntity.ok(burnUpService.carregar(id, usuario));
+    }
+
     @PatchMapping("/{id}/encerrar")
     @Transactional
     public ResponseEntity encerrar(@PathVariable Long id, @AuthenticationPrincipal Usuario usuario) {
@@ -55,6 +99,28 @@ public class CicloController {
         }
     }
 
+    // Sem @Transactional aqui: a transação é a do service, e a mensagem das matérias pendentes chega ao cliente
+    @PatchMapping("/{id}/fechar-volta")
+    public ResponseEntity fecharVolta(@PathVariable Long id, @AuthenticationPrincipal Usuario usuario) {
+        try {
+            service.fecharVolta(id, usuario);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PatchMapping("/{id}/recalcular")
+    @Transactional
+    public ResponseEntity recalcular(@PathVariable Long id, @AuthenticationPrincipal Usuario usuario) {
+        try {
+            service.recalcularProgresso(id, usuario);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @DeleteMapping("/{id}")
     @Transactional
     public ResponseEntity excluir(@PathVariable Long id, @AuthenticationPrincipal Usuario usuario) {
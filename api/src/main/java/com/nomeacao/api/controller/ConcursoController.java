@@ -1,6 +1,8 @@
 package com.nomeacao.api.controller;
 
 import com.nomeacao.api.dto.*;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.Versionado;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.service.ConcursoService;
 import com.nomeacao.api.service.ConcursoMateriaService;
@@ -35,6 +37,7 @@ public class ConcursoController {
     }
 
     @GetMapping
+    @Versionado(Agregado.CONCURSOS)
     public ResponseEntity<List<DadosListagemConcurso>> listar(@AuthenticationPrincipal Usuario usuarioLogado) {
         return ResponseEntity.ok(service.listar(usuarioLogado));
     }
@@ -79,6 +82,7 @@ public class ConcursoController {
     }
 
     @GetMapping("/{id}/materias")
+    @Versionado({Agregado.CONCURSOS, Agregado.MATERIAS})
     public ResponseEntity listarMaterias(@PathVariable Long id, @AuthenticationPrincipal Usuario usuario) {
         return ResponseEntity.ok(vinculoService.listar(id, usuario));
     }
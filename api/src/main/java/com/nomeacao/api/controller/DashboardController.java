@@ -1,8 +1,14 @@
 package com.nomeacao.api.controller;
 
 import com.nomeacao.api.dto.DashboardDTO;
+import com.nomeacao.api.dto.Granularidade;
+import com.nomeacao.api.dto.MapaCalorDTO;
+import com.nomeacao.api.dto.VisaoVidaDTO;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.Versionado;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.service.DashboardService;
+import com.nomeacao.api.service.VisaoVidaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -19,7 +25,12 @@ public class DashboardController {
     @Autowired
     private DashboardService service;
 
+    @Autowired
+    private VisaoVidaService visaoVidaService;
+
+    // inicio/fim com horário, mesmo critério de /registros (data_inicio >= inicio e <= fim)
     @GetMapping
+    @Versionado(value = {Agregado.REGISTROS, Agregado.CICLOS, Agregado.CONCURSOS, Agregado.MATERIAS}, porDia = true)
     public ResponseEntity<DashboardDTO> carregar(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
@@ -27,9 +38,28 @@ public class DashboardController {
             @RequestParam(required = false) List<Long> topicos,
             @RequestParam(required = false) List<Long> concursos,
             @RequestParam(required = false) List<Long> tipos,
+            @RequestParam(required = false, defaultValue = "DIA") Granularidade granularidade,
+            @RequestParam(required = false) Integer pontos,
             @AuthenticationPrincipal Usuario usuario) {
         
-        var dto = service.carregarDashboard(usuario, inicio, fim, materias, topicos, concursos, tipos);
+        var dto = service.carregarDashboard(usuario, inicio, fim, materias, topicos, concursos, tipos, granularidade, pontos);
         return ResponseEntity.ok(dto);
     }
-}
\ No newline at end of file
+
+    // Mapa de calor estilo GitHub: poucas centenas de bytes, independente do tamanho do histórico
+    @GetMapping("/mapa-calor")
+    @Versionado(value = Agregado.REGISTROS, porDia = true)
+    public ResponseEntity<MapaCalorDTO> mapaCalor(
+            @RequestParam(required = false, defaultValue = "365") Integer dias,
+            @RequestParam(required = false) Integer niveis,
+            @AuthenticationPrincipal Usuario usuario) {
+        return ResponseEntity.ok(service.carregarMapaCalor(usuario, dias, niveis));
+    }
+
+    // Visão de Vida: todo o histórico, todos os concursos (lê o consolidado mensal)
+    @GetMapping("/vida")
+    @Versionado(value = {Agregado.REGISTROS, Agregado.CONCURSOS, Agregado.MATERIAS}, porDia = true)
+    public ResponseEntity<VisaoVidaDTO> visaoVida(@AuthenticationPrincipal Usuario usuario) {
+        return ResponseEntity.ok(visaoVidaService.carregar(usuario));
+    }
+}
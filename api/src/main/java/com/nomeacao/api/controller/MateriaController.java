@@ -3,6 +3,8 @@ package com.nomeacao.api.controller;
 import com.nomeacao.api.dto.DadosAtualizacaoMateria;
 import com.nomeacao.api.dto.DadosCadastroMateria;
 import com.nomeacao.api.dto.DadosListagemMateria;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.Versionado;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.service.MateriaService; // Importa o Service
 import jakarta.transaction.Transactional;
@@ -35,6 +37,7 @@ public class MateriaController {
     }
 
     @GetMapping
+    @Versionado(Agregado.MATERIAS)
     public ResponseEntity<List<DadosListagemMateria>> listar(@AuthenticationPrincipal Usuario usuarioLogado) {
         var lista = service.listar(usuarioLogado);
         return ResponseEntity.ok(lista);
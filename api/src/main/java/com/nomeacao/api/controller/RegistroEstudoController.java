@@ -3,7 +3,17 @@ package com.nomeacao.api.controller;
 import com.nomeacao.api.dto.DadosCadastroRegistro;
 import com.nomeacao.api.dto.DadosDetalhamentoRegistro;
 import com.nomeacao.api.dto.DadosAtualizacaoRegistro;
+import com.nomeacao.api.dto.DadosExclusaoLote;
+import com.nomeacao.api.dto.DadosPaginaRegistros;
+import com.nomeacao.api.dto.DadosReatribuicaoLote;
+import com.nomeacao.api.dto.DadosResultadoImportacao;
+import com.nomeacao.api.dto.DadosResultadoLote;
+import com.nomeacao.api.dto.DadosResultadoSincronizacao;
+import com.nomeacao.api.dto.DadosSincronizacao;
+import com.nomeacao.api.dto.FormatoExportacao;
 import com.nomeacao.api.model.Usuario;
+import com.nomeacao.api.service.ExportacaoRegistroService;
+import com.nomeacao.api.service.ImportacaoRegistroService;
 import com.nomeacao.api.service.RegistroEstudoService;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
@@ -13,11 +23,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -28,6 +43,12 @@ public class RegistroEstudoController {
     @Autowired
     private RegistroEstudoService service;
 
+    @Autowired
+    private ExportacaoRegistroService exportacaoService;
+
+    @Autowired
+    private ImportacaoRegistroService importacaoService;
+
     @PostMapping
     @Transactional
     public ResponseEntity cadastrar(@RequestBody @Valid DadosCadastroRegistro dados,
@@ -38,6 +59,13 @@ public class RegistroEstudoController {
         return ResponseEntity.created(uri).body(dto);
     }
 
+    // Fila do cronômetro offline: reenviar o mesmo lote é seguro (clienteId já gravado volta como DUPLICADA)
+    @PostMapping("/sincronizar")
+    public ResponseEntity<DadosResultadoSincronizacao> sincronizar(@RequestBody @Valid DadosSincronizacao dados,
+                                                                   @AuthenticationPrincipal Usuario usuario) {
+        return ResponseEntity.ok(service.sincronizar(dados, usuario));
+    }
+
     @PutMapping
     @Transactional
     public ResponseEntity atualizar(@RequestBody @Valid DadosAtualizacaoRegistro dados,
@@ -61,6 +89,50 @@ public class RegistroEstudoController {
         return ResponseEntity.ok(pagina);
     }
 
+    // Rolagem por cursor: ?cursor= vem do proximoCursor da página anterior; ?total=true conta o filtro inteiro
+    @GetMapping("/cursor")
+    public ResponseEntity<DadosPaginaRegistros> listarPorCursor(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(required = false) List<Long> materias,
+            @RequestParam(required = false) List<Long> topicos,
+            @RequestParam(required = false) List<Long> concursos,
+            @RequestParam(required = false) List<Long> tipos,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int tamanho,
+            @RequestParam(defaultValue = "false") boolean total,
+            @AuthenticationPrincipal Usuario usuario) {
+        return ResponseEntity.ok(service.listarPorCursor(
+                inicio, fim, materias, topicos, concursos, tipos, cursor, tamanho, total, usuario));
+    }
+
+    // Histórico inteiro (mesmos filtros da listagem) escrito enquanto é lido do banco
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(required = false) List<Long> materias,
+            @RequestParam(required = false) List<Long> topicos,
+            @RequestParam(required = false) List<Long> concursos,
+            @RequestParam(required = false) List<Long> tipos,
+            @RequestParam(defaultValue = "CSV") FormatoExportacao formato,
+            @AuthenticationPrincipal Usuario usuario) {
+        var corpo = exportacaoService.exportar(inicio, fim, materias, topicos, concursos, tipos, formato, usuario);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"registros." + formato.extensao() + "\"")
+                .contentType(MediaType.parseMediaType(formato.contentType()))
+                .body(corpo);
+    }
+
+    // Corpo cru (text/csv ou application/x-ndjson), lido em streaming; ex.: curl --data-binary @registros.csv
+    @PostMapping("/importar")
+    public ResponseEntity<DadosResultadoImportacao> importar(
+            @RequestParam(defaultValue = "CSV") FormatoExportacao formato,
+            InputStream corpo,
+            @AuthenticationPrincipal Usuario usuario) throws IOException {
+        return ResponseEntity.ok(importacaoService.importar(corpo, formato, usuario));
+    }
+
     @DeleteMapping("/{id}")
     @Transactional
     public ResponseEntity excluir(@PathVariable Long id, @AuthenticationPrincipal Usuario usuario) {
@@ -73,7 +145,6 @@ public class RegistroEstudoController {
     }
 
     @DeleteMapping
-    @Transactional
     public ResponseEntity excluirEmLote(@RequestParam List<Long> ids, @AuthenticationPrincipal Usuario usuario) {
         try {
             service.excluirEmLote(ids, usuario);
@@ -82,4 +153,17 @@ public class RegistroEstudoController {
             return ResponseEntity.status(403).body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Mesma exclusão do DELETE com ?ids=, para listas grandes demais para a URL (aqui com a contagem no corpo)
+    @PostMapping("/excluir-lote")
+    public ResponseEntity<DadosResultadoLote> excluirEmLotePeloCorpo(@RequestBody @Valid DadosExclusaoLote dados,
+                                                                     @AuthenticationPrincipal Usuario usuario) {
+        return ResponseEntity.ok(service.excluirEmLote(dados.ids(), usuario));
+    }
+
+    @PatchMapping("/lote")
+    public ResponseEntity<DadosResultadoLote> reatribuirEmLote(@RequestBody @Valid DadosReatribuicaoLote dados,
+                                                               @AuthenticationPrincipal Usuario usuario) {
+        return ResponseEntity.ok(service.reatribuirEmLote(dados, usuario));
+    }
+}
@@ -1,6 +1,8 @@
 package com.nomeacao.api.controller;
 
 import com.nomeacao.api.dto.DadosTipoEstudo;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.Versionado;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.service.TipoEstudoService;
 import jakarta.transaction.Transactional;
@@ -30,6 +32,7 @@ public class TipoEstudoController {
     }
 
     @GetMapping
+    @Versionado(Agregado.TIPOS_ESTUDO)
     public ResponseEntity<List<DadosTipoEstudo>> listar(
             @RequestParam(required = false, defaultValue = "false") boolean incluirArquivados,
             @AuthenticationPrincipal Usuario usuario) {
@@ -3,6 +3,8 @@ package com.nomeacao.api.controller;
 import com.nomeacao.api.dto.DadosAtualizacaoTopico;
 import com.nomeacao.api.dto.DadosCadastroTopico;
 import com.nomeacao.api.dto.MateriaComTopicosDTO;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.Versionado;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.service.TopicoService;
 import jakarta.transaction.Transactional;
@@ -23,6 +25,7 @@ public class TopicoController {
     private TopicoService service;
 
     @GetMapping("/hierarquia")
+    @Versionado({Agregado.TOPICOS, Agregado.MATERIAS})
     public ResponseEntity<List<MateriaComTopicosDTO>> listarHierarquia(@AuthenticationPrincipal Usuario usuario) {
         var hierarquia = service.listarHierarquia(usuario);
         return ResponseEntity.ok(hierarquia);
@@ -43,6 +46,7 @@ public class TopicoController {
     }
 
     @GetMapping("/{materiaId}")
+    @Versionado({Agregado.TOPICOS, Agregado.MATERIAS})
     public ResponseEntity listarPorMateria(@PathVariable Long materiaId,
                                            @RequestParam(required = false, defaultValue = "false") boolean incluirArquivados,
                                            @AuthenticationPrincipal Usuario usuarioLogado) {
@@ -0,0 +1,25 @@
+package com.nomeacao.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Burn-up do ciclo: o ponto i de cada série é o acumulado (segundos que contam no ciclo) até o dia inicio + i.
+// A linha de meta de cada série é metaSegundos; total soma todas as matérias.
+// progresso é o do último ponto, no critério do snapshot (igual ao progresso_final de um ciclo encerrado).
+public record BurnUpCicloDTO(
+    Long cicloId,
+    Boolean encerrado,
+    LocalDate inicio,
+    LocalDate fim,
+    Long metaSegundos,
+    Double progresso,
+    List<Long> total,
+    List<Serie> itens
+) {
+    public record Serie(
+        Long materiaId,
+        String nomeMateria,
+        Long metaSegundos,
+        List<Long> acumulado
+    ) {}
+}
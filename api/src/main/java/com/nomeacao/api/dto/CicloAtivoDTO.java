@@ -0,0 +1,3 @@
+package com.nomeacao.api.dto;
+
+public record CicloAtivoDTO(Long cicloId, Long concursoId) {}
@@ -0,0 +1,24 @@
+package com.nomeacao.api.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Posição da listagem por cursor: último (dataInicio, id) entregue. Vai para o cliente como texto opaco.
+public record CursorRegistro(LocalDateTime dataInicio, Long id) {
+
+    public String codificar() {
+        String texto = dataInicio + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorRegistro decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new CursorRegistro(LocalDateTime.parse(partes[0]), Long.valueOf(partes[1]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Cursor inválido.");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.nomeacao.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+// Ids no corpo: milhares deles não cabem na query string do DELETE /registros
+public record DadosExclusaoLote(
+    @NotEmpty List<@NotNull Long> ids
+) {}
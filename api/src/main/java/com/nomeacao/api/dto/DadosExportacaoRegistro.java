@@ -0,0 +1,18 @@
+package com.nomeacao.api.dto;
+
+import java.time.LocalDateTime;
+
+// Uma linha da exportação: nomes em vez de ids, para abrir direto na planilha
+public record DadosExportacaoRegistro(
+    Long id,
+    LocalDateTime dataInicio,
+    String materia,
+    String topico,
+    String concurso,
+    String tipoEstudo,
+    Integer segundos,
+    Integer questoesFeitas,
+    Integer questoesCertas,
+    Boolean contarHorasNoCiclo,
+    String anotacoes
+) {}
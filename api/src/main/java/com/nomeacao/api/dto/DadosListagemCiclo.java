@@ -10,7 +10,8 @@ public record DadosListagemCiclo(
     Boolean ativo,
     LocalDateTime dataInicio,
     LocalDateTime dataFim,
-    Double progresso
+    Double progresso,
+    Integer voltasConcluidas
 ) {
     public DadosListagemCiclo(Ciclo ciclo, Double progressoCalculado) {
         this(
@@ -20,7 +21,8 @@ public record DadosListagemCiclo(
             ciclo.getAtivo(),
             ciclo.getDataInicio(),
             ciclo.getDataFim(),
-            progressoCalculado
+            progressoCalculado,
+            ciclo.getVoltasConcluidas()
         );
     }
 }
\ No newline at end of file
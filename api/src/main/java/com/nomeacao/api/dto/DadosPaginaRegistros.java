@@ -0,0 +1,10 @@
+package com.nomeacao.api.dto;
+
+import java.util.List;
+
+// proximoCursor nulo = última página; total só quando pedido (?total=true)
+public record DadosPaginaRegistros(
+    List<DadosDetalhamentoRegistro> conteudo,
+    String proximoCursor,
+    Long total
+) {}
@@ -0,0 +1,20 @@
+package com.nomeacao.api.dto;
+
+// Item da vez no rodízio do ciclo ativo e quanto falta nele
+public record DadosProximoItemCiclo(
+    Long cicloId,
+    Long itemId,
+    Long materiaId,
+    String nomeMateria,
+    Integer posicao,
+    Integer totalItens,
+    Double horasMeta,
+    Long segundosNoItem,
+    Long segundosRestantes
+) {
+    public DadosProximoItemCiclo(Long cicloId, Long itemId, Long materiaId, String nomeMateria,
+                                 Integer posicao, Integer totalItens, Double horasMeta, Long segundosNoItem) {
+        this(cicloId, itemId, materiaId, nomeMateria, posicao, totalItens, horasMeta, segundosNoItem,
+             Math.max(Math.round((horasMeta != null ? horasMeta : 0.0) * 3600) - segundosNoItem, 0L));
+    }
+}
@@ -0,0 +1,13 @@
+package com.nomeacao.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+// Destinos nulos mantêm o valor atual de cada registro (pelo menos um precisa vir preenchido)
+public record DadosReatribuicaoLote(
+    @NotEmpty List<@NotNull Long> ids,
+    Long topicoId,
+    Long concursoId,
+    Long tipoEstudoId
+) {}
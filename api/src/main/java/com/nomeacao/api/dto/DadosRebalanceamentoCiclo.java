@@ -0,0 +1,13 @@
+package com.nomeacao.api.dto;
+
+// Sugestão para o que falta da volta atual do ciclo ativo (horas/questões restantes redistribuídas)
+public record DadosRebalanceamentoCiclo(
+    Long materiaId,
+    String nomeMateria,
+    Double horasMeta,
+    Double horasRealizadas,
+    Double horasSugeridas,
+    Integer questoesSugeridas,
+    Double taxaAcerto,
+    Double percentual
+) {}
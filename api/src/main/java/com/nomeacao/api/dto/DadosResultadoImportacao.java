@@ -0,0 +1,13 @@
+package com.nomeacao.api.dto;
+
+import java.util.List;
+
+// Resumo da importação: as linhas com erro ficam de fora e não interrompem o resto do arquivo
+public record DadosResultadoImportacao(
+    long linhasLidas,
+    long importadas,
+    long comErro,
+    List<ErroLinha> erros
+) {
+    public record ErroLinha(long linha, String mensagem) {}
+}
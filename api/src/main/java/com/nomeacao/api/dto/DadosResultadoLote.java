@@ -0,0 +1,4 @@
+package com.nomeacao.api.dto;
+
+// Quantos registros a operação em lote alterou (ids alheios ou inexistentes não contam)
+public record DadosResultadoLote(int afetados) {}
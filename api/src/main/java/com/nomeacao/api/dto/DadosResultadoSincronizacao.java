@@ -0,0 +1,12 @@
+package com.nomeacao.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+// Uma situação por sessão enviada: o aparelho tira da fila as CRIADA e DUPLICADA; REJEITADA não adianta reenviar
+public record DadosResultadoSincronizacao(List<Sessao> sessoes) {
+
+    public enum Situacao { CRIADA, DUPLICADA, REJEITADA }
+
+    public record Sessao(UUID clienteId, Long registroId, Situacao situacao) {}
+}
@@ -0,0 +1,25 @@
+package com.nomeacao.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Sessão do cronômetro guardada no aparelho; clienteId é gerado lá e identifica a sessão nos reenvios
+public record DadosSessaoSincronizada(
+    @NotNull UUID clienteId,
+
+    @NotNull Long materiaId,
+    Long topicoId,
+    Long concursoId,
+    Long tipoEstudoId,
+
+    @NotNull LocalDateTime dataInicio,
+    @NotNull Integer segundos,
+
+    Integer questoesFeitas,
+    Integer questoesCertas,
+
+    Boolean contarHorasNoCiclo,
+
+    String anotacoes
+) {}
@@ -0,0 +1,9 @@
+package com.nomeacao.api.dto;
+
+import java.util.List;
+
+// Uma sugestão por carga horária pedida em /ciclos/sugestao/lote
+public record DadosSugestaoLote(
+    Double horas,
+    List<DadosSugestaoCiclo> itens
+) {}
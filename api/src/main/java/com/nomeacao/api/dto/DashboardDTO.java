@@ -1,5 +1,6 @@
 package com.nomeacao.api.dto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public record DashboardDTO(
@@ -11,8 +12,20 @@ public record DashboardDTO(
     String nomeConcurso,
     Double progressoGeral,
     List<DadosGrafico> evolucaoDiaria,
-    List<ItemProgresso> itens
+    List<ItemProgresso> itens,
+    RitmoCiclo ritmo,
+
+    // Totais do período filtrado, da matéria mais estudada para a menos
+    List<TotalMateria> materias
 ) {
+    public record TotalMateria(
+        Long materiaId,
+        String nomeMateria,
+        Double horasLiquidas,
+        Integer questoesFeitas,
+        Double taxaAcertos
+    ) {}
+
     public record ItemProgresso(
         String nomeMateria,
         Double metaHoras,
@@ -25,4 +38,12 @@ public record DashboardDTO(
         Long saldoQuestoes,
         Double percentualQuestoes
     ) {}
+
+    // Gravado pelo job diário de ritmo (nulo sem ciclo ativo ou antes da primeira avaliação)
+    public record RitmoCiclo(
+        String situacao,
+        Integer itensAtrasados,
+        Double horasDiariasNecessarias,
+        LocalDateTime avaliadoEm
+    ) {}
 }
\ No newline at end of file
@@ -1,8 +1,8 @@
 package com.nomeacao.api.dto;
 
-import java.sql.Date;
+import java.time.LocalDate;
 
 public record EvolucaoDiariaDTO(
-    Date data,
+    LocalDate data,
     Long totalSegundos
-) {}
\ No newline at end of file
+) {}
@@ -0,0 +1,23 @@
+package com.nomeacao.api.dto;
+
+// Formatos do /registros/exportar (CSV para planilha, NDJSON = um objeto JSON por linha)
+public enum FormatoExportacao {
+    CSV("text/csv;charset=UTF-8", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extensao;
+
+    FormatoExportacao(String contentType, String extensao) {
+        this.contentType = contentType;
+        this.extensao = extensao;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extensao() {
+        return extensao;
+    }
+}
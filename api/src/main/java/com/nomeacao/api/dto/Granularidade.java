@@ -0,0 +1,58 @@
+package com.nomeacao.api.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+// Tamanho de cada ponto do gráfico de evolução. AUTO escolhe pelo tamanho do período.
+public enum Granularidade {
+    DIA("day"),
+    SEMANA("week"),
+    MES("month"),
+    AUTO("day");
+
+    private final String unidadeSql; // argumento do date_trunc do Postgres
+
+    Granularidade(String unidadeSql) {
+        this.unidadeSql = unidadeSql;
+    }
+
+    public String unidadeSql() {
+        return unidadeSql;
+    }
+
+    // Até ~3 meses dia a dia, até 2 anos por semana, acima disso por mês
+    public Granularidade resolver(LocalDate inicio, LocalDate fim) {
+        if (this != AUTO) return this;
+        long dias = ChronoUnit.DAYS.between(inicio, fim);
+        if (dias <= 92) return DIA;
+        return dias <= 731 ? SEMANA : MES;
+    }
+
+    // Início do período que contém a data (semana começa na segunda, igual ao date_trunc)
+    public LocalDate truncar(LocalDate data) {
+        return switch (this) {
+            case SEMANA -> data.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MES -> data.withDayOfMonth(1);
+            default -> data;
+        };
+    }
+
+    // Posição do período da data a partir de um início já truncado
+    public int indice(LocalDate base, LocalDate data) {
+        return switch (this) {
+            case SEMANA -> (int) (ChronoUnit.DAYS.between(base, truncar(data)) / 7);
+            case MES -> (int) ChronoUnit.MONTHS.between(base, truncar(data));
+            default -> (int) ChronoUnit.DAYS.between(base, data);
+        };
+    }
+
+    public LocalDate avancar(LocalDate base, int periodos) {
+        return switch (this) {
+            case SEMANA -> base.plusWeeks(periodos);
+            case MES -> base.plusMonths(periodos);
+            default -> base.plusDays(periodos);
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.nomeacao.api.dto;
+
+import java.time.LocalDate;
+
+// Mapa de calor anual em formato compacto: o dia i é inicio + i.
+// minutos = Base64 (URL, sem padding) de varints sem sinal (LEB128), um por dia;
+// niveis = um dígito por dia (0 = sem estudo), só quando pedido.
+public record MapaCalorDTO(
+    LocalDate inicio,
+    Integer dias,
+    String minutos,
+    String niveis,
+    Long maximoMinutos,
+    Long totalMinutos
+) {}
@@ -0,0 +1,9 @@
+package com.nomeacao.api.dto;
+
+public record TotalMateriaDTO(
+    Long materiaId,
+    String nomeMateria,
+    Long totalSegundos,
+    Long totalQuestoes,
+    Long totalAcertos
+) {}
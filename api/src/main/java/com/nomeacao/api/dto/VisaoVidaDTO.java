@@ -0,0 +1,35 @@
+package com.nomeacao.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Visão de Vida: todo o histórico do usuário, somando todos os concursos
+public record VisaoVidaDTO(
+    Double horasTotais,
+    Long questoesFeitas,
+    Double taxaAcertos,
+    Long sessoes,
+    Integer diasEstudados,
+
+    List<DadosGrafico> evolucaoMensal,
+    List<Fatia> porConcurso,
+    List<Fatia> porMateria,
+
+    Sequencia melhorSequencia,
+    Sequencia sequenciaAtual
+) {
+    // id nulo em porConcurso = estudos sem concurso
+    public record Fatia(
+        Long id,
+        String nome,
+        Double horas,
+        Long questoesFeitas,
+        Double taxaAcertos
+    ) {}
+
+    public record Sequencia(
+        Integer dias,
+        LocalDate inicio,
+        LocalDate fim
+    ) {}
+}
@@ -0,0 +1,21 @@
+package com.nomeacao.api.infra.agendamento;
+
+import com.nomeacao.api.service.RitmoCicloService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Avalia o ritmo de todos os ciclos ativos uma vez por dia (o Dashboard só lê o que ficou gravado)
+@Component
+@ConditionalOnProperty(name = "app.ciclo.ritmo.habilitado", havingValue = "true", matchIfMissing = true)
+public class AvaliacaoRitmoJob {
+
+    @Autowired
+    private RitmoCicloService ritmoCicloService;
+
+    @Scheduled(cron = "${app.ciclo.ritmo.cron:0 0 4 * * *}")
+    public void executar() {
+        ritmoCicloService.avaliarCiclosAtivos();
+    }
+}
@@ -0,0 +1,11 @@
+package com.nomeacao.api.infra.cache;
+
+// Conjuntos de dados do usuário com versão própria (ver VersoesDados)
+public enum Agregado {
+    MATERIAS,
+    TOPICOS,
+    CONCURSOS,
+    TIPOS_ESTUDO,
+    CICLOS,
+    REGISTROS
+}
@@ -0,0 +1,47 @@
+package com.nomeacao.api.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nomeacao.api.dto.BurnUpCicloDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+// Burn-up dos ciclos encerrados. A chave leva o momento do snapshot (progresso_congelado_em), que muda
+// quando um registro antigo é corrigido: a série antiga deixa de ser encontrada e expira sozinha.
+// Métricas cache.* (cache=burn-up), em /actuator/metrics quando exposto com ACTUATOR_EXPOSICAO
+@Component
+public class BurnUpCache {
+
+    private final Cache<Chave, BurnUpCicloDTO> cache;
+
+    public BurnUpCache(
+            @Value("${app.ciclo.burn-up.cache.tamanho-maximo:1000}") long tamanhoMaximo,
+            @Value("${app.ciclo.burn-up.cache.expiracao:6h}") Duration expiracao,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(expiracao)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "burn-up");
+    }
+
+    // A série é calculada fora do compute do Caffeine (consulta longa segurando o bin de outras chaves);
+    // o snapshot está na chave, então um put atrasado nunca grava uma série de outro snapshot
+    public BurnUpCicloDTO obter(Chave chave, Supplier<BurnUpCicloDTO> calculo) {
+        BurnUpCicloDTO serie = cache.getIfPresent(chave);
+        if (serie == null) {
+            serie = calculo.get();
+            cache.put(chave, serie);
+        }
+        return serie;
+    }
+
+    public record Chave(Long cicloId, LocalDateTime congeladoEm) {}
+}
@@ -0,0 +1,53 @@
+package com.nomeacao.api.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nomeacao.api.dto.CicloAtivoDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Ciclo ativo (id e concurso) por usuário, inclusive a ausência. Métricas cache.* (cache=ciclo-ativo),
+// em /actuator/metrics quando exposto com ACTUATOR_EXPOSICAO
+@Component
+public class CicloAtivoCache {
+
+    private final Cache<Long, Optional<CicloAtivoDTO>> cache;
+
+    public CicloAtivoCache(
+            @Value("${app.ciclo.ativo.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+            @Value("${app.ciclo.ativo.cache.expiracao:30m}") Duration expiracao,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ciclo-ativo");
+    }
+
+    public Optional<CicloAtivoDTO> obter(Long usuarioId, Function<Long, Optional<CicloAtivoDTO>> busca) {
+        return cache.get(usuarioId, busca);
+    }
+
+    // Descarta na hora e de novo depois do commit/rollback: uma leitura concorrente no meio da
+    // transação não deixa o ciclo antigo recacheado
+    public void invalidar(Long usuarioId) {
+        cache.invalidate(usuarioId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(usuarioId);
+                }
+            });
+        }
+    }
+}
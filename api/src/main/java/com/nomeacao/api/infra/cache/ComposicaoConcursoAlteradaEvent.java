@@ -0,0 +1,11 @@
+package com.nomeacao.api.infra.cache;
+
+import java.util.Set;
+
+// Publicado quando muda o que entra na sugestão de ciclo de um concurso (vínculos, pesos, questões, nome da matéria)
+public record ComposicaoConcursoAlteradaEvent(Set<Long> concursoIds) {
+
+    public ComposicaoConcursoAlteradaEvent(Long concursoId) {
+        this(Set.of(concursoId));
+    }
+}
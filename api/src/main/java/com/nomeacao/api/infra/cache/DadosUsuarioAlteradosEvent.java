@@ -0,0 +1,11 @@
+package com.nomeacao.api.infra.cache;
+
+import java.util.Set;
+
+// Publicado pelos services a cada escrita; os ouvintes reagem só depois do commit
+public record DadosUsuarioAlteradosEvent(Long usuarioId, Set<Agregado> agregados) {
+
+    public DadosUsuarioAlteradosEvent(Long usuarioId, Agregado... agregados) {
+        this(usuarioId, Set.of(agregados));
+    }
+}
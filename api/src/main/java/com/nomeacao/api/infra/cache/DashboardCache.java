@@ -0,0 +1,132 @@
+package com.nomeacao.api.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nomeacao.api.dto.DashboardDTO;
+import com.nomeacao.api.dto.Granularidade;
+import com.nomeacao.api.dto.MapaCalorDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Cache em memória do Dashboard. Métricas cache.* (cache=dashboard), em /actuator/metrics quando
+// exposto com ACTUATOR_EXPOSICAO
+@Component
+public class DashboardCache {
+
+    // Tópicos e tipos de estudo só entram no Dashboard como filtro (ids), não precisam invalidar
+    private static final Set<Agregado> DEPENDENCIAS =
+            EnumSet.of(Agregado.REGISTROS, Agregado.CICLOS, Agregado.CONCURSOS, Agregado.MATERIAS);
+
+    private final Cache<Versionada<Chave>, DashboardDTO> cache;
+    private final Cache<Versionada<ChaveMapaCalor>, MapaCalorDTO> mapasCalor;
+    private final Counter invalidacoes;
+
+    // Versão atual de cada usuário. Invalidar = trocar a versão (O(1)); as entradas antigas
+    // nunca mais são lidas e saem por tamanho/expiração. Os valores vêm de uma sequência global,
+    // então um usuário despejado daqui volta com versão nova e não reencontra entradas velhas.
+    private final Cache<Long, Long> versoes;
+    private final AtomicLong sequencia = new AtomicLong();
+
+    public DashboardCache(
+            @Value("${app.dashboard.cache.tamanho-maximo:5000}") long tamanhoMaximo,
+            @Value("${app.dashboard.cache.expiracao:10m}") Duration expiracao,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        this.mapasCalor = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        this.versoes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(expiracao)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "dashboard");
+        CaffeineCacheMetrics.monitor(meterRegistry, mapasCalor, "mapa-calor");
+        this.invalidacoes = Counter.builder("dashboard.cache.invalidacoes")
+                .description("Escritas do usuário que descartaram o cache do Dashboard")
+                .register(meterRegistry);
+    }
+
+    public DashboardDTO obter(Chave chave, Supplier<DashboardDTO> calculo) {
+        return obter(cache, new Versionada<>(chave, versao(chave.usuarioId())), calculo);
+    }
+
+    public MapaCalorDTO obterMapaCalor(ChaveMapaCalor chave, Supplier<MapaCalorDTO> calculo) {
+        return obter(mapasCalor, new Versionada<>(chave, versao(chave.usuarioId())), calculo);
+    }
+
+    // O cálculo (consultas e até o prazo do modo paralelo) roda fora do compute do Caffeine, que travaria
+    // chaves de outros usuários no mesmo bin. Dois pedidos iguais ao mesmo tempo calculam duas vezes;
+    // um put atrasado cai na versão em que começou, então não ressuscita dado invalidado.
+    private static <K, V> V obter(Cache<K, V> cache, K chave, Supplier<V> calculo) {
+        V valor = cache.getIfPresent(chave);
+        if (valor == null) {
+            valor = calculo.get();
+            cache.put(chave, valor);
+        }
+        return valor;
+    }
+
+    // Um cálculo que começou antes da troca fica gravado na versão velha: ninguém mais o lê
+    public void invalidar(Long usuarioId) {
+        versoes.put(usuarioId, sequencia.incrementAndGet());
+        invalidacoes.increment();
+    }
+
+    private long versao(Long usuarioId) {
+        return versoes.get(usuarioId, id -> sequencia.incrementAndGet());
+    }
+
+    // Depois do commit (ou na hora, se não houver transação) para não recachear dados antigos
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDados(DadosUsuarioAlteradosEvent evento) {
+        if (evento.agregados().stream().anyMatch(DEPENDENCIAS::contains)) {
+            invalidar(evento.usuarioId());
+        }
+    }
+
+    // Listas normalizadas (ordenadas, vazia = null) para filtros equivalentes caírem na mesma entrada.
+    // O dia de hoje entra na chave porque o gráfico vai até "hoje" quando não há data fim.
+    public record Chave(
+        Long usuarioId, LocalDate hoje,
+        LocalDateTime inicio, LocalDateTime fim,
+        List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos,
+        Granularidade granularidade, Integer pontos
+    ) {
+        public static Chave de(Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                               List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos,
+                               Granularidade granularidade, Integer pontos) {
+            return new Chave(usuarioId, LocalDate.now(), inicio, fim,
+                    normalizar(materias), normalizar(topicos), normalizar(concursos), normalizar(tipos),
+                    granularidade, pontos);
+        }
+
+        private static List<Long> normalizar(List<Long> ids) {
+            if (ids == null || ids.isEmpty()) return null;
+            return ids.stream().distinct().sorted().toList();
+        }
+    }
+
+    // O mapa termina sempre em "hoje": uma entrada por usuário/dia/tamanho
+    public record ChaveMapaCalor(Long usuarioId, LocalDate hoje, int dias, Integer niveis) {}
+
+    private record Versionada<K>(K chave, long versao) {}
+}
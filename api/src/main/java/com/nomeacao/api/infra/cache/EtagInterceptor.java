@@ -0,0 +1,64 @@
+package com.nomeacao.api.infra.cache;
+
+import com.nomeacao.api.model.Usuario;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+// ETag forte nos GETs @Versionado: se o If-None-Match bater, devolve 304 sem chegar no controller
+@Component
+public class EtagInterceptor implements HandlerInterceptor {
+
+    @Autowired private VersoesDados versoesDados;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod metodo)) return true;
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) return true;
+
+        var versionado = metodo.getMethodAnnotation(Versionado.class);
+        var autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (versionado == null || autenticacao == null || !(autenticacao.getPrincipal() instanceof Usuario usuario)) {
+            return true;
+        }
+
+        var etag = gerarEtag(request, versionado, usuario.getId());
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (coincide(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    private String gerarEtag(HttpServletRequest request, Versionado versionado, Long usuarioId) {
+        // Caminho e query string entram no hash: /topicos/1 e /topicos/2 têm versões iguais e conteúdos diferentes
+        var recurso = request.getRequestURI() + "?" + (request.getQueryString() != null ? request.getQueryString() : "");
+        var etag = new StringBuilder("\"")
+                .append(versoesDados.assinatura(usuarioId, versionado.value()))
+                .append('-').append(DigestUtils.md5DigestAsHex(recurso.getBytes(StandardCharsets.UTF_8)));
+        if (versionado.porDia()) etag.append('-').append(LocalDate.now());
+        return etag.append('"').toString();
+    }
+
+    private boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidato : ifNoneMatch.split(",")) {
+            var valor = candidato.trim();
+            if (valor.startsWith("W/")) valor = valor.substring(2); // If-None-Match usa comparação fraca
+            if (valor.equals("*") || valor.equals(etag)) return true;
+        }
+        return false;
+    }
+}
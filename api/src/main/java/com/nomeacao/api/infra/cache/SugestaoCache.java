@@ -0,0 +1,72 @@
+package com.nomeacao.api.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nomeacao.api.dto.DadosSugestaoCiclo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Cache das sugestões de ciclo. A versão da composição entra na chave: mudou um vínculo, as entradas antigas
+// deixam de ser encontradas e expiram sozinhas. Métricas cache.* (cache=sugestao-ciclo), em /actuator/metrics
+// quando exposto com ACTUATOR_EXPOSICAO.
+// As versões também ficam num Caffeine limitado; cada uma sai de uma sequência global, então um concurso
+// despejado volta com um número que nenhuma entrada antiga tem (nunca recomeça do zero)
+@Component
+public class SugestaoCache {
+
+    private final Cache<Chave, List<DadosSugestaoCiclo>> cache;
+    private final Cache<Long, Long> versoes;
+    private final AtomicLong sequencia = new AtomicLong();
+
+    public SugestaoCache(
+            @Value("${app.ciclo.sugestao.cache.tamanho-maximo:2000}") long tamanhoMaximo,
+            @Value("${app.ciclo.sugestao.cache.expiracao:30m}") Duration expiracao,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        this.versoes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(expiracao)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "sugestao-ciclo");
+    }
+
+    public long versao(Long concursoId) {
+        return versoes.get(concursoId, id -> sequencia.incrementAndGet());
+    }
+
+    // Calculada fora do compute do Caffeine, que seguraria o bin de outras chaves durante as consultas;
+    // com a versão na chave, um put atrasado fica numa entrada que ninguém mais procura
+    public List<DadosSugestaoCiclo> obter(Chave chave, Supplier<List<DadosSugestaoCiclo>> calculo) {
+        List<DadosSugestaoCiclo> sugestoes = cache.getIfPresent(chave);
+        if (sugestoes == null) {
+            sugestoes = List.copyOf(calculo.get());
+            cache.put(chave, sugestoes);
+        }
+        return sugestoes;
+    }
+
+    // Depois do commit (ou na hora, se não houver transação) para não recachear a composição antiga
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarComposicao(ComposicaoConcursoAlteradaEvent evento) {
+        evento.concursoIds().forEach(id -> versoes.put(id, sequencia.incrementAndGet()));
+    }
+
+    // questoes nulo e 0 dão a mesma sugestão
+    public record Chave(Long concursoId, long versao, Double horas, int questoes) {
+        public static Chave de(Long concursoId, long versao, Double horas, Integer questoes) {
+            return new Chave(concursoId, versao, horas, questoes != null ? questoes : 0);
+        }
+    }
+}
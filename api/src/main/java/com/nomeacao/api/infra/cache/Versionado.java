@@ -0,0 +1,18 @@
+package com.nomeacao.api.infra.cache;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marca um GET cuja resposta depende só dos agregados informados (e da query string).
+// O EtagInterceptor responde 304 antes do controller quando o cliente já tem essa versão.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Versionado {
+
+    Agregado[] value();
+
+    // Respostas que mudam com a data de hoje (ex.: gráfico que vai até hoje)
+    boolean porDia() default false;
+}
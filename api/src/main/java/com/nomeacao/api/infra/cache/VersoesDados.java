@@ -0,0 +1,60 @@
+package com.nomeacao.api.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Contador de versão por usuário e por agregado, incrementado após o commit de cada escrita.
+// Fica só em memória, por instância, e a assinatura só serve para responder 304:
+// - o prefixo é único por boot, então uma ETag de antes de um restart (ou de outro nó) nunca bate:
+//   o pior caso é um 200 com o corpo inteiro, nunca um 304 com dado velho;
+// - cada usuário ganha uma geração nova sempre que seus contadores são criados, então um usuário
+//   despejado por tamanho/inatividade volta com outra assinatura em vez de recomeçar do zero.
+// Pressupõe o deploy atual (um container só), como os demais caches deste pacote: com várias réplicas
+// sem afinidade por usuário, uma escrita num nó não mudaria a versão dos outros.
+@Component
+public class VersoesDados {
+
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36)
+            + UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong geracoes = new AtomicLong();
+    private final Cache<Long, Contadores> versoes;
+
+    public VersoesDados(
+            @Value("${app.etag.versoes.tamanho-maximo:50000}") long tamanhoMaximo,
+            @Value("${app.etag.versoes.expiracao:2h}") Duration expiracao) {
+        this.versoes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(expiracao)
+                .build();
+    }
+
+    public String assinatura(Long usuarioId, Agregado... agregados) {
+        var contadores = contadores(usuarioId);
+        var sb = new StringBuilder(instancia).append('-').append(contadores.geracao()).append('-').append(usuarioId);
+        for (Agregado agregado : agregados) {
+            sb.append('-').append(contadores.valores().get(agregado.ordinal()));
+        }
+        return sb.toString();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDados(DadosUsuarioAlteradosEvent evento) {
+        var contadores = contadores(evento.usuarioId());
+        evento.agregados().forEach(a -> contadores.valores().incrementAndGet(a.ordinal()));
+    }
+
+    private Contadores contadores(Long usuarioId) {
+        return versoes.get(usuarioId, id ->
+                new Contadores(geracoes.incrementAndGet(), new AtomicLongArray(Agregado.values().length)));
+    }
+
+    private record Contadores(long geracao, AtomicLongArray valores) {}
+}
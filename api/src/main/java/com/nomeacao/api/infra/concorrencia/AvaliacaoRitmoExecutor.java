@@ -0,0 +1,37 @@
+package com.nomeacao.api.infra.concorrencia;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Pool limitado da avaliação de ritmo em lote. Fila curta: se lotar, quem percorre os ciclos
+// executa o lote (freia a leitura em vez de acumular lotes na memória ou tomar conexões do resto da API).
+@Component
+public class AvaliacaoRitmoExecutor {
+
+    private final ThreadPoolTaskExecutor pool;
+
+    public AvaliacaoRitmoExecutor(@Value("${app.ciclo.ritmo.paralelismo:2}") int limite) {
+        this.pool = new ThreadPoolTaskExecutor();
+        pool.setThreadNamePrefix("ritmo-");
+        pool.setCorePoolSize(limite);
+        pool.setMaxPoolSize(limite);
+        pool.setQueueCapacity(limite * 2);
+        pool.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.initialize();
+    }
+
+    public <T> Future<T> submeter(Callable<T> tarefa) {
+        return pool.submit(tarefa);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        pool.shutdown();
+    }
+}
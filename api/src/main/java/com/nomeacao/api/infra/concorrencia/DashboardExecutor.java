@@ -0,0 +1,50 @@
+package com.nomeacao.api.infra.concorrencia;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Executor limitado das seções do Dashboard. Não é um bean Executor de propósito,
+// para não tomar o lugar do executor padrão usado pelo @Async dos e-mails.
+@Component
+public class DashboardExecutor {
+
+    private final AsyncTaskExecutor executor;
+
+    public DashboardExecutor(@Value("${app.dashboard.paralelismo:8}") int limite) {
+        if (Runtime.version().feature() >= 21) {
+            // Threads virtuais: o limite segura quantas seções rodam ao mesmo tempo (quem passar espera)
+            var virtual = new SimpleAsyncTaskExecutor("dashboard-");
+            virtual.setVirtualThreads(true);
+            virtual.setConcurrencyLimit(limite);
+            this.executor = virtual;
+        } else {
+            // JDK 17: pool fixo; se a fila lotar a própria requisição executa a seção
+            var pool = new ThreadPoolTaskExecutor();
+            pool.setThreadNamePrefix("dashboard-");
+            pool.setCorePoolSize(limite);
+            pool.setMaxPoolSize(limite);
+            pool.setQueueCapacity(limite * 10);
+            pool.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+            pool.initialize();
+            this.executor = pool;
+        }
+    }
+
+    public <T> Future<T> submeter(Callable<T> tarefa) {
+        return executor.submit(tarefa);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) pool.shutdown();
+        if (executor instanceof SimpleAsyncTaskExecutor virtual) virtual.close();
+    }
+}
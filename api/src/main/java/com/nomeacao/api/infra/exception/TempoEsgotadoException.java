@@ -0,0 +1,9 @@
+package com.nomeacao.api.infra.exception;
+
+// Lançada quando uma operação passa do prazo configurado (vira 503 no TratadorDeErros)
+public class TempoEsgotadoException extends RuntimeException {
+
+    public TempoEsgotadoException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -46,6 +46,13 @@ public class TratadorDeErros {
         return ResponseEntity.badRequest().body(new DadosErro(ex.getMessage()));
     }
 
+    // 503 - Prazo da operação esgotado
+    @ExceptionHandler(TempoEsgotadoException.class)
+    public ResponseEntity tratarErroTempoEsgotado(TempoEsgotadoException ex) {
+        logger.warn("[TEMPO ESGOTADO] {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new DadosErro(ex.getMessage()));
+    }
+
     // --- SEGURANÇA ---
 
     // 400 - Conta Inativa (Retornamos 400 para o front exibir o Toast de erro automaticamente)
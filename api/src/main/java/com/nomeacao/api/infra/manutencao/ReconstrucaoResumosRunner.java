@@ -0,0 +1,31 @@
+package com.nomeacao.api.infra.manutencao;
+
+import com.nomeacao.api.service.ResumoDiarioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Backfill dos consolidados: suba a API com RECONSTRUIR_RESUMOS=true uma vez e depois volte para false
+@Component
+@ConditionalOnProperty(name = "app.manutencao.reconstruir-resumos", havingValue = "true")
+public class ReconstrucaoResumosRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconstrucaoResumosRunner.class);
+
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long inicio = System.currentTimeMillis();
+        logger.info("[MANUTENCAO] Reconstruindo resumos diários a partir de registros_estudo...");
+
+        resumoDiarioService.reconstruirTodos();
+
+        logger.info("[MANUTENCAO] Resumos diários reconstruídos em {}ms", System.currentTimeMillis() - inicio);
+    }
+}
@@ -32,10 +32,50 @@ public class Ciclo {
     @Column(name = "data_fim")
     private LocalDateTime dataFim;
 
+    // Snapshot do progresso ao encerrar (NULL enquanto o ciclo está ativo). Gravado pelo CicloRepository.congelarProgresso.
+    @Column(name = "progresso_final")
+    private Double progressoFinal;
+
+    @Column(name = "progresso_congelado_em")
+    private LocalDateTime progressoCongeladoEm;
+
+    // Rodízio: item da vez (posição em itens_ciclo.posicao) e o tempo já feito nele. Mantido pelo ProgressoCicloService.
+    @Column(name = "total_itens")
+    private Integer totalItens = 0;
+
+    @Column(name = "posicao_atual")
+    private Integer posicaoAtual = 0;
+
+    @Column(name = "segundos_na_posicao")
+    private Long segundosNaPosicao = 0L;
+
+    // Voltas fechadas (o cumprido de cada uma fica em CicloHistorico e é descontado do realizado)
+    @Column(name = "voltas_concluidas")
+    private Integer voltasConcluidas = 0;
+
+    // Ritmo até a prova, gravado pelo job de avaliação em lote (NULL = ainda não avaliado)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "situacao_ritmo")
+    private SituacaoRitmo situacaoRitmo;
+
+    @Column(name = "itens_atrasados")
+    private Integer itensAtrasados;
+
+    @Column(name = "horas_diarias_necessarias")
+    private Double horasDiariasNecessarias;
+
+    @Column(name = "ritmo_avaliado_em")
+    private LocalDateTime ritmoAvaliadoEm;
+
     @ManyToOne
     @JoinColumn(name = "concurso_id")
     private Concurso concurso;
 
+    // Mesmo dono do concurso; fica no ciclo para o índice único de ciclo ativo por usuário
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
     @OneToMany(mappedBy = "ciclo", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ItemCiclo> itens = new ArrayList<>();
 
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Table(name = "ciclo_historico")
 @Data
@@ -28,4 +30,11 @@ public class CicloHistorico {
 
     @Column(name = "questoes_descontadas", nullable = false)
     private Integer questoesDescontadas;
+
+    // Número da volta fechada (1, 2, ...)
+    @Column(nullable = false)
+    private Integer volta;
+
+    @Column(name = "data_fechamento", nullable = false)
+    private LocalDateTime dataFechamento;
 }
\ No newline at end of file
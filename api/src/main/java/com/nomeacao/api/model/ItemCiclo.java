@@ -25,7 +25,24 @@ public class ItemCiclo {
 
     private Integer ordem;
 
+    // 0..n-1 na ordem do ciclo (a ordem informada pode ter buracos ou repetições)
+    private Integer posicao;
+
     private Double horasMeta;
     
     private Integer questoesMeta = 0;
+
+    // Realizado no concurso até agora (ciclo ativo). Mantido pelo ProgressoCicloService.
+    private Long segundosRealizados = 0L;
+
+    private Long questoesRealizadas = 0L;
+
+    // Snapshot na janela do ciclo, gravado ao encerrar (NULL enquanto o ciclo está ativo)
+    private Long segundosCongelados;
+
+    private Long questoesCongeladas;
+
+    private Double percentualHorasCongelado;
+
+    private Double percentualQuestoesCongelado;
 }
\ No newline at end of file
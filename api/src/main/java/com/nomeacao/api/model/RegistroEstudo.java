@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Table(name = "registros_estudo")
@@ -20,6 +21,10 @@ public class RegistroEstudo {
     @Column(nullable = false)
     private LocalDateTime dataInicio;
 
+    // UUID do aparelho para sessões sincronizadas (único por usuário, ver /registros/sincronizar)
+    @Column(name = "cliente_id")
+    private UUID clienteId;
+
     private Boolean contarHorasNoCiclo = true;
 
     @Column(nullable = false)
@@ -0,0 +1,59 @@
+package com.nomeacao.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Consolidado por usuário/dia/matéria/tópico/concurso/tipo. Mantido pelo ResumoDiarioService.
+@Entity
+@Table(name = "resumos_diarios")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Column(nullable = false)
+    private Long segundos = 0L;
+
+    @Column(name = "segundos_ciclo", nullable = false)
+    private Long segundosCiclo = 0L;
+
+    @Column(name = "questoes_feitas", nullable = false)
+    private Long questoesFeitas = 0L;
+
+    @Column(name = "questoes_certas", nullable = false)
+    private Long questoesCertas = 0L;
+
+    @Column(nullable = false)
+    private Integer sessoes = 0;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "materia_id", nullable = false)
+    private Materia materia;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "topico_id")
+    private Topico topico;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "concurso_id")
+    private Concurso concurso;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tipo_estudo_id")
+    private TipoEstudo tipoEstudo;
+}
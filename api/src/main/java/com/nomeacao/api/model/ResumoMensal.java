@@ -0,0 +1,53 @@
+package com.nomeacao.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Consolidado por usuário/mês/matéria/concurso, derivado de resumos_diarios. Mantido pelo ResumoDiarioService.
+@Entity
+@Table(name = "resumos_mensais")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Sempre o dia 1 do mês
+    @Column(nullable = false)
+    private LocalDate mes;
+
+    @Column(nullable = false)
+    private Long segundos = 0L;
+
+    @Column(name = "questoes_feitas", nullable = false)
+    private Long questoesFeitas = 0L;
+
+    @Column(name = "questoes_certas", nullable = false)
+    private Long questoesCertas = 0L;
+
+    @Column(nullable = false)
+    private Integer sessoes = 0;
+
+    // Bit 0 = dia 1 ... bit 30 = dia 31
+    @Column(name = "dias_estudados", nullable = false)
+    private Integer diasEstudados = 0;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "materia_id", nullable = false)
+    private Materia materia;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "concurso_id")
+    private Concurso concurso;
+}
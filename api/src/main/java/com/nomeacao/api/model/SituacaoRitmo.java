@@ -0,0 +1,10 @@
+package com.nomeacao.api.model;
+
+// Ritmo do ciclo ativo até a prova. Atrasado = algum item abaixo da fração do prazo já decorrida;
+// crítico = o total feito não chega à metade do que já era devido.
+public enum SituacaoRitmo {
+    EM_DIA,
+    ATRASADO,
+    CRITICO,
+    SEM_PRAZO
+}
@@ -6,6 +6,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public interface CicloHistoricoRepository extends JpaRepository<CicloHistorico, Long> {
 
@@ -20,4 +23,10 @@ public interface CicloHistoricoRepository extends JpaRepository<CicloHistorico,
         GROUP BY ch.materia.id
     """)
     List<com.nomeacao.api.dto.ResumoHistoricoDTO> somarDescontosPorConcurso(@Param("concursoId") Long concursoId);
+
+    // Descontos das voltas já fechadas no concurso, por matéria (segundos e questões)
+    default Map<Long, com.nomeacao.api.dto.ResumoHistoricoDTO> descontosPorMateria(Long concursoId) {
+        return somarDescontosPorConcurso(concursoId).stream()
+                .collect(Collectors.toMap(com.nomeacao.api.dto.ResumoHistoricoDTO::materiaId, Function.identity()));
+    }
 }
\ No newline at end of file
@@ -1,22 +1,64 @@
 package com.nomeacao.api.repository;
 
+import com.nomeacao.api.dto.CicloAtivoDTO;
+import com.nomeacao.api.dto.DadosProximoItemCiclo;
 import com.nomeacao.api.model.Ciclo;
 import com.nomeacao.api.model.Usuario;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface CicloRepository extends JpaRepository<Ciclo, Long> {
+public interface CicloRepository extends JpaRepository<Ciclo, Long>, CicloRepositoryCustom {
     
-    @Query("SELECT c FROM Ciclo c WHERE c.concurso.usuario = :usuario AND c.ativo = true")
+    // Usa o índice único parcial (usuario_id) WHERE ativo
+    @Query("SELECT c FROM Ciclo c WHERE c.usuario = :usuario AND c.ativo = true")
     Optional<Ciclo> findFirstByUsuarioAndAtivoTrue(@Param("usuario") Usuario usuario);
 
+    // Só os ids, para o CicloAtivoCache (sem join: concurso_id é coluna do próprio ciclo)
+    @Query("SELECT new com.nomeacao.api.dto.CicloAtivoDTO(c.id, c.concurso.id) FROM Ciclo c WHERE c.usuario.id = :usuarioId AND c.ativo = true")
+    Optional<CicloAtivoDTO> buscarCicloAtivo(@Param("usuarioId") Long usuarioId);
+
+    // Ciclo já com concurso e itens, para montar o progresso fora da sessão da requisição
+    @EntityGraph(attributePaths = {"concurso", "itens", "itens.materia"})
+    @Query("SELECT c FROM Ciclo c WHERE c.id = :id")
+    Optional<Ciclo> buscarComItens(@Param("id") Long id);
+
     Optional<Ciclo> findByConcursoIdAndAtivoTrue(Long concursoId);
     
     List<Ciclo> findAllByConcursoIdOrderByDataInicioDesc(Long concursoId);
 
+    /*
+     * Histórico: segundos de cada item de todos os ciclos do concurso numa consulta só.
+     * Janela do ciclo = [data_inicio, data_fim] (ciclo aberto vai até :agora), só registros que contam no ciclo.
+     * Ciclos com progresso congelado ficam de fora (o histórico lê o snapshot).
+     * Colunas: ciclo_id, horas_meta, segundos
+     */
+    @Query(value = """
+        SELECT i.ciclo_id, i.horas_meta, COALESCE(SUM(r.segundos), 0) AS segundos
+        FROM ciclos c
+        JOIN itens_ciclo i ON i.ciclo_id = c.id
+        LEFT JOIN registros_estudo r
+               ON r.usuario_id = :usuarioId
+              AND r.materia_id = i.materia_id
+              AND r.contar_horas_no_ciclo = true
+              AND r.data_inicio BETWEEN c.data_inicio AND COALESCE(c.data_fim, :agora)
+        WHERE c.concurso_id = :concursoId
+          AND c.progresso_final IS NULL
+        GROUP BY i.id, i.ciclo_id, i.horas_meta
+    """, nativeQuery = true)
+    List<Object[]> somarRealizadoPorItemDoConcurso(
+        @Param("concursoId") Long concursoId,
+        @Param("usuarioId") Long usuarioId,
+        @Param("agora") LocalDateTime agora
+    );
+
     @Query("""
            SELECT COUNT(i) > 0 
            FROM ItemCiclo i 
@@ -24,4 +66,266 @@ public interface CicloRepository extends JpaRepository<Ciclo, Long> {
            AND i.ciclo.ativo = true
            """)
     boolean isMateriaEmCicloAtivo(Long materiaId);
-}
\ No newline at end of file
+
+    // Soma (ou subtrai) um registro no item da matéria do ciclo ativo do concurso
+    @Modifying
+    @Query(value = """
+        UPDATE itens_ciclo i
+        SET segundos_realizados = i.segundos_realizados + :segundos,
+            questoes_realizadas = i.questoes_realizadas + :questoes
+        FROM ciclos c
+        WHERE i.ciclo_id = c.id
+          AND c.ativo = true
+          AND c.concurso_id = :concursoId
+          AND i.materia_id = :materiaId
+    """, nativeQuery = true)
+    void acumularProgresso(
+        @Param("concursoId") Long concursoId,
+        @Param("materiaId") Long materiaId,
+        @Param("segundos") long segundos,
+        @Param("questoes") long questoes
+    );
+
+    /*
+     * Snapshot de um ciclo encerrado, refeito a partir dos registros brutos (encerrar, gerarCiclo e recálculo).
+     * Mesmo critério do histórico: registros da matéria na janela do ciclo, cada item limitado a 100%.
+     * flushAutomatically: o ciclo recém-encerrado (ativo/data_fim) precisa estar no banco antes do UPDATE.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        WITH realizado AS (
+            SELECT i.id,
+                   COALESCE(SUM(CASE WHEN r.contar_horas_no_ciclo THEN r.segundos ELSE 0 END), 0) AS segundos,
+                   COALESCE(SUM(r.questoes_feitas), 0) AS questoes
+            FROM ciclos c
+            JOIN concursos co ON co.id = c.concurso_id
+            JOIN itens_ciclo i ON i.ciclo_id = c.id
+            LEFT JOIN registros_estudo r
+                   ON r.usuario_id = co.usuario_id
+                  AND r.materia_id = i.materia_id
+                  AND r.data_inicio BETWEEN c.data_inicio AND c.data_fim
+            WHERE c.id = :cicloId AND c.data_fim IS NOT NULL
+            GROUP BY i.id
+        ), itens AS (
+            UPDATE itens_ciclo i
+            SET segundos_congelados = t.segundos,
+                questoes_congeladas = t.questoes,
+                percentual_horas_congelado = CASE WHEN i.horas_meta > 0
+                    THEN LEAST(t.segundos / (i.horas_meta * 3600) * 100, 100) ELSE 0 END,
+                percentual_questoes_congelado = CASE WHEN i.questoes_meta > 0
+                    THEN LEAST(t.questoes * 100.0 / i.questoes_meta, 100) ELSE 0 END
+            FROM realizado t
+            WHERE i.id = t.id
+            RETURNING i.percentual_horas_congelado
+        )
+        UPDATE ciclos c
+        SET progresso_final = COALESCE((SELECT ROUND(CAST(AVG(percentual_horas_congelado) AS NUMERIC), 1) FROM itens), 0),
+            progresso_congelado_em = :agora
+        WHERE c.id = :cicloId AND c.data_fim IS NOT NULL
+    """, nativeQuery = true)
+    void congelarProgresso(@Param("cicloId") Long cicloId, @Param("agora") LocalDateTime agora);
+
+    /*
+     * Registro antigo alterado/excluído: soma (ou subtrai) no snapshot dos ciclos encerrados cuja janela contém a data.
+     * Sem registro na janela de um ciclo encerrado nenhuma linha é tocada.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE itens_ciclo i
+        SET segundos_congelados = i.segundos_congelados + :segundos,
+            questoes_congeladas = i.questoes_congeladas + :questoes,
+            percentual_horas_congelado = CASE WHEN i.horas_meta > 0
+                THEN LEAST((i.segundos_congelados + :segundos) / (i.horas_meta * 3600) * 100, 100) ELSE 0 END,
+            percentual_questoes_congelado = CASE WHEN i.questoes_meta > 0
+                THEN LEAST((i.questoes_congeladas + :questoes) * 100.0 / i.questoes_meta, 100) ELSE 0 END
+        FROM ciclos c
+        JOIN concursos co ON co.id = c.concurso_id
+        WHERE i.ciclo_id = c.id
+          AND co.usuario_id = :usuarioId
+          AND c.progresso_final IS NOT NULL
+          AND i.materia_id = :materiaId
+          AND :data BETWEEN c.data_inicio AND c.data_fim
+    """, nativeQuery = true)
+    int ajustarItensCongelados(
+        @Param("usuarioId") Long usuarioId,
+        @Param("materiaId") Long materiaId,
+        @Param("data") LocalDateTime data,
+        @Param("segundos") long segundos,
+        @Param("questoes") long questoes
+    );
+
+    // Refaz o progresso geral dos ciclos ajustados acima (média dos itens, como no congelamento)
+    // e renova progresso_congelado_em (versão do snapshot, usada pelo BurnUpCache)
+    @Modifying
+    @Query(value = """
+        UPDATE ciclos c
+        SET progresso_final = COALESCE((SELECT ROUND(CAST(AVG(i.percentual_horas_congelado) AS NUMERIC), 1)
+                                        FROM itens_ciclo i WHERE i.ciclo_id = c.id), 0),
+            progresso_congelado_em = :agora
+        FROM concursos co
+        WHERE co.id = c.concurso_id
+          AND co.usuario_id = :usuarioId
+          AND c.progresso_final IS NOT NULL
+          AND :data BETWEEN c.data_inicio AND c.data_fim
+          AND EXISTS (SELECT 1 FROM itens_ciclo i WHERE i.ciclo_id = c.id AND i.materia_id = :materiaId)
+    """, nativeQuery = true)
+    void recalcularProgressoCongelado(
+        @Param("usuarioId") Long usuarioId,
+        @Param("materiaId") Long materiaId,
+        @Param("data") LocalDateTime data,
+        @Param("agora") LocalDateTime agora
+    );
+
+    /*
+     * Rodízio: registro na matéria do item da vez soma no item; bateu a meta, passa para o próximo (zera o tempo).
+     * Registro em outra matéria não mexe no rodízio. Remoção só desconta (não volta posição).
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE ciclos c
+        SET posicao_atual = CASE WHEN :segundos > 0 AND c.segundos_na_posicao + :segundos >= i.horas_meta * 3600
+                                 THEN (c.posicao_atual + 1) % c.total_itens
+                                 ELSE c.posicao_atual END,
+            segundos_na_posicao = CASE WHEN :segundos > 0 AND c.segundos_na_posicao + :segundos >= i.horas_meta * 3600
+                                       THEN 0
+                                       ELSE GREATEST(c.segundos_na_posicao + :segundos, 0) END
+        FROM itens_ciclo i
+        WHERE c.ativo = true
+          AND c.concurso_id = :concursoId
+          AND i.ciclo_id = c.id
+          AND i.posicao = c.posicao_atual
+          AND i.materia_id = :materiaId
+    """, nativeQuery = true)
+    void avancarRodizio(
+        @Param("concursoId") Long concursoId,
+        @Param("materiaId") Long materiaId,
+        @Param("segundos") long segundos
+    );
+
+    // Item da vez: chave primária do ciclo + índice único (ciclo_id, posicao)
+    @Query("""
+           SELECT new com.nomeacao.api.dto.DadosProximoItemCiclo(
+               c.id, i.id, m.id, m.nome, c.posicaoAtual, c.totalItens, i.horasMeta, c.segundosNaPosicao)
+           FROM Ciclo c JOIN c.itens i JOIN i.materia m
+           WHERE c.id = :cicloId AND i.posicao = c.posicaoAtual
+           """)
+    Optional<DadosProximoItemCiclo> buscarItemDaVez(@Param("cicloId") Long cicloId);
+
+    // Avaliação de ritmo: próxima página de ciclos ativos por keyset (índice parcial idx_ciclos_ativos_id)
+    @Query(value = "SELECT id FROM ciclos WHERE ativo = true AND id > :aposId ORDER BY id LIMIT :limite", nativeQuery = true)
+    List<Long> buscarIdsAtivosApos(@Param("aposId") long aposId, @Param("limite") int limite);
+
+    /*
+     * Rebalanceamento: tudo o que o rateio adaptativo precisa de cada item do ciclo, numa consulta só.
+     * Realizado = contador do item menos os descontos das voltas fechadas (mesmo critério do ritmo).
+     * Acerto vem do consolidado mensal do usuário (histórico inteiro da matéria, poucas linhas por mês).
+     * Colunas: materia_id, nome, peso, questoes_prova, horas_meta, questoes_meta,
+     *          segundos_realizados, questoes_realizadas, questoes_feitas, questoes_certas
+     */
+    @Query(value = """
+        WITH alvo AS (
+            SELECT c.id, c.concurso_id, c.usuario_id
+            FROM ciclos c
+            WHERE c.id = :cicloId
+        ), descontos AS (
+            SELECT h.materia_id, SUM(h.horas_descontadas * 3600) AS segundos, SUM(h.questoes_descontadas) AS questoes
+            FROM ciclo_historico h
+            JOIN ciclos hc ON hc.id = h.ciclo_id
+            WHERE hc.concurso_id = (SELECT concurso_id FROM alvo)
+            GROUP BY h.materia_id
+        ), acertos AS (
+            SELECT rm.materia_id, SUM(rm.questoes_feitas) AS feitas, SUM(rm.questoes_certas) AS certas
+            FROM resumos_mensais rm
+            WHERE rm.usuario_id = (SELECT usuario_id FROM alvo)
+              AND rm.materia_id IN (SELECT materia_id FROM itens_ciclo WHERE ciclo_id = :cicloId)
+            GROUP BY rm.materia_id
+        )
+        SELECT i.materia_id, m.nome,
+               COALESCE(cm.peso, 1) AS peso, COALESCE(cm.questoes_prova, 1) AS questoes_prova,
+               i.horas_meta, COALESCE(i.questoes_meta, 0) AS questoes_meta,
+               GREATEST(i.segundos_realizados - COALESCE(d.segundos, 0), 0) AS segundos_realizados,
+               GREATEST(i.questoes_realizadas - COALESCE(d.questoes, 0), 0) AS questoes_realizadas,
+               COALESCE(ac.feitas, 0) AS questoes_feitas, COALESCE(ac.certas, 0) AS questoes_certas
+        FROM alvo a
+        JOIN itens_ciclo i ON i.ciclo_id = a.id
+        JOIN materias m ON m.id = i.materia_id
+        LEFT JOIN concurso_materias cm ON cm.concurso_id = a.concurso_id AND cm.materia_id = i.materia_id
+        LEFT JOIN descontos d ON d.materia_id = i.materia_id
+        LEFT JOIN acertos ac ON ac.materia_id = i.materia_id
+        ORDER BY i.posicao
+    """, nativeQuery = true)
+    List<Object[]> buscarEstatisticasRebalanceamento(@Param("cicloId") Long cicloId);
+
+    // Ciclos encerrados do usuário cuja janela cruza o período (importação: snapshots a refazer)
+    @Query(value = """
+        SELECT c.id FROM ciclos c
+        WHERE c.usuario_id = :usuarioId
+          AND c.data_fim IS NOT NULL
+          AND c.data_inicio <= :fim
+          AND c.data_fim >= :inicio
+    """, nativeQuery = true)
+    List<Long> buscarEncerradosNoPeriodo(
+        @Param("usuarioId") Long usuarioId,
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fim") LocalDateTime fim
+    );
+
+    /*
+     * Burn-up: acumulado diário por matéria do ciclo, numa consulta só (dias x matérias, janela por matéria).
+     * Mesmo critério do snapshot (congelarProgresso): matéria + horário exato do ciclo, com ou sem concurso.
+     * Dias inteiros saem do consolidado diário (segundos_ciclo); o primeiro e o último dia, que podem ser
+     * parciais, saem dos registros brutos cortados na abertura/encerramento (ativo: até o fim de :hoje).
+     * percentual_itens soma o percentual de horas (limitado a 100) de cada item da matéria naquele acumulado,
+     * como no congelamento; média pelo total de itens = progresso_final.
+     * Colunas: materia_id, nome, meta_segundos, dia, acumulado, percentual_itens, itens
+     */
+    @Query(value = """
+        WITH janela AS (
+            SELECT c.usuario_id, c.data_inicio AS abertura,
+                   COALESCE(c.data_fim, CAST(:hoje AS DATE) + INTERVAL '1 day' - INTERVAL '1 microsecond') AS encerramento,
+                   CAST(c.data_inicio AS DATE) AS inicio,
+                   COALESCE(CAST(c.data_fim AS DATE), CAST(:hoje AS DATE)) AS fim
+            FROM ciclos c
+            WHERE c.id = :cicloId
+        ), materias_ciclo AS (
+            SELECT i.materia_id, ROUND(SUM(i.horas_meta) * 3600) AS meta_segundos, COUNT(*) AS itens
+            FROM itens_ciclo i
+            WHERE i.ciclo_id = :cicloId
+            GROUP BY i.materia_id
+        ), dias AS (
+            SELECT CAST(d AS DATE) AS dia
+            FROM janela, generate_series(janela.inicio, janela.fim, INTERVAL '1 day') AS d
+        ), diario AS (
+            SELECT r.materia_id, r.dia, r.segundos_ciclo AS segundos
+            FROM resumos_diarios r, janela
+            WHERE r.usuario_id = janela.usuario_id
+              AND r.dia > janela.inicio AND r.dia < janela.fim
+              AND r.materia_id IN (SELECT materia_id FROM materias_ciclo)
+            UNION ALL
+            SELECT r.materia_id, CAST(r.data_inicio AS DATE),
+                   CASE WHEN r.contar_horas_no_ciclo THEN r.segundos ELSE 0 END
+            FROM registros_estudo r, janela
+            WHERE r.usuario_id = janela.usuario_id
+              AND r.data_inicio BETWEEN janela.abertura AND janela.encerramento
+              AND (r.data_inicio < janela.inicio + 1 OR r.data_inicio >= janela.fim)
+              AND r.materia_id IN (SELECT materia_id FROM materias_ciclo)
+        ), acumulado AS (
+            SELECT mc.materia_id, mc.meta_segundos, mc.itens, d.dia,
+                   SUM(COALESCE(x.segundos, 0)) OVER (PARTITION BY mc.materia_id ORDER BY d.dia) AS segundos
+            FROM materias_ciclo mc
+            CROSS JOIN dias d
+            LEFT JOIN (SELECT materia_id, dia, SUM(segundos) AS segundos FROM diario GROUP BY materia_id, dia) x
+                   ON x.materia_id = mc.materia_id AND x.dia = d.dia
+        )
+        SELECT a.materia_id, m.nome, a.meta_segundos, a.dia, a.segundos,
+               (SELECT SUM(CASE WHEN i.horas_meta > 0
+                                THEN LEAST(a.segundos / (i.horas_meta * 3600) * 100, 100) ELSE 0 END)
+                FROM itens_ciclo i
+                WHERE i.ciclo_id = :cicloId AND i.materia_id = a.materia_id) AS percentual_itens,
+               a.itens
+        FROM acumulado a
+        JOIN materias m ON m.id = a.materia_id
+        ORDER BY m.nome, a.materia_id, a.dia
+    """, nativeQuery = true)
+    List<Object[]> calcularBurnUp(@Param("cicloId") Long cicloId, @Param("hoje") LocalDate hoje);
+}
@@ -0,0 +1,17 @@
+package com.nomeacao.api.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Escritas em SQL puro que devolvem linhas (UPDATE ... RETURNING): ficam no JdbcTemplate (ver CicloRepositoryImpl)
+public interface CicloRepositoryCustom {
+
+    // Avaliação de ritmo de uma faixa de ciclos ativos num UPDATE só (nenhuma consulta por item).
+    // Roda nas threads do pool, fora da transação de quem chamou: cada lote tem a sua.
+    // Devolve o usuario_id de cada ciclo avaliado, para o serviço avisar os caches depois do commit
+    @Transactional
+    List<Long> avaliarRitmo(Long primeiroId, Long ultimoId, LocalDate hoje, LocalDateTime agora);
+}
@@ -0,0 +1,77 @@
+package com.nomeacao.api.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class CicloRepositoryImpl implements CicloRepositoryCustom {
+
+    /*
+     * Esperado de cada item = meta * fração do prazo já decorrida (início do ciclo até a prova).
+     * Realizado = contador do item menos os descontos das voltas fechadas (ciclo_historico).
+     * hoje/agora entram uma vez só, no CTE parametros, e o resto da consulta lê de p.
+     */
+    private static final String AVALIAR_RITMO = """
+        WITH parametros AS (
+            SELECT CAST(? AS DATE) AS hoje, CAST(? AS TIMESTAMP) AS agora
+        ), alvo AS (
+            SELECT c.id, c.concurso_id, CAST(c.data_inicio AS DATE) AS inicio, co.data_prova
+            FROM ciclos c
+            JOIN concursos co ON co.id = c.concurso_id
+            WHERE c.ativo = true
+              AND c.id BETWEEN ? AND ?
+        ), descontos AS (
+            SELECT hc.concurso_id, h.materia_id, SUM(h.horas_descontadas * 3600) AS segundos
+            FROM ciclo_historico h
+            JOIN ciclos hc ON hc.id = h.ciclo_id
+            WHERE hc.concurso_id IN (SELECT concurso_id FROM alvo)
+            GROUP BY hc.concurso_id, h.materia_id
+        ), itens AS (
+            SELECT a.id AS ciclo_id, a.data_prova,
+                   i.horas_meta * 3600 AS meta,
+                   GREATEST(i.segundos_realizados - COALESCE(d.segundos, 0), 0) AS realizado,
+                   LEAST(CAST(GREATEST(p.hoje - a.inicio, 0) AS DOUBLE PRECISION)
+                         / GREATEST(a.data_prova - a.inicio, 1), 1) AS esperado
+            FROM alvo a
+            CROSS JOIN parametros p
+            JOIN itens_ciclo i ON i.ciclo_id = a.id
+            LEFT JOIN descontos d ON d.concurso_id = a.concurso_id AND d.materia_id = i.materia_id
+        ), resumo AS (
+            SELECT ciclo_id,
+                   MIN(data_prova) AS data_prova,
+                   COUNT(*) FILTER (WHERE realizado < esperado * meta) AS atrasados,
+                   SUM(LEAST(realizado, meta)) AS feito,
+                   SUM(esperado * meta) AS devido,
+                   SUM(meta) AS total
+            FROM itens
+            GROUP BY ciclo_id
+        )
+        UPDATE ciclos c
+        SET situacao_ritmo = CASE
+                WHEN r.data_prova IS NULL OR r.data_prova <= p.hoje THEN 'SEM_PRAZO'
+                WHEN r.atrasados = 0 THEN 'EM_DIA'
+                WHEN r.feito < r.devido * 0.5 THEN 'CRITICO'
+                ELSE 'ATRASADO' END,
+            itens_atrasados = CASE
+                WHEN r.data_prova IS NULL OR r.data_prova <= p.hoje THEN 0
+                ELSE r.atrasados END,
+            horas_diarias_necessarias = CASE
+                WHEN r.data_prova IS NULL OR r.data_prova <= p.hoje THEN NULL
+                ELSE ROUND(CAST((r.total - r.feito) / 3600.0 / (r.data_prova - p.hoje) AS NUMERIC), 2) END,
+            ritmo_avaliado_em = p.agora
+        FROM resumo r, parametros p
+        WHERE c.id = r.ciclo_id
+        RETURNING c.usuario_id
+        """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> avaliarRitmo(Long primeiroId, Long ultimoId, LocalDate hoje, LocalDateTime agora) {
+        return jdbcTemplate.queryForList(AVALIAR_RITMO, Long.class, hoje, agora, primeiroId, ultimoId);
+    }
+}
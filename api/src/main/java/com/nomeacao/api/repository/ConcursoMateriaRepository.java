@@ -2,10 +2,17 @@ package com.nomeacao.api.repository;
 
 import com.nomeacao.api.model.ConcursoMateria;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
+import java.util.Set;
 
 public interface ConcursoMateriaRepository extends JpaRepository<ConcursoMateria, Long> {
     boolean existsByConcursoIdAndMateriaId(Long concursoId, Long materiaId);
     boolean existsByMateriaId(Long materiaId);
     List<ConcursoMateria> findAllByConcursoId(Long concursoId);
+
+    @Query("SELECT cm.concurso.id FROM ConcursoMateria cm WHERE cm.materia.id = :materiaId")
+    Set<Long> findConcursoIdsByMateriaId(@Param("materiaId") Long materiaId);
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.nomeacao.api.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/*
+ * Monta o WHERE só com os filtros em uso (nada de "(:x) IS NULL OR ...", que o Postgres não consegue
+ * planejar bem). Listas vão num único parâmetro "= ANY(?::bigint[])": o texto da consulta não muda com
+ * o tamanho da lista, então o plano preparado é reaproveitado.
+ * As colunas são sempre literais do código, nunca vindas da requisição.
+ */
+public final class FiltroSql {
+
+    private final List<String> condicoes = new ArrayList<>();
+    private final List<Object> parametros = new ArrayList<>();
+
+    public FiltroSql igual(String coluna, Object valor) {
+        if (valor != null) adicionar(coluna + " = ?", valor);
+        return this;
+    }
+
+    public FiltroSql aPartirDe(String coluna, Object valor) {
+        if (valor != null) adicionar(coluna + " >= ?", valor);
+        return this;
+    }
+
+    public FiltroSql ate(String coluna, Object valor) {
+        if (valor != null) adicionar(coluna + " <= ?", valor);
+        return this;
+    }
+
+    public FiltroSql algumDe(String coluna, Collection<Long> ids) {
+        if (usada(ids)) adicionar(coluna + " = ANY(?::bigint[])", paraArray(ids));
+        return this;
+    }
+
+    // Seek/keyset: linhas depois de (a, b) na ordem decrescente; compara a tupla para usar o índice (a DESC, b DESC)
+    public FiltroSql antesDe(String colunaA, String colunaB, Object valorA, Object valorB) {
+        if (valorA != null && valorB != null) {
+            condicoes.add("(" + colunaA + ", " + colunaB + ") < (?, ?)");
+            parametros.add(valorA);
+            parametros.add(valorB);
+        }
+        return this;
+    }
+
+    // Matéria OU tópico: só as listas preenchidas entram no OR
+    public FiltroSql algumDe(String colunaA, Collection<Long> idsA, String colunaB, Collection<Long> idsB) {
+        if (usada(idsA) && usada(idsB)) {
+            condicoes.add("(" + colunaA + " = ANY(?::bigint[]) OR " + colunaB + " = ANY(?::bigint[]))");
+            parametros.add(paraArray(idsA));
+            parametros.add(paraArray(idsB));
+        } else {
+            algumDe(colunaA, idsA);
+            algumDe(colunaB, idsB);
+        }
+        return this;
+    }
+
+    public String where() {
+        return condicoes.isEmpty() ? "" : " WHERE " + String.join(" AND ", condicoes);
+    }
+
+    // Parâmetros que aparecem no SQL antes do WHERE (ex.: no SELECT) vêm primeiro
+    public Object[] parametros(Object... anteriores) {
+        List<Object> todos = new ArrayList<>(List.of(anteriores));
+        todos.addAll(parametros);
+        return todos.toArray();
+    }
+
+    private void adicionar(String condicao, Object valor) {
+        condicoes.add(condicao);
+        parametros.add(valor);
+    }
+
+    private static boolean usada(Collection<Long> ids) {
+        return ids != null && !ids.isEmpty();
+    }
+
+    private static Long[] paraArray(Collection<Long> ids) {
+        return ids.stream().distinct().toArray(Long[]::new);
+    }
+}
@@ -1,18 +1,18 @@
 package com.nomeacao.api.repository;
 
-import com.nomeacao.api.dto.EvolucaoDiariaDTO;
-import com.nomeacao.api.dto.ResumoGeralDTO;
 import com.nomeacao.api.model.RegistroEstudo;
 import com.nomeacao.api.model.Usuario;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface RegistroEstudoRepository extends JpaRepository<RegistroEstudo, Long>, JpaSpecificationExecutor<RegistroEstudo> {
+public interface RegistroEstudoRepository extends JpaRepository<RegistroEstudo, Long>, JpaSpecificationExecutor<RegistroEstudo>,
+        RegistroEstudoRepositoryCustom {
 
     List<RegistroEstudo> findAllByUsuarioOrderByDataInicioDesc(Usuario usuario);
     boolean existsByMateriaId(Long materiaId);
@@ -21,6 +21,14 @@ public interface RegistroEstudoRepository extends JpaRepository<RegistroEstudo,
     boolean existsByTipoEstudoId(Long tipoEstudoId);
     void deleteAllByUsuario(Usuario usuario);
 
+    // Conferências das operações em lote, antes do DELETE/UPDATE
+    boolean existsByIdInAndUsuarioIdNot(Collection<Long> ids, Long usuarioId);
+    boolean existsByIdInAndUsuarioIdAndMateriaIdNot(Collection<Long> ids, Long usuarioId, Long materiaId);
+
+    // Página do histórico: carrega os registros dos ids já filtrados com o que o DTO precisa
+    @EntityGraph(attributePaths = {"materia", "topico", "concurso"})
+    List<RegistroEstudo> findAllByIdIn(Collection<Long> ids);
+
     @Query("""
         SELECT new com.nomeacao.api.dto.ResumoHistoricoDTO(
             r.materia.id,
@@ -32,82 +40,4 @@ public interface RegistroEstudoRepository extends JpaRepository<RegistroEstudo,
         GROUP BY r.materia.id
     """)
     List<com.nomeacao.api.dto.ResumoHistoricoDTO> somarEstudosPorConcurso(@Param("concursoId") Long concursoId);
-
-    @Query("""
-        SELECT SUM(r.segundos) 
-        FROM RegistroEstudo r 
-        WHERE r.usuario.id = :usuarioId 
-          AND r.materia.id = :materiaId 
-          AND r.dataInicio BETWEEN :inicio AND :fim 
-          AND r.contarHorasNoCiclo = true
-    """)
-    Long somarSegundosPorMateriaEPeriodo(
-        @Param("usuarioId") Long usuarioId, 
-        @Param("materiaId") Long materiaId, 
-        @Param("inicio") LocalDateTime inicio, 
-        @Param("fim") LocalDateTime fim
-    );
-
-    // ALTERADO: Adicionado filtro OR para Materias/Topicos
-    @Query("""
-        SELECT new com.nomeacao.api.dto.ResumoGeralDTO(
-            COALESCE(SUM(CAST(r.segundos AS long)), 0),
-            COALESCE(SUM(CAST(r.questoesFeitas AS long)), 0),
-            COALESCE(SUM(CAST(r.questoesCertas AS long)), 0)
-        )
-        FROM RegistroEstudo r
-        WHERE r.usuario = :usuario
-          AND (CAST(:inicio AS timestamp) IS NULL OR r.dataInicio >= :inicio)
-          AND (CAST(:fim AS timestamp) IS NULL OR r.dataInicio <= :fim)
-          AND ((:concursos) IS NULL OR r.concurso.id IN (:concursos))
-          AND ((:tipos) IS NULL OR r.tipoEstudo.id IN (:tipos))
-          AND (
-                ( (:materias) IS NULL AND (:topicos) IS NULL )
-                OR
-                ( r.materia.id IN (:materias) )
-                OR
-                ( r.topico.id IN (:topicos) )
-          )
-    """)
-    ResumoGeralDTO calcularResumoGeral(
-        @Param("usuario") Usuario usuario,
-        @Param("inicio") LocalDateTime inicio,
-        @Param("fim") LocalDateTime fim,
-        @Param("materias") List<Long> materias,
-        @Param("topicos") List<Long> topicos, // Novo
-        @Param("concursos") List<Long> concursos,
-        @Param("tipos") List<Long> tipos
-    );
-
-    // ALTERADO: Adicionado filtro OR para Materias/Topicos
-    @Query("""
-        SELECT new com.nomeacao.api.dto.EvolucaoDiariaDTO(
-            CAST(r.dataInicio AS date),
-            COALESCE(SUM(CAST(r.segundos AS long)), 0)
-        )
-        FROM RegistroEstudo r
-        WHERE r.usuario = :usuario
-          AND (CAST(:inicio AS timestamp) IS NULL OR r.dataInicio >= :inicio)
-          AND (CAST(:fim AS timestamp) IS NULL OR r.dataInicio <= :fim)
-          AND ((:concursos) IS NULL OR r.concurso.id IN (:concursos))
-          AND ((:tipos) IS NULL OR r.tipoEstudo.id IN (:tipos))
-          AND (
-                ( (:materias) IS NULL AND (:topicos) IS NULL )
-                OR
-                ( r.materia.id IN (:materias) )
-                OR
-                ( r.topico.id IN (:topicos) )
-          )
-        GROUP BY CAST(r.dataInicio AS date)
-        ORDER BY CAST(r.dataInicio AS date) ASC
-    """)
-    List<EvolucaoDiariaDTO> calcularEvolucaoDiaria(
-        @Param("usuario") Usuario usuario,
-        @Param("inicio") LocalDateTime inicio,
-        @Param("fim") LocalDateTime fim,
-        @Param("materias") List<Long> materias,
-        @Param("topicos") List<Long> topicos, // Novo
-        @Param("concursos") List<Long> concursos,
-        @Param("tipos") List<Long> tipos
-    );
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.nomeacao.api.repository;
+
+import com.nomeacao.api.dto.CursorRegistro;
+import com.nomeacao.api.dto.DadosDetalhamentoRegistro;
+import com.nomeacao.api.dto.DadosExportacaoRegistro;
+import com.nomeacao.api.dto.DadosSessaoSincronizada;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Listagem do histórico com filtros opcionais, montada pelo FiltroSql (ver RegistroEstudoRepositoryImpl)
+public interface RegistroEstudoRepositoryCustom {
+
+    // Só os ids da página, na ordem pedida; as entidades vêm depois numa consulta só
+    List<Long> buscarIdsFiltrados(Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                                  List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos,
+                                  Pageable pageable);
+
+    long contarFiltrados(Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                         List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos);
+
+    // Página por cursor (mais recentes primeiro), já no formato do DTO: um SELECT com os nomes no join
+    List<DadosDetalhamentoRegistro> buscarPorCursor(Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                                                    List<Long> materias, List<Long> topicos, List<Long> concursos,
+                                                    List<Long> tipos, CursorRegistro cursor, int limite);
+
+    // Exportação: cursor só-para-frente com fetch size, uma linha por vez no consumidor (nada acumulado).
+    // O driver do Postgres só busca em lotes com autocommit desligado, daí a transação de leitura.
+    @Transactional(readOnly = true)
+    long exportar(Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                  List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos,
+                  int tamanhoLote, Consumer<DadosExportacaoRegistro> destino);
+
+    // Importação: um INSERT em lote (JDBC batch) por chamada, cada lote na sua transação.
+    // Colunas de cada linha na ordem de RegistroEstudoRepositoryImpl.COLUNAS_IMPORTACAO
+    @Transactional
+    int inserirEmLote(List<Object[]> linhas);
+
+    // Sincronização: todas as sessões num INSERT ... ON CONFLICT DO NOTHING só (sessões com concurso já resolvido).
+    // Por sessão enviada, na ordem: {cliente_id, id criado agora, id que já existia}; os dois nulos = referência inválida
+    List<Object[]> sincronizar(Long usuarioId, List<DadosSessaoSincronizada> sessoes);
+
+    // Exclusão em lote: um DELETE ... WHERE usuario_id = ? AND id = ANY(?) (ids inexistentes ficam de fora).
+    // Devolve o que saiu agrupado por dia/concurso/matéria, para os consolidados serem ajustados por grupo
+    List<GrupoAfetado> excluirEmLote(Long usuarioId, Collection<Long> ids);
+
+    // Troca de tópico/concurso/tipo num UPDATE só; os destinos nulos mantêm o valor atual.
+    // Com tópico, o WHERE ganha materia_id = materiaDoTopico (o serviço já recusou ids de outra matéria)
+    List<GrupoAfetado> reatribuirEmLote(Long usuarioId, Collection<Long> ids, Long topicoId, Long materiaDoTopico,
+                                        Long concursoId, Long tipoEstudoId);
+
+    // Na exclusão o concurso atual é sempre nulo (o registro saiu); segundosCiclo já respeita contar_horas_no_ciclo
+    record GrupoAfetado(LocalDate dia, Long concursoAnterior, Long concursoAtual, Long materiaId,
+                        long segundosCiclo, long questoes, LocalDateTime primeiro, LocalDateTime ultimo,
+                        int registros) {}
+}
@@ -0,0 +1,335 @@
+package com.nomeacao.api.repository;
+
+import com.nomeacao.api.dto.CursorRegistro;
+import com.nomeacao.api.dto.DadosDetalhamentoRegistro;
+import com.nomeacao.api.dto.DadosExportacaoRegistro;
+import com.nomeacao.api.dto.DadosSessaoSincronizada;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+public class RegistroEstudoRepositoryImpl implements RegistroEstudoRepositoryCustom {
+
+    // Propriedades aceitas no ?sort= (o resto viraria SQL vindo da requisição)
+    private static final Map<String, String> COLUNAS_ORDENACAO = Map.of(
+        "dataInicio", "r.data_inicio",
+        "segundos", "r.segundos",
+        "questoesFeitas", "r.questoes_feitas",
+        "questoesCertas", "r.questoes_certas",
+        "id", "r.id"
+    );
+
+    // Projeção plana do DTO (colunas na ordem do construtor)
+    private static final RowMapper<DadosDetalhamentoRegistro> DETALHAMENTO = (rs, i) -> new DadosDetalhamentoRegistro(
+        rs.getLong(1),
+        rs.getLong(2),
+        rs.getString(3),
+        rs.getObject(4, Long.class),
+        rs.getString(5),
+        rs.getObject(6, Long.class),
+        rs.getString(7),
+        rs.getObject(8, LocalDateTime.class),
+        rs.getObject(9, Integer.class),
+        rs.getObject(10, Integer.class),
+        rs.getObject(11, Integer.class),
+        rs.getString(12)
+    );
+
+    static final String COLUNAS_IMPORTACAO = "data_inicio, segundos, questoes_feitas, questoes_certas, anotacoes, "
+            + "contar_horas_no_ciclo, usuario_id, materia_id, topico_id, concurso_id, tipo_estudo_id";
+
+    // Tipos explícitos: sem eles o driver teria de descobrir o tipo de cada null
+    private static final int[] TIPOS_IMPORTACAO = {
+        Types.TIMESTAMP, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.VARCHAR,
+        Types.BOOLEAN, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> buscarIdsFiltrados(Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                                         List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos,
+                                         Pageable pageable) {
+        FiltroSql filtro = filtrar(usuarioId, inicio, fim, materias, topicos, concursos, tipos);
+        Object[] parametros = filtro.parametros();
+
+        if (pageable.isUnpaged()) {
+            return jdbcTemplate.queryForList(sqlIds(filtro, pageable), Long.class, parametros);
+        }
+        Object[] comPagina = Arrays.copyOf(parametros, parametros.length + 2);
+        comPagina[parametros.length] = pageable.getPageSize();
+        comPagina[parametros.length + 1] = pageable.getOffset();
+        return jdbcTemplate.queryForList(sqlIds(filtro, pageable), Long.class, comPagina);
+    }
+
+    @Override
+    public long contarFiltrados(Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                                List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos) {
+        FiltroSql filtro = filtrar(usuarioId, inicio, fim, materias, topicos, concursos, tipos);
+        Long total = jdbcTemplate.queryForObject(sqlContagem(filtro), Long.class, filtro.parametros());
+        return total != null ? total : 0L;
+    }
+
+    @Override
+    public List<DadosDetalhamentoRegistro> buscarPorCursor(Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                                                           List<Long> materias, List<Long> topicos, List<Long> concursos,
+                                                           List<Long> tipos, CursorRegistro cursor, int limite) {
+        FiltroSql filtro = filtrar(usuarioId, inicio, fim, materias, topicos, concursos, tipos);
+        if (cursor != null) filtro.antesDe("r.data_inicio", "r.id", cursor.dataInicio(), cursor.id());
+
+        Object[] parametros = filtro.parametros();
+        Object[] comLimite = Arrays.copyOf(parametros, parametros.length + 1);
+        comLimite[parametros.length] = limite;
+        return jdbcTemplate.query(sqlCursor(filtro), DETALHAMENTO, comLimite);
+    }
+
+    @Override
+    public long exportar(Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                         List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos,
+                         int tamanhoLote, Consumer<DadosExportacaoRegistro> destino) {
+        FiltroSql filtro = filtrar(usuarioId, inicio, fim, materias, topicos, concursos, tipos);
+        long[] linhas = {0};
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sqlExportacao(filtro),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(tamanhoLote);
+            new ArgumentPreparedStatementSetter(filtro.parametros()).setValues(ps);
+            return ps;
+        }, rs -> {
+            destino.accept(new DadosExportacaoRegistro(
+                rs.getLong(1),
+                rs.getObject(2, LocalDateTime.class),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getString(6),
+                rs.getObject(7, Integer.class),
+                rs.getObject(8, Integer.class),
+                rs.getObject(9, Integer.class),
+                rs.getObject(10, Boolean.class),
+                rs.getString(11)
+            ));
+            linhas[0]++;
+        });
+        return linhas[0];
+    }
+
+    @Override
+    public int inserirEmLote(List<Object[]> linhas) {
+        if (linhas.isEmpty()) return 0;
+        String sql = "INSERT INTO registros_estudo (" + COLUNAS_IMPORTACAO + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        return Arrays.stream(jdbcTemplate.batchUpdate(sql, linhas, TIPOS_IMPORTACAO)).map(n -> Math.max(n, 0)).sum();
+    }
+
+    /*
+     * Uma ida ao banco: as sessões chegam como arrays paralelos (unnest), as de referência alheia ou inexistente
+     * ficam de fora, e o índice único (usuario_id, cliente_id) descarta as já gravadas. A consulta final lê
+     * registros_estudo no snapshot de antes do INSERT, então "existente" = gravada numa sincronização anterior.
+     */
+    private static final String SQL_SINCRONIZACAO = """
+        WITH entrada AS (
+            SELECT *
+            FROM unnest(CAST(? AS uuid[]), CAST(? AS bigint[]), CAST(? AS bigint[]), CAST(? AS bigint[]),
+                        CAST(? AS bigint[]), CAST(? AS timestamp[]), CAST(? AS int[]), CAST(? AS int[]),
+                        CAST(? AS int[]), CAST(? AS boolean[]), CAST(? AS text[]))
+                 WITH ORDINALITY AS s(cliente_id, materia_id, topico_id, concurso_id, tipo_estudo_id, data_inicio,
+                                      segundos, questoes_feitas, questoes_certas, contar_horas_no_ciclo, anotacoes, ordem)
+        ), validas AS (
+            SELECT e.*
+            FROM entrada e
+            JOIN materias m ON m.id = e.materia_id AND m.usuario_id = ?
+            LEFT JOIN topicos t ON t.id = e.topico_id AND t.materia_id = e.materia_id
+            LEFT JOIN concursos c ON c.id = e.concurso_id AND c.usuario_id = ?
+            LEFT JOIN tipos_estudo te ON te.id = e.tipo_estudo_id AND te.usuario_id = ?
+            WHERE (e.topico_id IS NULL OR t.id IS NOT NULL)
+              AND (e.concurso_id IS NULL OR c.id IS NOT NULL)
+              AND (e.tipo_estudo_id IS NULL OR te.id IS NOT NULL)
+        ), inseridos AS (
+            INSERT INTO registros_estudo (cliente_id, data_inicio, segundos, questoes_feitas, questoes_certas, anotacoes,
+                                          contar_horas_no_ciclo, usuario_id, materia_id, topico_id, concurso_id, tipo_estudo_id)
+            SELECT v.cliente_id, v.data_inicio, v.segundos, v.questoes_feitas, v.questoes_certas, v.anotacoes,
+                   COALESCE(v.contar_horas_no_ciclo, true), ?, v.materia_id, v.topico_id, v.concurso_id, v.tipo_estudo_id
+            FROM validas v
+            ON CONFLICT (usuario_id, cliente_id) WHERE cliente_id IS NOT NULL DO NOTHING
+            RETURNING id, cliente_id
+        )
+        SELECT e.cliente_id, i.id, r.id
+        FROM entrada e
+        LEFT JOIN inseridos i ON i.cliente_id = e.cliente_id
+        LEFT JOIN registros_estudo r ON r.usuario_id = ? AND r.cliente_id = e.cliente_id
+        ORDER BY e.ordem
+    """;
+
+    @Override
+    public List<Object[]> sincronizar(Long usuarioId, List<DadosSessaoSincronizada> sessoes) {
+        Object[] parametros = {
+            coluna(sessoes, s -> s.clienteId().toString(), String[]::new),
+            coluna(sessoes, DadosSessaoSincronizada::materiaId, Long[]::new),
+            coluna(sessoes, DadosSessaoSincronizada::topicoId, Long[]::new),
+            coluna(sessoes, DadosSessaoSincronizada::concursoId, Long[]::new),
+            coluna(sessoes, DadosSessaoSincronizada::tipoEstudoId, Long[]::new),
+            coluna(sessoes, s -> s.dataInicio().withNano(0).toString(), String[]::new),
+            coluna(sessoes, DadosSessaoSincronizada::segundos, Integer[]::new),
+            coluna(sessoes, DadosSessaoSincronizada::questoesFeitas, Integer[]::new),
+            coluna(sessoes, DadosSessaoSincronizada::questoesCertas, Integer[]::new),
+            coluna(sessoes, DadosSessaoSincronizada::contarHorasNoCiclo, Boolean[]::new),
+            coluna(sessoes, DadosSessaoSincronizada::anotacoes, String[]::new),
+            usuarioId, usuarioId, usuarioId, usuarioId, usuarioId
+        };
+        return jdbcTemplate.query(SQL_SINCRONIZACAO, (rs, i) -> new Object[]{
+            rs.getObject(1, UUID.class), rs.getObject(2, Long.class), rs.getObject(3, Long.class)
+        }, parametros);
+    }
+
+    private static final RowMapper<GrupoAfetado> GRUPO_AFETADO = (rs, i) -> new GrupoAfetado(
+        rs.getObject(1, LocalDate.class),
+        rs.getObject(2, Long.class),
+        rs.getObject(3, Long.class),
+        rs.getLong(4),
+        rs.getLong(5),
+        rs.getLong(6),
+        rs.getObject(7, LocalDateTime.class),
+        rs.getObject(8, LocalDateTime.class),
+        rs.getInt(9)
+    );
+
+    // Agregação comum às operações em lote: lê as linhas devolvidas pelo RETURNING do CTE "afetados"
+    private static final String AGRUPAMENTO_AFETADOS = """
+        SELECT CAST(data_inicio AS DATE), concurso_anterior, concurso_atual, materia_id,
+               SUM(CASE WHEN contar_horas_no_ciclo THEN segundos ELSE 0 END), SUM(COALESCE(questoes_feitas, 0)),
+               MIN(data_inicio), MAX(data_inicio), COUNT(*)
+        FROM afetados
+        GROUP BY CAST(data_inicio AS DATE), concurso_anterior, concurso_atual, materia_id
+    """;
+
+    @Override
+    public List<GrupoAfetado> excluirEmLote(Long usuarioId, Collection<Long> ids) {
+        FiltroSql filtro = new FiltroSql()
+                .igual("r.usuario_id", usuarioId)
+                .algumDe("r.id", ids);
+        return jdbcTemplate.query(sqlExclusaoLote(filtro), GRUPO_AFETADO, filtro.parametros());
+    }
+
+    @Override
+    public List<GrupoAfetado> reatribuirEmLote(Long usuarioId, Collection<Long> ids, Long topicoId, Long materiaDoTopico,
+                                               Long concursoId, Long tipoEstudoId) {
+        // SET e WHERE só com o que veio: destino nulo não entra na consulta
+        List<String> atribuicoes = new ArrayList<>();
+        List<Object> valores = new ArrayList<>();
+        if (topicoId != null) { atribuicoes.add("topico_id = ?"); valores.add(topicoId); }
+        if (concursoId != null) { atribuicoes.add("concurso_id = ?"); valores.add(concursoId); }
+        if (tipoEstudoId != null) { atribuicoes.add("tipo_estudo_id = ?"); valores.add(tipoEstudoId); }
+
+        FiltroSql filtro = new FiltroSql()
+                .igual("r.usuario_id", usuarioId)
+                .algumDe("r.id", ids)
+                .igual("r.materia_id", materiaDoTopico);
+        return jdbcTemplate.query(sqlReatribuicaoLote(String.join(", ", atribuicoes), filtro), GRUPO_AFETADO,
+                filtro.parametros(valores.toArray()));
+    }
+
+    static String sqlExclusaoLote(FiltroSql filtro) {
+        return "WITH afetados AS (DELETE FROM registros_estudo r" + filtro.where() + """
+
+                RETURNING r.data_inicio, r.concurso_id AS concurso_anterior, CAST(NULL AS bigint) AS concurso_atual,
+                          r.materia_id, r.segundos, r.questoes_feitas, r.contar_horas_no_ciclo)
+            """ + AGRUPAMENTO_AFETADOS;
+    }
+
+    // O self-join "antigo" enxerga a linha de antes do UPDATE: é de onde sai o concurso anterior
+    static String sqlReatribuicaoLote(String atribuicoes, FiltroSql filtro) {
+        return "WITH afetados AS (UPDATE registros_estudo r SET " + atribuicoes
+            + " FROM registros_estudo antigo" + filtro.where() + " AND antigo.id = r.id" + """
+
+                RETURNING r.data_inicio, antigo.concurso_id AS concurso_anterior, r.concurso_id AS concurso_atual,
+                          r.materia_id, r.segundos, r.questoes_feitas, r.contar_horas_no_ciclo)
+            """ + AGRUPAMENTO_AFETADOS;
+    }
+
+    private static <T> T[] coluna(List<DadosSessaoSincronizada> sessoes, Function<DadosSessaoSincronizada, T> campo,
+                                  IntFunction<T[]> array) {
+        return sessoes.stream().map(campo).toArray(array);
+    }
+
+    static FiltroSql filtrar(Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                             List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos) {
+        return new FiltroSql()
+                .igual("r.usuario_id", usuarioId)
+                .aPartirDe("r.data_inicio", inicio)
+                .ate("r.data_inicio", fim)
+                .algumDe("r.concurso_id", concursos)
+                .algumDe("r.tipo_estudo_id", tipos)
+                .algumDe("r.materia_id", materias, "r.topico_id", topicos);
+    }
+
+    // Pacote: os testes de EXPLAIN usam o mesmo SQL
+    static String sqlIds(FiltroSql filtro, Pageable pageable) {
+        String sql = "SELECT r.id FROM registros_estudo r" + filtro.where() + ordenacao(pageable.getSort());
+        return pageable.isPaged() ? sql + " LIMIT ? OFFSET ?" : sql;
+    }
+
+    // Sem OFFSET: o WHERE (data_inicio, id) < cursor já começa no ponto certo do idx_registros_usuario_data (lido de trás para frente)
+    static String sqlCursor(FiltroSql filtro) {
+        return """
+            SELECT r.id, r.materia_id, m.nome, r.topico_id, t.nome, r.tipo_estudo_id, c.nome,
+                   r.data_inicio, r.segundos, r.questoes_feitas, r.questoes_certas, r.anotacoes
+            FROM registros_estudo r
+            JOIN materias m ON m.id = r.materia_id
+            LEFT JOIN topicos t ON t.id = r.topico_id
+            LEFT JOIN concursos c ON c.id = r.concurso_id""" + filtro.where()
+            + " ORDER BY r.data_inicio DESC, r.id DESC LIMIT ?";
+    }
+
+    // Histórico inteiro do filtro, mais antigos primeiro (ordem natural de uma planilha)
+    static String sqlExportacao(FiltroSql filtro) {
+        return """
+            SELECT r.id, r.data_inicio, m.nome, t.nome, c.nome, te.nome,
+                   r.segundos, r.questoes_feitas, r.questoes_certas, r.contar_horas_no_ciclo, r.anotacoes
+            FROM registros_estudo r
+            JOIN materias m ON m.id = r.materia_id
+            LEFT JOIN topicos t ON t.id = r.topico_id
+            LEFT JOIN concursos c ON c.id = r.concurso_id
+            LEFT JOIN tipos_estudo te ON te.id = r.tipo_estudo_id""" + filtro.where()
+            + " ORDER BY r.data_inicio, r.id";
+    }
+
+    static String sqlContagem(FiltroSql filtro) {
+        return "SELECT COUNT(*) FROM registros_estudo r" + filtro.where();
+    }
+
+    // Sem ordenação pedida = mais recentes primeiro; o id no final desempata registros no mesmo horário
+    private static String ordenacao(Sort sort) {
+        List<String> partes = new ArrayList<>();
+        boolean temId = false;
+        for (Sort.Order ordem : sort.isSorted() ? sort : Sort.by(Sort.Direction.DESC, "dataInicio")) {
+            String coluna = COLUNAS_ORDENACAO.get(ordem.getProperty());
+            if (coluna == null) {
+                throw new RuntimeException("Não é possível ordenar por '" + ordem.getProperty() + "'.");
+            }
+            temId |= "r.id".equals(coluna);
+            partes.add(coluna + (ordem.isAscending() ? " ASC" : " DESC"));
+        }
+        if (!temId) partes.add("r.id DESC");
+        return " ORDER BY " + String.join(", ", partes);
+    }
+}
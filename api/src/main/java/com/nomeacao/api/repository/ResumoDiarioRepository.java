@@ -0,0 +1,120 @@
+package com.nomeacao.api.repository;
+
+import com.nomeacao.api.model.ResumoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ResumoDiarioRepository extends JpaRepository<ResumoDiario, Long>, ResumoDiarioRepositoryCustom {
+
+    // Soma (ou subtrai, com valores negativos) um registro no consolidado do dia
+    @Modifying
+    @Query(value = """
+        INSERT INTO resumos_diarios (usuario_id, dia, materia_id, topico_id, concurso_id, tipo_estudo_id,
+                                     segundos, segundos_ciclo, questoes_feitas, questoes_certas, sessoes)
+        VALUES (:usuarioId, :dia, :materiaId,
+                CAST(:topicoId AS BIGINT), CAST(:concursoId AS BIGINT), CAST(:tipoEstudoId AS BIGINT),
+                :segundos, :segundosCiclo, :questoesFeitas, :questoesCertas, :sessoes)
+        ON CONFLICT (usuario_id, dia, materia_id,
+                     (COALESCE(topico_id, 0)), (COALESCE(concurso_id, 0)), (COALESCE(tipo_estudo_id, 0)))
+        DO UPDATE SET segundos = resumos_diarios.segundos + EXCLUDED.segundos,
+                      segundos_ciclo = resumos_diarios.segundos_ciclo + EXCLUDED.segundos_ciclo,
+                      questoes_feitas = resumos_diarios.questoes_feitas + EXCLUDED.questoes_feitas,
+                      questoes_certas = resumos_diarios.questoes_certas + EXCLUDED.questoes_certas,
+                      sessoes = resumos_diarios.sessoes + EXCLUDED.sessoes
+    """, nativeQuery = true)
+    void acumular(
+        @Param("usuarioId") Long usuarioId,
+        @Param("dia") LocalDate dia,
+        @Param("materiaId") Long materiaId,
+        @Param("topicoId") Long topicoId,
+        @Param("concursoId") Long concursoId,
+        @Param("tipoEstudoId") Long tipoEstudoId,
+        @Param("segundos") long segundos,
+        @Param("segundosCiclo") long segundosCiclo,
+        @Param("questoesFeitas") long questoesFeitas,
+        @Param("questoesCertas") long questoesCertas,
+        @Param("sessoes") int sessoes
+    );
+
+    // Soma (sinal 1) ou subtrai (sinal -1) vários registros de uma vez, agrupados pela chave do consolidado
+    @Modifying
+    @Query(value = """
+        INSERT INTO resumos_diarios (usuario_id, dia, materia_id, topico_id, concurso_id, tipo_estudo_id,
+                                     segundos, segundos_ciclo, questoes_feitas, questoes_certas, sessoes)
+        SELECT usuario_id, CAST(data_inicio AS DATE), materia_id, topico_id, concurso_id, tipo_estudo_id,
+               :sinal * SUM(segundos), :sinal * SUM(CASE WHEN contar_horas_no_ciclo THEN segundos ELSE 0 END),
+               :sinal * SUM(COALESCE(questoes_feitas, 0)), :sinal * SUM(COALESCE(questoes_certas, 0)), :sinal * COUNT(*)
+        FROM registros_estudo
+        WHERE usuario_id = :usuarioId AND id = ANY(CAST(:ids AS bigint[]))
+        GROUP BY usuario_id, CAST(data_inicio AS DATE), materia_id, topico_id, concurso_id, tipo_estudo_id
+        ON CONFLICT (usuario_id, dia, materia_id,
+                     (COALESCE(topico_id, 0)), (COALESCE(concurso_id, 0)), (COALESCE(tipo_estudo_id, 0)))
+        DO UPDATE SET segundos = resumos_diarios.segundos + EXCLUDED.segundos,
+                      segundos_ciclo = resumos_diarios.segundos_ciclo + EXCLUDED.segundos_ciclo,
+                      questoes_feitas = resumos_diarios.questoes_feitas + EXCLUDED.questoes_feitas,
+                      questoes_certas = resumos_diarios.questoes_certas + EXCLUDED.questoes_certas,
+                      sessoes = resumos_diarios.sessoes + EXCLUDED.sessoes
+    """, nativeQuery = true)
+    void acumularRegistros(@Param("usuarioId") Long usuarioId, @Param("ids") Long[] ids, @Param("sinal") int sinal);
+
+    // Remove as linhas que ficaram sem nenhuma sessão depois de uma subtração
+    @Modifying
+    @Query(value = "DELETE FROM resumos_diarios WHERE usuario_id = :usuarioId AND dia = :dia AND sessoes <= 0", nativeQuery = true)
+    void removerVazios(@Param("usuarioId") Long usuarioId, @Param("dia") LocalDate dia);
+
+    @Modifying
+    @Query(value = "DELETE FROM resumos_diarios WHERE usuario_id = :usuarioId AND sessoes <= 0", nativeQuery = true)
+    void removerVaziosDoUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Modifying
+    @Query(value = "DELETE FROM resumos_diarios WHERE usuario_id = :usuarioId", nativeQuery = true)
+    void excluirPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO resumos_diarios (usuario_id, dia, materia_id, topico_id, concurso_id, tipo_estudo_id,
+                                     segundos, segundos_ciclo, questoes_feitas, questoes_certas, sessoes)
+        SELECT usuario_id, CAST(data_inicio AS DATE), materia_id, topico_id, concurso_id, tipo_estudo_id,
+               SUM(segundos), SUM(CASE WHEN contar_horas_no_ciclo THEN segundos ELSE 0 END),
+               SUM(COALESCE(questoes_feitas, 0)), SUM(COALESCE(questoes_certas, 0)), COUNT(*)
+        FROM registros_estudo
+        WHERE usuario_id = :usuarioId
+        GROUP BY usuario_id, CAST(data_inicio AS DATE), materia_id, topico_id, concurso_id, tipo_estudo_id
+    """, nativeQuery = true)
+    void reconstruirPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Modifying
+    @Query(value = "DELETE FROM resumos_diarios", nativeQuery = true)
+    void excluirTodos();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO resumos_diarios (usuario_id, dia, materia_id, topico_id, concurso_id, tipo_estudo_id,
+                                     segundos, segundos_ciclo, questoes_feitas, questoes_certas, sessoes)
+        SELECT usuario_id, CAST(data_inicio AS DATE), materia_id, topico_id, concurso_id, tipo_estudo_id,
+               SUM(segundos), SUM(CASE WHEN contar_horas_no_ciclo THEN segundos ELSE 0 END),
+               SUM(COALESCE(questoes_feitas, 0)), SUM(COALESCE(questoes_certas, 0)), COUNT(*)
+        FROM registros_estudo
+        GROUP BY usuario_id, CAST(data_inicio AS DATE), materia_id, topico_id, concurso_id, tipo_estudo_id
+    """, nativeQuery = true)
+    void reconstruirTodos();
+
+    // Mapa de calor: minutos por dia num intervalo (só os dias com estudo; o índice (usuario_id, dia, ...) cobre o filtro)
+    @Query(value = """
+        SELECT r.dia, CAST(ROUND(SUM(r.segundos) / 60.0) AS BIGINT) AS minutos
+        FROM resumos_diarios r
+        WHERE r.usuario_id = :usuarioId
+          AND r.dia BETWEEN :inicio AND :fim
+        GROUP BY r.dia
+    """, nativeQuery = true)
+    List<Object[]> somarMinutosPorDia(
+        @Param("usuarioId") Long usuarioId,
+        @Param("inicio") LocalDate inicio,
+        @Param("fim") LocalDate fim
+    );
+}
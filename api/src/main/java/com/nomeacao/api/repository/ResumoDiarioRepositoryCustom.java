@@ -0,0 +1,31 @@
+package com.nomeacao.api.repository;
+
+import com.nomeacao.api.dto.EvolucaoDiariaDTO;
+import com.nomeacao.api.dto.ResumoGeralDTO;
+import com.nomeacao.api.dto.TotalMateriaDTO;
+import com.nomeacao.api.model.Usuario;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Consultas do Dashboard com filtros opcionais, montadas pelo FiltroSql (ver ResumoDiarioRepositoryImpl).
+// inicio/fim têm o mesmo critério de /registros: dias inteiros vêm do consolidado, dias cortados no meio, dos registros.
+public interface ResumoDiarioRepositoryCustom {
+
+    ResumoGeralDTO calcularResumoGeral(Usuario usuario, LocalDateTime inicio, LocalDateTime fim,
+                                       List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos);
+
+    List<EvolucaoDiariaDTO> calcularEvolucaoDiaria(Usuario usuario, LocalDateTime inicio, LocalDateTime fim,
+                                                   List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos);
+
+    List<TotalMateriaDTO> calcularTotaisPorMateria(Usuario usuario, LocalDateTime inicio, LocalDateTime fim,
+                                                   List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos);
+
+    /*
+     * Caminho agrupado do Dashboard: resumo geral, série por período (date_trunc com unidade = day/week/month)
+     * e totais por matéria numa única varredura (GROUPING SETS).
+     * Colunas: grupo_periodo, grupo_materia, periodo, materia_id, nome_materia, segundos, questoes, acertos
+     */
+    List<Object[]> agregarDashboard(Long usuarioId, String unidade, LocalDateTime inicio, LocalDateTime fim,
+                                    List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos);
+}
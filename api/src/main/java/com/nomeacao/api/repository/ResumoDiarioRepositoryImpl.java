@@ -0,0 +1,149 @@
+package com.nomeacao.api.repository;
+
+import com.nomeacao.api.dto.EvolucaoDiariaDTO;
+import com.nomeacao.api.dto.ResumoGeralDTO;
+import com.nomeacao.api.dto.TotalMateriaDTO;
+import com.nomeacao.api.model.Usuario;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResumoDiarioRepositoryImpl implements ResumoDiarioRepositoryCustom {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public ResumoGeralDTO calcularResumoGeral(Usuario usuario, LocalDateTime inicio, LocalDateTime fim,
+                                              List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos) {
+        FiltroSql filtro = filtrar(usuario.getId(), materias, topicos, concursos, tipos);
+        Fonte fonte = Fonte.de(inicio, fim);
+        String sql = """
+            SELECT COALESCE(SUM(r.segundos), 0), COALESCE(SUM(r.questoes_feitas), 0), COALESCE(SUM(r.questoes_certas), 0)
+            FROM """ + fonte.sql() + filtro.where();
+
+        return jdbcTemplate.queryForObject(sql,
+                (rs, i) -> new ResumoGeralDTO(rs.getLong(1), rs.getLong(2), rs.getLong(3)),
+                filtro.parametros(fonte.parametros()));
+    }
+
+    @Override
+    public List<EvolucaoDiariaDTO> calcularEvolucaoDiaria(Usuario usuario, LocalDateTime inicio, LocalDateTime fim,
+                                                          List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos) {
+        FiltroSql filtro = filtrar(usuario.getId(), materias, topicos, concursos, tipos);
+        Fonte fonte = Fonte.de(inicio, fim);
+        String sql = "SELECT r.dia, SUM(r.segundos) FROM " + fonte.sql() + filtro.where()
+                + " GROUP BY r.dia ORDER BY r.dia";
+
+        return jdbcTemplate.query(sql,
+                (rs, i) -> new EvolucaoDiariaDTO(rs.getObject(1, LocalDate.class), rs.getLong(2)),
+                filtro.parametros(fonte.parametros()));
+    }
+
+    @Override
+    public List<TotalMateriaDTO> calcularTotaisPorMateria(Usuario usuario, LocalDateTime inicio, LocalDateTime fim,
+                                                          List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos) {
+        FiltroSql filtro = filtrar(usuario.getId(), materias, topicos, concursos, tipos);
+        Fonte fonte = Fonte.de(inicio, fim);
+        String sql = "SELECT t.materia_id, m.nome, t.segundos, t.questoes, t.acertos"
+                + " FROM (SELECT r.materia_id, SUM(r.segundos) AS segundos,"
+                + " SUM(r.questoes_feitas) AS questoes, SUM(r.questoes_certas) AS acertos"
+                + " FROM " + fonte.sql() + filtro.where() + " GROUP BY r.materia_id) t"
+                + " LEFT JOIN materias m ON m.id = t.materia_id";
+
+        return jdbcTemplate.query(sql,
+                (rs, i) -> new TotalMateriaDTO(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                filtro.parametros(fonte.parametros()));
+    }
+
+    @Override
+    public List<Object[]> agregarDashboard(Long usuarioId, String unidade, LocalDateTime inicio, LocalDateTime fim,
+                                           List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos) {
+        FiltroSql filtro = filtrar(usuarioId, materias, topicos, concursos, tipos);
+        Fonte fonte = Fonte.de(inicio, fim);
+        String sql = "SELECT g.grupo_periodo, g.grupo_materia, g.periodo, g.materia_id, m.nome,"
+                + " g.segundos, g.questoes, g.acertos"
+                + " FROM (SELECT GROUPING(periodo) AS grupo_periodo, GROUPING(materia_id) AS grupo_materia,"
+                + " periodo, materia_id, COALESCE(SUM(segundos), 0) AS segundos,"
+                + " COALESCE(SUM(questoes_feitas), 0) AS questoes, COALESCE(SUM(questoes_certas), 0) AS acertos"
+                + " FROM (SELECT CAST(date_trunc(?, r.dia) AS DATE) AS periodo, r.materia_id,"
+                + " r.segundos, r.questoes_feitas, r.questoes_certas"
+                + " FROM " + fonte.sql() + filtro.where() + ") base"
+                + " GROUP BY GROUPING SETS ((), (periodo), (materia_id))) g"
+                + " LEFT JOIN materias m ON m.id = g.materia_id"; // Nome só nas poucas linhas agregadas
+
+        return jdbcTemplate.query(sql,
+                (rs, i) -> new Object[]{
+                    rs.getInt(1), rs.getInt(2), rs.getObject(3, LocalDate.class), rs.getObject(4, Long.class),
+                    rs.getString(5), rs.getLong(6), rs.getLong(7), rs.getLong(8)
+                },
+                filtro.parametros(fonte.parametros(unidade)));
+    }
+
+    private static FiltroSql filtrar(Long usuarioId,
+                                     List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos) {
+        return new FiltroSql()
+                .igual("r.usuario_id", usuarioId)
+                .algumDe("r.concurso_id", concursos)
+                .algumDe("r.tipo_estudo_id", tipos)
+                .algumDe("r.materia_id", materias, "r.topico_id", topicos);
+    }
+
+    /*
+     * Linhas do período com as colunas do consolidado, apelidadas de "r" para o FiltroSql.
+     * inicio/fim seguem o critério de /registros (data_inicio >= inicio e <= fim): os dias cobertos inteiros
+     * vêm de resumos_diarios; um dia cortado no meio (inicio fora da meia-noite, fim antes do último
+     * instante do dia) vem dos registros daquele dia, como no burn-up do ciclo.
+     */
+    record Fonte(String sql, List<Object> valores) {
+
+        static Fonte de(LocalDateTime inicio, LocalDateTime fim) {
+            LocalDate primeiroDia = inicio == null ? null
+                    : inicio.toLocalTime().equals(LocalTime.MIDNIGHT) ? inicio.toLocalDate() : inicio.toLocalDate().plusDays(1);
+            LocalDate ultimoDia = fim == null ? null
+                    : fim.toLocalTime().equals(LocalTime.MAX) ? fim.toLocalDate() : fim.toLocalDate().minusDays(1);
+
+            FiltroSql dias = new FiltroSql().aPartirDe("d.dia", primeiroDia).ate("d.dia", ultimoDia);
+            String sql = "SELECT d.usuario_id, d.dia, d.materia_id, d.topico_id, d.concurso_id, d.tipo_estudo_id,"
+                    + " d.segundos, d.questoes_feitas, d.questoes_certas FROM resumos_diarios d" + dias.where();
+            List<Object> valores = new ArrayList<>(List.of(dias.parametros()));
+
+            boolean cortaInicio = inicio != null && !primeiroDia.equals(inicio.toLocalDate());
+            boolean cortaFim = fim != null && !ultimoDia.equals(fim.toLocalDate());
+            if (cortaInicio || cortaFim) {
+                // Dentro de [inicio, fim] e fora dos dias inteiros: nenhum registro entra duas vezes
+                FiltroSql bordas = new FiltroSql().aPartirDe("e.data_inicio", inicio).ate("e.data_inicio", fim);
+                List<String> foraDosDias = new ArrayList<>();
+                List<Object> limites = new ArrayList<>();
+                if (primeiroDia != null) {
+                    foraDosDias.add("e.data_inicio < ?");
+                    limites.add(primeiroDia.atStartOfDay());
+                }
+                if (ultimoDia != null) {
+                    foraDosDias.add("e.data_inicio >= ?");
+                    limites.add(ultimoDia.plusDays(1).atStartOfDay());
+                }
+
+                sql += " UNION ALL SELECT e.usuario_id, CAST(e.data_inicio AS DATE), e.materia_id, e.topico_id,"
+                        + " e.concurso_id, e.tipo_estudo_id, e.segundos, COALESCE(e.questoes_feitas, 0),"
+                        + " COALESCE(e.questoes_certas, 0) FROM registros_estudo e" + bordas.where()
+                        + " AND (" + String.join(" OR ", foraDosDias) + ")";
+                valores.addAll(List.of(bordas.parametros()));
+                valores.addAll(limites);
+            }
+            return new Fonte("(" + sql + ") r", valores);
+        }
+
+        // Parâmetros que aparecem no SQL antes da fonte (ex.: a unidade do date_trunc) vêm primeiro
+        Object[] parametros(Object... anteriores) {
+            List<Object> todos = new ArrayList<>(List.of(anteriores));
+            todos.addAll(valores);
+            return todos.toArray();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.nomeacao.api.repository;
+
+import com.nomeacao.api.model.ResumoMensal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ResumoMensalRepository extends JpaRepository<ResumoMensal, Long> {
+
+    // Refaz um mês a partir do consolidado diário (no máximo 31 dias de linhas): serve para soma e subtração
+    @Modifying
+    @Query(value = "DELETE FROM resumos_mensais WHERE usuario_id = :usuarioId AND mes = :mes", nativeQuery = true)
+    void excluirMes(@Param("usuarioId") Long usuarioId, @Param("mes") LocalDate mes);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO resumos_mensais (usuario_id, mes, materia_id, concurso_id,
+                                     segundos, questoes_feitas, questoes_certas, sessoes, dias_estudados)
+        SELECT usuario_id, :mes, materia_id, concurso_id,
+               SUM(segundos), SUM(questoes_feitas), SUM(questoes_certas), SUM(sessoes),
+               bit_or(1 << (EXTRACT(DAY FROM dia)::INT - 1))
+        FROM resumos_diarios
+        WHERE usuario_id = :usuarioId
+          AND dia >= :mes AND dia < CAST(:mes AS DATE) + INTERVAL '1 month'
+        GROUP BY usuario_id, materia_id, concurso_id
+    """, nativeQuery = true)
+    void recalcularMes(@Param("usuarioId") Long usuarioId, @Param("mes") LocalDate mes);
+
+    @Modifying
+    @Query(value = "DELETE FROM resumos_mensais WHERE usuario_id = :usuarioId", nativeQuery = true)
+    void excluirPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO resumos_mensais (usuario_id, mes, materia_id, concurso_id,
+                                     segundos, questoes_feitas, questoes_certas, sessoes, dias_estudados)
+        SELECT usuario_id, CAST(date_trunc('month', dia) AS DATE), materia_id, concurso_id,
+               SUM(segundos), SUM(questoes_feitas), SUM(questoes_certas), SUM(sessoes),
+               bit_or(1 << (EXTRACT(DAY FROM dia)::INT - 1))
+        FROM resumos_diarios
+        WHERE usuario_id = :usuarioId
+        GROUP BY usuario_id, CAST(date_trunc('month', dia) AS DATE), materia_id, concurso_id
+    """, nativeQuery = true)
+    void reconstruirPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Modifying
+    @Query(value = "DELETE FROM resumos_mensais", nativeQuery = true)
+    void excluirTodos();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO resumos_mensais (usuario_id, mes, materia_id, concurso_id,
+                                     segundos, questoes_feitas, questoes_certas, sessoes, dias_estudados)
+        SELECT usuario_id, CAST(date_trunc('month', dia) AS DATE), materia_id, concurso_id,
+               SUM(segundos), SUM(questoes_feitas), SUM(questoes_certas), SUM(sessoes),
+               bit_or(1 << (EXTRACT(DAY FROM dia)::INT - 1))
+        FROM resumos_diarios
+        GROUP BY usuario_id, CAST(date_trunc('month', dia) AS DATE), materia_id, concurso_id
+    """, nativeQuery = true)
+    void reconstruirTodos();
+
+    /*
+     * Visão de Vida numa varredura só, independente do tamanho do histórico (uma linha por mês/matéria/concurso).
+     * GROUPING(mes, materia_id, concurso_id): 3 = por mês, 5 = por matéria, 6 = por concurso, 7 = total.
+     * Colunas: grupo, mes, materia_id, materia_nome, concurso_id, concurso_nome,
+     *          segundos, questoes, acertos, sessoes, dias_estudados
+     */
+    @Query(value = """
+        SELECT GROUPING(r.mes, r.materia_id, r.concurso_id) AS grupo,
+               r.mes, r.materia_id, m.nome AS materia_nome, r.concurso_id, c.nome AS concurso_nome,
+               SUM(r.segundos) AS segundos,
+               SUM(r.questoes_feitas) AS questoes,
+               SUM(r.questoes_certas) AS acertos,
+               SUM(r.sessoes) AS sessoes,
+               bit_or(r.dias_estudados) AS dias_estudados
+        FROM resumos_mensais r
+        JOIN materias m ON m.id = r.materia_id
+        LEFT JOIN concursos c ON c.id = r.concurso_id
+        WHERE r.usuario_id = :usuarioId
+        GROUP BY GROUPING SETS ((r.mes), (r.materia_id, m.nome), (r.concurso_id, c.nome), ())
+        ORDER BY r.mes
+    """, nativeQuery = true)
+    List<Object[]> agregarVisaoVida(@Param("usuarioId") Long usuarioId);
+}
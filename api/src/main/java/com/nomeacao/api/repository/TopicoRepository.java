@@ -16,4 +16,7 @@ public interface TopicoRepository extends JpaRepository<Topico, Long> {
 
     @Query("SELECT t FROM Topico t JOIN FETCH t.materia m WHERE m.usuario = :usuario AND t.arquivado = false ORDER BY m.nome ASC, t.nome ASC")
     List<Topico> findAllByUsuarioComMateria(@Param("usuario") Usuario usuario);
-}
\ No newline at end of file
+
+    // Inclui os arquivados (importação de histórico antigo)
+    List<Topico> findAllByMateriaUsuario(Usuario usuario);
+}
@@ -4,12 +4,15 @@ import com.nomeacao.api.dto.DadosAtualizacaoUsuario;
 import com.nomeacao.api.dto.DadosCadastroUsuario;
 import com.nomeacao.api.dto.DadosDetalhamentoUsuario;
 import com.nomeacao.api.dto.DadosTrocaSenha;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
 import com.nomeacao.api.infra.security.DadosTokenJWT;
 import com.nomeacao.api.infra.security.TokenService;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.repository.*;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -41,6 +44,8 @@ public class AutenticacaoService implements UserDetailsService {
     private EmailService emailService;
     @Autowired
     private TokenService jwtService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -180,6 +185,7 @@ public class AutenticacaoService implements UserDetailsService {
         materiaRepository.deleteAll(materiaRepository.findAllByUsuario(usuario));
         tipoEstudoRepository.deleteAll(tipoEstudoRepository.findAllByUsuario(usuario));
         repository.delete(usuario);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.values()));
     }
 
     public void atualizarStatusTutorial(Usuario usuario, Boolean concluido) {
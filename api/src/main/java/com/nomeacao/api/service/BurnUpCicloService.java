@@ -0,0 +1,86 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.dto.BurnUpCicloDTO;
+import com.nomeacao.api.dto.BurnUpCicloDTO.Serie;
+import com.nomeacao.api.infra.cache.BurnUpCache;
+import com.nomeacao.api.model.Ciclo;
+import com.nomeacao.api.model.Usuario;
+import com.nomeacao.api.repository.CicloRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+// Burn-up do ciclo: a consulta já devolve o acumulado (janela por matéria); aqui só corta em séries.
+// Encerrados com snapshot vêm do BurnUpCache.
+@Service
+public class BurnUpCicloService {
+
+    @Autowired private CicloRepository cicloRepository;
+    @Autowired private BurnUpCache burnUpCache;
+
+    public BurnUpCicloDTO carregar(Long cicloId, Usuario usuario) {
+        Ciclo ciclo = cicloRepository.findById(cicloId).orElseThrow(() -> new RuntimeException("Ciclo não encontrado"));
+
+        if (!ciclo.getConcurso().getUsuario().getId().equals(usuario.getId())) throw new RuntimeException("Acesso negado.");
+
+        if (!ciclo.getAtivo() && ciclo.getProgressoCongeladoEm() != null) {
+            return burnUpCache.obter(new BurnUpCache.Chave(cicloId, ciclo.getProgressoCongeladoEm()), () -> calcular(ciclo));
+        }
+        return calcular(ciclo);
+    }
+
+    private BurnUpCicloDTO calcular(Ciclo ciclo) {
+        LocalDate hoje = LocalDate.now();
+        LocalDate inicio = ciclo.getDataInicio().toLocalDate();
+        LocalDate fim = ciclo.getDataFim() != null ? ciclo.getDataFim().toLocalDate() : hoje;
+        int dias = (int) ChronoUnit.DAYS.between(inicio, fim) + 1;
+
+        List<Object[]> linhas = cicloRepository.calcularBurnUp(ciclo.getId(), hoje);
+
+        // Linhas vêm ordenadas por matéria e dia, com todos os dias de cada matéria (dias x matérias)
+        List<Serie> itens = new ArrayList<>();
+        long[] total = new long[dias];
+        long metaTotal = 0;
+        long totalItens = 0;
+        double somaPercentuais = 0;
+        Long materiaAtual = null;
+        List<Long> acumulado = null;
+        double percentualUltimoDia = 0;
+
+        for (Object[] linha : linhas) {
+            Long materiaId = ((Number) linha[0]).longValue();
+            if (!materiaId.equals(materiaAtual)) {
+                somaPercentuais += percentualUltimoDia;
+                totalItens += ((Number) linha[6]).longValue();
+                materiaAtual = materiaId;
+                acumulado = new ArrayList<>(dias);
+                long meta = ((Number) linha[2]).longValue();
+                metaTotal += meta;
+                itens.add(new Serie(materiaId, (String) linha[1], meta, acumulado));
+            }
+            int dia = (int) ChronoUnit.DAYS.between(inicio, data(linha[3]));
+            long valor = ((Number) linha[4]).longValue();
+            acumulado.add(valor);
+            if (dia >= 0 && dia < dias) total[dia] += valor;
+            percentualUltimoDia = linha[5] != null ? ((Number) linha[5]).doubleValue() : 0;
+        }
+        somaPercentuais += percentualUltimoDia;
+
+        // Média dos itens arredondada em uma casa, como o progresso_final do congelamento
+        double progresso = totalItens > 0 ? Math.round(somaPercentuais / totalItens * 10.0) / 10.0 : 0.0;
+
+        List<Long> serieTotal = new ArrayList<>(dias);
+        for (long valor : total) serieTotal.add(valor);
+
+        return new BurnUpCicloDTO(ciclo.getId(), !ciclo.getAtivo(), inicio, fim, metaTotal, progresso, serieTotal, itens);
+    }
+
+    private static LocalDate data(Object valor) {
+        return valor instanceof Date d ? d.toLocalDate() : (LocalDate) valor;
+    }
+}
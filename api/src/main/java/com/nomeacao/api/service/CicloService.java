@@ -2,17 +2,32 @@ package com.nomeacao.api.service;
 
 import com.nomeacao.api.dto.DadosCriacaoCiclo;
 import com.nomeacao.api.dto.DadosListagemCiclo;
+import com.nomeacao.api.dto.DadosProximoItemCiclo;
+import com.nomeacao.api.dto.DadosRebalanceamentoCiclo;
 import com.nomeacao.api.dto.DadosSugestaoCiclo;
+import com.nomeacao.api.dto.DadosSugestaoLote;
+import com.nomeacao.api.dto.ResumoHistoricoDTO;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.CicloAtivoCache;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
+import com.nomeacao.api.infra.cache.SugestaoCache;
 import com.nomeacao.api.model.*;
 import com.nomeacao.api.repository.*;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CicloService {
@@ -22,10 +37,18 @@ public class CicloService {
     @Autowired private ConcursoMateriaRepository concursoMateriaRepository;
     @Autowired private MateriaRepository materiaRepository;
     @Autowired private RegistroEstudoRepository registroRepository;
+    @Autowired private CicloHistoricoRepository cicloHistoricoRepository;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private SugestaoCache sugestaoCache;
+    @Autowired private CicloAtivoCache cicloAtivoCache;
+
+    private static final int MAXIMO_ALVOS_LOTE = 200;
 
     // Classe auxiliar interna para o cálculo mutável
     private static class CalculoItem {
-        ConcursoMateria cm;
+        Long materiaId;
+        String nomeMateria;
+        Double peso;
         double score;
         double horasCalculadas;
         double restoHoras;
@@ -33,22 +56,61 @@ public class CicloService {
         double restoQuestoes;
 
         public CalculoItem(ConcursoMateria cm) {
-            this.cm = cm;
-            this.score = cm.getPeso() * cm.getQuestoesProva();
+            this(cm.getMateria().getId(), cm.getMateria().getNome(), cm.getPeso(), cm.getPeso() * cm.getQuestoesProva());
+        }
+
+        public CalculoItem(Long materiaId, String nomeMateria, Double peso, double score) {
+            this.materiaId = materiaId;
+            this.nomeMateria = nomeMateria;
+            this.peso = peso;
+            this.score = score;
         }
     }
 
-    // 1. Gera sugestão baseada no Método de Hamilton com Passos Discretos
+    // 1. Gera sugestão baseada no Método de Hamilton com Passos Discretos (memorizada por versão da composição)
     public List<DadosSugestaoCiclo> sugerir(Long concursoId, Double horasMeta, Integer questoesMeta) {
+        // A versão é lida antes da composição: se mudar no meio, o resultado fica numa chave que não será mais usada
+        var chave = SugestaoCache.Chave.de(concursoId, sugestaoCache.versao(concursoId), horasMeta, questoesMeta);
+        return sugestaoCache.obter(chave, () -> calcularSugestao(carregarComposicao(concursoId), horasMeta, questoesMeta));
+    }
+
+    // Vários alvos de horas (ex.: a faixa de um slider) numa chamada; a composição é lida no máximo uma vez
+    public List<DadosSugestaoLote> sugerirEmLote(Long concursoId, List<Double> horas, Integer questoesMeta) {
+        if (horas == null || horas.isEmpty()) throw new RuntimeException("Informe ao menos uma carga horária.");
+        if (horas.size() > MAXIMO_ALVOS_LOTE) {
+            throw new RuntimeException("Informe no máximo " + MAXIMO_ALVOS_LOTE + " cargas horárias por vez.");
+        }
+
+        long versao = sugestaoCache.versao(concursoId);
+        var composicao = new AtomicReference<List<ConcursoMateria>>();
+
+        return horas.stream().distinct()
+                .map(h -> new DadosSugestaoLote(h, sugestaoCache.obter(
+                        SugestaoCache.Chave.de(concursoId, versao, h, questoesMeta),
+                        () -> calcularSugestao(
+                                composicao.updateAndGet(c -> c != null ? c : carregarComposicao(concursoId)),
+                                h, questoesMeta))))
+                .toList();
+    }
+
+    private List<ConcursoMateria> carregarComposicao(Long concursoId) {
         List<ConcursoMateria> materias = concursoMateriaRepository.findAllByConcursoId(concursoId);
         if (materias.isEmpty()) throw new RuntimeException("Este concurso não possui matérias cadastradas.");
+        return materias;
+    }
+
+    private List<DadosSugestaoCiclo> calcularSugestao(List<ConcursoMateria> materias, Double horasMeta, Integer questoesMeta) {
+        return ratear(materias.stream().map(CalculoItem::new).toList(), horasMeta, questoesMeta);
+    }
+
+    // Hamilton com passos discretos sobre itens com score já definido (sugestão estática ou rebalanceamento)
+    private List<DadosSugestaoCiclo> ratear(List<CalculoItem> itens, Double horasMeta, Integer questoesMeta) {
 
         // Passo A: Constantes
         final double PASSO_HORAS = 0.5;
         final int PASSO_QUESTOES = 5;
 
         // Passo B: Score e Inicialização
-        List<CalculoItem> itens = materias.stream().map(CalculoItem::new).toList();
         double scoreTotal = itens.stream().mapToDouble(i -> i.score).sum();
         if (scoreTotal == 0) scoreTotal = 1;
 
@@ -80,51 +142,30 @@ public class CicloService {
         int somaQuestoes = itens.stream().mapToInt(i -> i.questoesCalculadas).sum();
         int saldoQuestoes = qMeta - somaQuestoes;
 
-        // Passo E: Distribuição do Saldo - Horas (Loop de Prioridade)
-        while (saldoHoras >= PASSO_HORAS) {
-            // Prioridade 1: Resgate (Matérias zeradas com maior score)
-            List<CalculoItem> zerados = itens.stream()
-                    .filter(i -> i.horasCalculadas == 0)
-                    .sorted(Comparator.comparingDouble((CalculoItem i) -> i.score).reversed())
-                    .toList();
-
-            CalculoItem escolhido;
-            if (!zerados.isEmpty()) {
-                escolhido = zerados.get(0);
-            } else {
-                // Prioridade 2: Justiça (Maior Resto)
-                escolhido = itens.stream()
-                        .max(Comparator.comparingDouble(i -> i.restoHoras))
-                        .orElse(itens.get(0));
-            }
-
-            escolhido.horasCalculadas += PASSO_HORAS;
-            // Remove da fila de prioridade de resto para dar chance a outros
-            escolhido.restoHoras = -1.0; 
-            
-            saldoHoras -= PASSO_HORAS;
-            saldoHoras = Math.round(saldoHoras * 10.0) / 10.0;
+        // Passo E: Distribuição do Saldo (Resgate dos zerados, depois Maior Resto) de uma vez, ver RateioHamilton
+        long decimosHoras = Math.round(saldoHoras * 10.0); // Saldo em décimos: cada passo de 0,5h = 5 décimos
+        long passosHoras = decimosHoras >= 5 ? decimosHoras / 5 : 0;
+        long passosQuestoes = saldoQuestoes >= PASSO_QUESTOES ? saldoQuestoes / PASSO_QUESTOES : 0;
+
+        int n = itens.size();
+        double[] scores = new double[n];
+        long[] pisosHoras = new long[n], pisosQuestoes = new long[n];
+        double[] restosHoras = new double[n], restosQuestoes = new double[n];
+        for (int i = 0; i < n; i++) {
+            CalculoItem item = itens.get(i);
+            scores[i] = item.score;
+            pisosHoras[i] = (long) (item.horasCalculadas / PASSO_HORAS);
+            restosHoras[i] = item.restoHoras;
+            pisosQuestoes[i] = item.questoesCalculadas / PASSO_QUESTOES;
+            restosQuestoes[i] = item.restoQuestoes;
         }
 
-        // Passo E: Distribuição do Saldo - Questões
-        while (saldoQuestoes >= PASSO_QUESTOES) {
-            List<CalculoItem> zerados = itens.stream()
-                    .filter(i -> i.questoesCalculadas == 0)
-                    .sorted(Comparator.comparingDouble((CalculoItem i) -> i.score).reversed())
-                    .toList();
-
-            CalculoItem escolhido;
-            if (!zerados.isEmpty()) {
-                escolhido = zerados.get(0);
-            } else {
-                escolhido = itens.stream()
-                        .max(Comparator.comparingDouble(i -> i.restoQuestoes))
-                        .orElse(itens.get(0));
-            }
-
-            escolhido.questoesCalculadas += PASSO_QUESTOES;
-            escolhido.restoQuestoes = -1.0;
-            saldoQuestoes -= PASSO_QUESTOES;
+        long[] extrasHoras = RateioHamilton.distribuir(pisosHoras, restosHoras, scores, passosHoras);
+        long[] extrasQuestoes = RateioHamilton.distribuir(pisosQuestoes, restosQuestoes, scores, passosQuestoes);
+        for (int i = 0; i < n; i++) {
+            CalculoItem item = itens.get(i);
+            item.horasCalculadas += extrasHoras[i] * PASSO_HORAS;
+            item.questoesCalculadas += (int) (extrasQuestoes[i] * PASSO_QUESTOES);
         }
 
         // Conversão para DTO Final
@@ -132,9 +173,9 @@ public class CicloService {
         for (CalculoItem item : itens) {
             double percentual = (item.score / scoreTotal) * 100.0;
             sugestao.add(new DadosSugestaoCiclo(
-                item.cm.getMateria().getId(),
-                item.cm.getMateria().getNome(),
-                item.cm.getPeso(),
+                item.materiaId,
+                item.nomeMateria,
+                item.peso,
                 item.horasCalculadas,
                 item.questoesCalculadas,
                 percentual
@@ -157,17 +198,24 @@ public class CicloService {
         repository.findFirstByUsuarioAndAtivoTrue(usuario).ifPresent(c -> {
             c.setAtivo(false);
             if (c.getDataFim() == null) c.setDataFim(LocalDateTime.now());
-            repository.save(c);
+            repository.saveAndFlush(c); // Antes do INSERT do novo: índice único de ciclo ativo por usuário
+            repository.congelarProgresso(c.getId(), LocalDateTime.now());
         });
+        cicloAtivoCache.invalidar(usuario.getId());
 
         var ciclo = new Ciclo();
         ciclo.setConcurso(concurso);
+        ciclo.setUsuario(usuario);
         ciclo.setAtivo(true);
         ciclo.setDescricao(dados.descricao());
         ciclo.setTotalHoras(dados.totalHoras());
         ciclo.setDataInicio(LocalDateTime.now());
         
         List<ItemCiclo> itensEntidade = new ArrayList<>();
+
+        // Contadores de progresso começam com o que já foi estudado para o concurso (uma consulta agrupada)
+        Map<Long, ResumoHistoricoDTO> realizado = registroRepository.somarEstudosPorConcurso(concurso.getId()).stream()
+                .collect(Collectors.toMap(ResumoHistoricoDTO::materiaId, Function.identity()));
         
         if (dados.itens() != null) {
             for (var itemDto : dados.itens()) {
@@ -179,13 +227,95 @@ public class CicloService {
                 item.setHorasMeta(itemDto.horasMeta());
                 item.setQuestoesMeta(itemDto.questoesMeta() != null ? itemDto.questoesMeta() : 0);
                 item.setOrdem(itemDto.ordem());
+
+                var jaFeito = realizado.get(materia.getId());
+                if (jaFeito != null) {
+                    item.setSegundosRealizados(jaFeito.totalSegundos() != null ? jaFeito.totalSegundos() : 0L);
+                    item.setQuestoesRealizadas(jaFeito.totalQuestoes() != null ? jaFeito.totalQuestoes() : 0L);
+                }
                 
                 itensEntidade.add(item);
             }
         }
 
+        // Posições densas do rodízio na ordem informada (sem ordem vai para o fim; empate fica na ordem de envio)
+        List<ItemCiclo> rodizio = new ArrayList<>(itensEntidade);
+        rodizio.sort(Comparator.comparing(ItemCiclo::getOrdem, Comparator.nullsLast(Comparator.naturalOrder())));
+        for (int posicao = 0; posicao < rodizio.size(); posicao++) {
+            rodizio.get(posicao).setPosicao(posicao);
+        }
+        ciclo.setTotalItens(rodizio.size());
+
         ciclo.setItens(itensEntidade);
         repository.save(ciclo);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CICLOS));
+    }
+
+    // Item da vez no rodízio do ciclo ativo (ponteiro mantido a cada registro, leitura por chave)
+    public Optional<DadosProximoItemCiclo> buscarProximo(Usuario usuario) {
+        return cicloAtivoCache.obter(usuario.getId(), repository::buscarCicloAtivo)
+                .flatMap(ativo -> repository.buscarItemDaVez(ativo.cicloId()));
+    }
+
+    /*
+     * Rebalanceamento do ciclo ativo: redistribui o que falta da volta atual pelo mesmo rateio da sugestão,
+     * mas com o score ajustado pelo desempenho observado:
+     *   score = peso * questoesProva * (2 - taxa de acerto) * fração da meta que ainda falta
+     * Matéria sem questões resolvidas entra com acerto neutro (50%); itens já cumpridos ficam fora do rateio.
+     */
+    public Optional<List<DadosRebalanceamentoCiclo>> rebalancear(Usuario usuario) {
+        return cicloAtivoCache.obter(usuario.getId(), repository::buscarCicloAtivo)
+                .map(ativo -> calcularRebalanceamento(repository.buscarEstatisticasRebalanceamento(ativo.cicloId())));
+    }
+
+    private List<DadosRebalanceamentoCiclo> calcularRebalanceamento(List<Object[]> linhas) {
+        List<CalculoItem> pendentes = new ArrayList<>();
+        Map<Long, Double> acertos = new HashMap<>();
+        long segundosRestantes = 0;
+        long questoesRestantes = 0;
+
+        for (Object[] linha : linhas) {
+            Long materiaId = ((Number) linha[0]).longValue();
+            double peso = ((Number) linha[2]).doubleValue();
+            double metaSegundos = ((Number) linha[4]).doubleValue() * 3600;
+            long faltaSegundos = Math.max(Math.round(metaSegundos) - ((Number) linha[6]).longValue(), 0);
+            long faltaQuestoes = Math.max(((Number) linha[5]).longValue() - ((Number) linha[7]).longValue(), 0);
+            long feitas = ((Number) linha[8]).longValue();
+
+            Double acerto = feitas > 0 ? ((Number) linha[9]).doubleValue() / feitas : null;
+            acertos.put(materiaId, acerto);
+            segundosRestantes += faltaSegundos;
+            questoesRestantes += faltaQuestoes;
+
+            if (faltaSegundos == 0 && faltaQuestoes == 0) continue;
+            double falta = metaSegundos > 0 ? faltaSegundos / metaSegundos : 1.0;
+            double score = peso * ((Number) linha[3]).doubleValue() * (2 - (acerto != null ? acerto : 0.5)) * falta;
+            pendentes.add(new CalculoItem(materiaId, (String) linha[1], peso, score));
+        }
+
+        // Horas restantes no passo de 0,5h e questões no de 5 (o que não fecha um passo não é sugerido)
+        double horasRestantes = Math.floor(segundosRestantes / 1800.0) / 2.0;
+        Map<Long, DadosSugestaoCiclo> sugestao = pendentes.isEmpty() ? Map.of()
+                : ratear(pendentes, horasRestantes, (int) questoesRestantes).stream()
+                        .collect(Collectors.toMap(DadosSugestaoCiclo::materiaId, Function.identity()));
+
+        List<DadosRebalanceamentoCiclo> resultado = new ArrayList<>();
+        for (Object[] linha : linhas) {
+            Long materiaId = ((Number) linha[0]).longValue();
+            var item = sugestao.get(materiaId);
+            resultado.add(new DadosRebalanceamentoCiclo(
+                materiaId,
+                (String) linha[1],
+                ((Number) linha[4]).doubleValue(),
+                Math.round(((Number) linha[6]).longValue() / 36.0) / 100.0,
+                item != null ? item.horasSugeridas() : 0.0,
+                item != null ? item.questoesSugeridas() : 0,
+                acertos.get(materiaId),
+                item != null ? item.percentual() : 0.0
+            ));
+        }
+        resultado.sort(Comparator.comparing(DadosRebalanceamentoCiclo::horasSugeridas).reversed());
+        return resultado;
     }
 
     // 3. Listar Histórico
@@ -196,47 +326,41 @@ public class CicloService {
         if (!concurso.getUsuario().getId().equals(usuario.getId())) throw new RuntimeException("Acesso negado.");
 
         List<Ciclo> ciclos = repository.findAllByConcursoIdOrderByDataInicioDesc(concursoId);
-        
+        // Encerrados vêm do snapshot; só os sem snapshot (normalmente o ativo) são somados na hora
+        boolean todosCongelados = ciclos.stream().allMatch(c -> c.getProgressoFinal() != null);
+        Map<Long, Double> progressos = todosCongelados ? Map.of() : calcularProgressoReal(concursoId, usuario.getId());
+
         return ciclos.stream()
-                .map(c -> {
-                    Double progresso = calcularProgressoReal(c, usuario.getId());
-                    return new DadosListagemCiclo(c, progresso);
-                })
+                .map(c -> new DadosListagemCiclo(c, c.getProgressoFinal() != null
+                        ? c.getProgressoFinal()
+                        : progressos.getOrDefault(c.getId(), 0.0)))
                 .toList();
     }
 
-    private Double calcularProgressoReal(Ciclo ciclo, Long usuarioId) {
-        if (ciclo.getItens() == null || ciclo.getItens().isEmpty()) return 0.0;
+    // Média dos percentuais de horas dos itens (cada um limitado a 100%), todos os ciclos numa consulta só
+    private Map<Long, Double> calcularProgressoReal(Long concursoId, Long usuarioId) {
+        Map<Long, double[]> somaEQuantidade = new HashMap<>();
 
-        LocalDateTime fim = ciclo.getDataFim() != null ? ciclo.getDataFim() : LocalDateTime.now();
-        
-        double somaPercentuais = 0.0;
-        int totalItens = 0;
+        for (Object[] linha : repository.somarRealizadoPorItemDoConcurso(concursoId, usuarioId, LocalDateTime.now())) {
+            Long cicloId = ((Number) linha[0]).longValue();
+            double metaSegundos = linha[1] != null ? ((Number) linha[1]).doubleValue() * 3600 : 0.0;
+            long segundosRealizados = ((Number) linha[2]).longValue();
 
-        for (ItemCiclo item : ciclo.getItens()) {
-            Long segundosRealizados = registroRepository.somarSegundosPorMateriaEPeriodo(
-                usuarioId,
-                item.getMateria().getId(),
-                ciclo.getDataInicio(),
-                fim
-            );
-
-            if (segundosRealizados == null) segundosRealizados = 0L;
-
-            double metaSegundos = item.getHorasMeta() * 3600;
             double percentualItem = 0.0;
-            
             if (metaSegundos > 0) {
                 percentualItem = (segundosRealizados / metaSegundos) * 100.0;
                 if (percentualItem > 100.0) percentualItem = 100.0;
             }
 
-            somaPercentuais += percentualItem;
-            totalItens++;
+            double[] acumulado = somaEQuantidade.computeIfAbsent(cicloId, k -> new double[2]);
+            acumulado[0] += percentualItem;
+            acumulado[1]++;
         }
 
-        if (totalItens == 0) return 0.0;
-        return Math.round((somaPercentuais / totalItens) * 10.0) / 10.0;
+        Map<Long, Double> progressos = new HashMap<>();
+        somaEQuantidade.forEach((cicloId, acumulado) ->
+                progressos.put(cicloId, Math.round((acumulado[0] / acumulado[1]) * 10.0) / 10.0));
+        return progressos;
     }
 
     // 4. Encerrar
@@ -251,6 +375,68 @@ public class CicloService {
         ciclo.setAtivo(false);
         ciclo.setDataFim(LocalDateTime.now());
         repository.save(ciclo);
+        repository.congelarProgresso(ciclo.getId(), LocalDateTime.now());
+        cicloAtivoCache.invalidar(usuario.getId());
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CICLOS));
+    }
+
+    // Refaz o snapshot de um ciclo encerrado a partir dos registros (correção manual depois de editar registros antigos)
+    @Transactional
+    public void recalcularProgresso(Long id, Usuario usuario) {
+        var ciclo = repository.findById(id).orElseThrow(() -> new RuntimeException("Ciclo não encontrado"));
+
+        if (!ciclo.getConcurso().getUsuario().getId().equals(usuario.getId())) throw new RuntimeException("Acesso negado.");
+
+        if (ciclo.getAtivo() || ciclo.getDataFim() == null) {
+            throw new RuntimeException("Só é possível recalcular o progresso de um ciclo encerrado.");
+        }
+
+        repository.congelarProgresso(ciclo.getId(), LocalDateTime.now());
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CICLOS));
+    }
+
+    // Fecha a volta quando todos os itens bateram a meta: o cumprido vira desconto (CicloHistorico)
+    // e o progresso recomeça da sobra. Lê só os contadores dos itens e os descontos já gravados.
+    @Transactional
+    public void fecharVolta(Long id, Usuario usuario) {
+        var ciclo = repository.buscarComItens(id).orElseThrow(() -> new RuntimeException("Ciclo não encontrado"));
+
+        if (!ciclo.getConcurso().getUsuario().getId().equals(usuario.getId())) throw new RuntimeException("Acesso negado.");
+
+        if (!ciclo.getAtivo()) throw new RuntimeException("Este ciclo já está encerrado.");
+        if (ciclo.getItens().isEmpty()) throw new RuntimeException("Este ciclo não possui itens.");
+
+        Map<Long, ResumoHistoricoDTO> descontos = cicloHistoricoRepository.descontosPorMateria(ciclo.getConcurso().getId());
+
+        List<String> pendentes = new ArrayList<>();
+        for (ItemCiclo item : ciclo.getItens()) {
+            var desconto = descontos.get(item.getMateria().getId());
+            long segundos = item.getSegundosRealizados() - (desconto != null ? desconto.totalSegundos() : 0L);
+            long questoes = item.getQuestoesRealizadas() - (desconto != null ? desconto.totalQuestoes() : 0L);
+            int metaQuestoes = item.getQuestoesMeta() != null ? item.getQuestoesMeta() : 0;
+
+            if (segundos < Math.round(item.getHorasMeta() * 3600) || questoes < metaQuestoes) {
+                pendentes.add(item.getMateria().getNome());
+            }
+        }
+        if (!pendentes.isEmpty()) {
+            throw new RuntimeException("Ainda há matérias abaixo da meta nesta volta: " + String.join(", ", pendentes) + ".");
+        }
+
+        int volta = ciclo.getVoltasConcluidas() + 1;
+        LocalDateTime agora = LocalDateTime.now();
+        List<CicloHistorico> cumprido = ciclo.getItens().stream()
+                .map(item -> new CicloHistorico(null, ciclo, item.getMateria(), item.getHorasMeta(),
+                        item.getQuestoesMeta() != null ? item.getQuestoesMeta() : 0, volta, agora))
+                .toList();
+        cicloHistoricoRepository.saveAll(cumprido);
+
+        // Nova volta começa no primeiro item do rodízio
+        ciclo.setVoltasConcluidas(volta);
+        ciclo.setPosicaoAtual(0);
+        ciclo.setSegundosNaPosicao(0L);
+        repository.save(ciclo);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CICLOS));
     }
 
     // 5. Excluir
@@ -261,5 +447,7 @@ public class CicloService {
         if (!ciclo.getConcurso().getUsuario().getId().equals(usuario.getId())) throw new RuntimeException("Acesso negado.");
 
         repository.delete(ciclo);
+        cicloAtivoCache.invalidar(usuario.getId());
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CICLOS));
     }
 }
\ No newline at end of file
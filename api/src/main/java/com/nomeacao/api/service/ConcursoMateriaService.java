@@ -3,12 +3,16 @@ package com.nomeacao.api.service;
 import com.nomeacao.api.dto.DadosAtualizacaoVinculo;
 import com.nomeacao.api.dto.DadosDetalhamentoVinculo;
 import com.nomeacao.api.dto.DadosVinculoMateria;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.ComposicaoConcursoAlteradaEvent;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
 import com.nomeacao.api.model.ConcursoMateria;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.repository.ConcursoMateriaRepository;
 import com.nomeacao.api.repository.ConcursoRepository;
 import com.nomeacao.api.repository.MateriaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -25,6 +29,9 @@ public class ConcursoMateriaService {
     @Autowired
     private MateriaRepository materiaRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public DadosDetalhamentoVinculo vincular(Long concursoId, DadosVinculoMateria dados, Usuario usuario) {
         if (dados.peso() <= 0 || dados.questoesProva() <= 0) {
             throw new RuntimeException("Regra de Negócio: O peso e a quantidade de questões devem ser maiores que zero para gerar metas de estudo.");
@@ -54,6 +61,8 @@ public class ConcursoMateriaService {
         vinculo.setQuestoesProva(dados.questoesProva());
 
         repository.save(vinculo);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CONCURSOS));
+        eventPublisher.publishEvent(new ComposicaoConcursoAlteradaEvent(vinculo.getConcurso().getId()));
 
         return new DadosDetalhamentoVinculo(vinculo);
     }
@@ -80,6 +89,8 @@ public class ConcursoMateriaService {
         }
 
         repository.save(vinculo);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CONCURSOS));
+        eventPublisher.publishEvent(new ComposicaoConcursoAlteradaEvent(vinculo.getConcurso().getId()));
 
         return new DadosDetalhamentoVinculo(vinculo);
     }
@@ -107,5 +118,7 @@ public class ConcursoMateriaService {
         }
 
         repository.delete(vinculo);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CONCURSOS));
+        eventPublisher.publishEvent(new ComposicaoConcursoAlteradaEvent(vinculo.getConcurso().getId()));
     }
 }
\ No newline at end of file
@@ -3,12 +3,16 @@ package com.nomeacao.api.service;
 import com.nomeacao.api.dto.DadosAtualizacaoConcurso;
 import com.nomeacao.api.dto.DadosCadastroConcurso;
 import com.nomeacao.api.dto.DadosListagemConcurso;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.CicloAtivoCache;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
 import com.nomeacao.api.model.Concurso;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.repository.CicloRepository;
 import com.nomeacao.api.repository.ConcursoRepository;
 import com.nomeacao.api.repository.RegistroEstudoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -25,6 +29,12 @@ public class ConcursoService {
     @Autowired
     private CicloRepository cicloRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CicloAtivoCache cicloAtivoCache;
+
     public DadosListagemConcurso cadastrar(DadosCadastroConcurso dados, Usuario usuario) {
         if (repository.existsByUsuarioIdAndNomeIgnoreCase(usuario.getId(), dados.nome().trim())) {
             throw new RuntimeException("Já existe um concurso com este nome.");
@@ -37,6 +47,7 @@ public class ConcursoService {
         concurso.setUsuario(usuario);
 
         repository.save(concurso);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CONCURSOS));
         return new DadosListagemConcurso(concurso);
     }
 
@@ -59,7 +70,9 @@ public class ConcursoService {
         }
 
         concurso.atualizarInformacoes(dados.nome(), dados.banca(), dados.dataProva());
-        return new DadosListagemConcurso(repository.save(concurso));
+        var atualizado = repository.save(concurso);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CONCURSOS));
+        return new DadosListagemConcurso(atualizado);
     }
 
     public void excluir(Long id, Usuario usuario) {
@@ -73,6 +86,8 @@ public class ConcursoService {
         }
 
         repository.delete(concurso);
+        cicloAtivoCache.invalidar(usuario.getId()); // Os ciclos do concurso saem junto (ON DELETE CASCADE)
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CONCURSOS));
     }
 
     public void arquivar(Long id, Usuario usuario) {
@@ -87,6 +102,8 @@ public class ConcursoService {
 
         concurso.setArquivado(true);
         repository.save(concurso);
+        cicloAtivoCache.invalidar(usuario.getId());
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CONCURSOS));
     }
 
     public void desarquivar(Long id, Usuario usuario) {
@@ -97,6 +114,7 @@ public class ConcursoService {
         
         concurso.setArquivado(false);
         repository.save(concurso);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.CONCURSOS));
     }
 
     private void validarDono(Concurso concurso, Usuario usuario) {
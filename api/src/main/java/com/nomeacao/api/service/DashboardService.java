@@ -3,24 +3,56 @@ package com.nomeacao.api.service;
 import com.nomeacao.api.dto.DashboardDTO;
 import com.nomeacao.api.dto.DadosGrafico;
 import com.nomeacao.api.dto.EvolucaoDiariaDTO;
+import com.nomeacao.api.dto.Granularidade;
+import com.nomeacao.api.dto.MapaCalorDTO;
 import com.nomeacao.api.dto.ResumoGeralDTO;
 import com.nomeacao.api.dto.ResumoHistoricoDTO;
+import com.nomeacao.api.dto.TotalMateriaDTO;
+import com.nomeacao.api.infra.cache.CicloAtivoCache;
+import com.nomeacao.api.infra.cache.DashboardCache;
+import com.nomeacao.api.infra.concorrencia.DashboardExecutor;
+import com.nomeacao.api.infra.exception.TempoEsgotadoException;
 import com.nomeacao.api.model.*;
 import com.nomeacao.api.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.sql.Date;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
 
 @Service
 public class DashboardService {
 
-    @Autowired private RegistroEstudoRepository registroRepository;
+    // SEPARADA = uma consulta por bloco (resumo, evolução, matérias, ciclo); AGRUPADA = uma varredura só com GROUPING SETS
+    public enum ModoAgregacao { SEPARADA, AGRUPADA }
+
+    // SEQUENCIAL = seções uma depois da outra; PARALELA = seções ao mesmo tempo (nos dois modos de agregação)
+    public enum ModoExecucao { SEQUENCIAL, PARALELA }
+
+    @Autowired private ResumoDiarioRepository resumoDiarioRepository;
     @Autowired private CicloRepository cicloRepository;
+    @Autowired private CicloHistoricoRepository cicloHistoricoRepository;
+    @Autowired private CicloAtivoCache cicloAtivoCache;
+    @Autowired private DashboardCache dashboardCache;
+    @Autowired private DashboardExecutor dashboardExecutor;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Value("${app.dashboard.agregacao:AGRUPADA}")
+    private ModoAgregacao modoAgregacao;
+
+    @Value("${app.dashboard.execucao:SEQUENCIAL}")
+    private ModoExecucao modoExecucao;
+
+    @Value("${app.dashboard.prazo:3s}")
+    private Duration prazo;
 
     // ALTERADO: Adicionado List<Long> topicos
     public DashboardDTO carregarDashboard(
@@ -28,30 +60,319 @@ public class DashboardService {
             LocalDateTime inicio, LocalDateTime fim,
             List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos
     ) {
-        // --- 1. FILTROS E RESUMO (OTIMIZADO) ---
+        return carregarDashboard(usuario, inicio, fim, materias, topicos, concursos, tipos, Granularidade.DIA, null);
+    }
+
+    // granularidade = tamanho de cada ponto do gráfico; pontos = limite opcional de pontos (reduzidos por LTTB)
+    public DashboardDTO carregarDashboard(
+            Usuario usuario,
+            LocalDateTime inicio, LocalDateTime fim,
+            List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos,
+            Granularidade granularidade, Integer pontos
+    ) {
+        if (pontos != null && pontos < 3) {
+            throw new RuntimeException("O gráfico precisa de pelo menos 3 pontos.");
+        }
+        Granularidade serie = granularidade != null ? granularidade : Granularidade.DIA;
+
+        var chave = DashboardCache.Chave.de(usuario.getId(), inicio, fim, materias, topicos, concursos, tipos, serie, pontos);
+        return dashboardCache.obter(chave, () -> modoAgregacao == ModoAgregacao.AGRUPADA
+                ? calcularAgrupado(usuario, inicio, fim, materias, topicos, concursos, tipos, serie, pontos)
+                : calcularSeparado(usuario, inicio, fim, materias, topicos, concursos, tipos, serie, pontos));
+    }
+
+    // --- MAPA DE CALOR (últimos N dias até hoje, uma consulta agrupada no consolidado diário) ---
+    public MapaCalorDTO carregarMapaCalor(Usuario usuario, Integer dias, Integer niveis) {
+        int total = dias != null ? dias : 365;
+        if (total < 1 || total > 371) {
+            throw new RuntimeException("O mapa de calor aceita de 1 a 371 dias.");
+        }
+        if (niveis != null && (niveis < 2 || niveis > 10)) {
+            throw new RuntimeException("O mapa de calor aceita de 2 a 10 níveis.");
+        }
+
+        LocalDate hoje = LocalDate.now();
+        var chave = new DashboardCache.ChaveMapaCalor(usuario.getId(), hoje, total, niveis);
+        return dashboardCache.obterMapaCalor(chave, () -> calcularMapaCalor(usuario, hoje, total, niveis));
+    }
+
+    private MapaCalorDTO calcularMapaCalor(Usuario usuario, LocalDate hoje, int dias, Integer niveis) {
+        LocalDate inicio = hoje.minusDays(dias - 1L);
+        List<Object[]> linhas = medir("mapa-calor",
+                () -> resumoDiarioRepository.somarMinutosPorDia(usuario.getId(), inicio, hoje));
+
+        long[] minutos = new long[dias];
+        long maximo = 0, soma = 0;
+        for (Object[] linha : linhas) {
+            int i = (int) ChronoUnit.DAYS.between(inicio, data(linha[0]));
+            if (i < 0 || i >= dias) continue;
+            minutos[i] = numero(linha[1]);
+            maximo = Math.max(maximo, minutos[i]);
+            soma += minutos[i];
+        }
+
+        return new MapaCalorDTO(
+            inicio, dias,
+            MapaCalor.empacotar(minutos),
+            niveis != null ? MapaCalor.quantizar(minutos, maximo, niveis) : null,
+            maximo, soma
+        );
+    }
+
+    private DashboardDTO calcularSeparado(
+            Usuario usuario,
+            LocalDateTime inicio, LocalDateTime fim,
+            List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos,
+            Granularidade granularidade, Integer pontos
+    ) {
+        // --- 1. FILTROS (Dias inteiros do consolidado diário; dia cortado por inicio/fim, dos registros) ---
         List<Long> listaMaterias = (materias != null && !materias.isEmpty()) ? materias : null;
         List<Long> listaTopicos = (topicos != null && !topicos.isEmpty()) ? topicos : null; // Novo
         List<Long> listaConcursos = (concursos != null && !concursos.isEmpty()) ? concursos : null;
         List<Long> listaTipos = (tipos != null && !tipos.isEmpty()) ? tipos : null;
 
-        ResumoGeralDTO resumo = registroRepository.calcularResumoGeral(
+        // --- 2. SEÇÕES (independentes entre si) ---
+        Callable<Kpis> resumo = () -> calcularKpis(resumoDiarioRepository.calcularResumoGeral(
             usuario, inicio, fim, listaMaterias, listaTopicos, listaConcursos, listaTipos
+        ));
+
+        Callable<List<DadosGrafico>> evolucao = () -> preencherEvolucao(resumoDiarioRepository.calcularEvolucaoDiaria(
+            usuario, inicio, fim, listaMaterias, listaTopicos, listaConcursos, listaTipos
+        ), inicio, fim, granularidade, pontos); // Vem dia a dia; o agrupamento acontece no array
+
+        Callable<List<DashboardDTO.TotalMateria>> porMateria = () -> ordenarMaterias(resumoDiarioRepository.calcularTotaisPorMateria(
+            usuario, inicio, fim, listaMaterias, listaTopicos, listaConcursos, listaTipos
+        ));
+
+        Callable<ProgressoCiclo> ciclo = () -> buscarProgressoCiclo(usuario);
+
+        if (modoExecucao == ModoExecucao.PARALELA) {
+            return executarEmParalelo(resumo, evolucao, porMateria, ciclo);
+        }
+        return montar(
+            medir("resumo", resumo), medir("evolucao", evolucao), medir("materias", porMateria), medir("ciclo", ciclo)
         );
+    }
+
+    private DashboardDTO calcularAgrupado(
+            Usuario usuario,
+            LocalDateTime inicio, LocalDateTime fim,
+            List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos,
+            Granularidade granularidade, Integer pontos
+    ) {
+        // Sem data início o período real só se conhece depois da consulta: AUTO vem por dia e é agrupado no array
+        Granularidade noBanco = inicio != null
+                ? granularidade.resolver(inicio.toLocalDate(), fim != null ? fim.toLocalDate() : LocalDate.now())
+                : granularidade;
+
+        // Resumo, série e matérias saem da mesma varredura; o ciclo é só a leitura dos contadores dos itens
+        Callable<Agrupado> agrupado = () -> separar(resumoDiarioRepository.agregarDashboard(
+            usuario.getId(),
+            noBanco.unidadeSql(),
+            inicio, fim,
+            materias, topicos, concursos, tipos
+        ), inicio, fim, granularidade, pontos);
+
+        Callable<ProgressoCiclo> ciclo = () -> buscarProgressoCiclo(usuario);
+
+        if (modoExecucao == ModoExecucao.PARALELA) {
+            long limite = System.nanoTime() + prazo.toNanos();
+
+            Future<Agrupado> futuroAgrupado = submeter("agrupada", agrupado);
+            Future<ProgressoCiclo> futuroCiclo = submeter("ciclo", ciclo);
+
+            try {
+                Agrupado resultado = aguardar(futuroAgrupado, limite);
+                return montar(resultado.kpis(), resultado.evolucao(), resultado.materias(), aguardar(futuroCiclo, limite));
+            } finally {
+                cancelar(List.of(futuroAgrupado, futuroCiclo));
+            }
+        }
+
+        Agrupado resultado = medir("agrupada", agrupado);
+        return montar(resultado.kpis(), resultado.evolucao(), resultado.materias(), medir("ciclo", ciclo));
+    }
+
+    // Cada linha é de um grupo: () = resumo geral, (periodo) = série, (materia_id) = totais da matéria
+    private Agrupado separar(
+            List<Object[]> linhas, LocalDateTime inicio, LocalDateTime fim,
+            Granularidade granularidade, Integer pontos
+    ) {
+        ResumoGeralDTO resumo = new ResumoGeralDTO(0L, 0L, 0L);
+        List<EvolucaoDiariaDTO> evolucaoBanco = new ArrayList<>();
+        List<TotalMateriaDTO> materiasBanco = new ArrayList<>();
+
+        for (Object[] linha : linhas) {
+            if (numero(linha[0]) == 0) {
+                evolucaoBanco.add(new EvolucaoDiariaDTO(data(linha[2]), numero(linha[5])));
+            } else if (numero(linha[1]) == 0) {
+                materiasBanco.add(new TotalMateriaDTO(numero(linha[3]), (String) linha[4],
+                        numero(linha[5]), numero(linha[6]), numero(linha[7])));
+            } else {
+                resumo = new ResumoGeralDTO(numero(linha[5]), numero(linha[6]), numero(linha[7]));
+            }
+        }
+
+        return new Agrupado(
+            calcularKpis(resumo),
+            preencherEvolucao(evolucaoBanco, inicio, fim, granularidade, pontos),
+            ordenarMaterias(materiasBanco)
+        );
+    }
+
+    // --- EXECUÇÃO PARALELA (Latência = seção mais lenta, limitada pelo prazo) ---
+    private DashboardDTO executarEmParalelo(
+            Callable<Kpis> resumo, Callable<List<DadosGrafico>> evolucao,
+            Callable<List<DashboardDTO.TotalMateria>> porMateria, Callable<ProgressoCiclo> ciclo
+    ) {
+        long limite = System.nanoTime() + prazo.toNanos();
+
+        Future<Kpis> futuroResumo = submeter("resumo", resumo);
+        Future<List<DadosGrafico>> futuroEvolucao = submeter("evolucao", evolucao);
+        Future<List<DashboardDTO.TotalMateria>> futuroMaterias = submeter("materias", porMateria);
+        Future<ProgressoCiclo> futuroCiclo = submeter("ciclo", ciclo);
+
+        try {
+            return montar(
+                aguardar(futuroResumo, limite), aguardar(futuroEvolucao, limite),
+                aguardar(futuroMaterias, limite), aguardar(futuroCiclo, limite)
+            );
+        } finally {
+            cancelar(List.of(futuroResumo, futuroEvolucao, futuroMaterias, futuroCiclo));
+        }
+    }
+
+    private <T> Future<T> submeter(String secao, Callable<T> calculo) {
+        return dashboardExecutor.submeter(() -> medir(secao, calculo));
+    }
+
+    private void cancelar(List<Future<?>> futuros) {
+        futuros.forEach(f -> f.cancel(true)); // Sem efeito nas que já terminaram
+    }
+
+    private <T> T aguardar(Future<T> futuro, long limite) {
+        try {
+            return futuro.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new TempoEsgotadoException("O Dashboard demorou mais que o esperado. Tente novamente.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TempoEsgotadoException("Carregamento do Dashboard interrompido.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException erro) throw erro;
+            throw new RuntimeException("Erro ao carregar o Dashboard.", e.getCause());
+        }
+    }
+
+    // Tempo por seção no timer dashboard.secao (tag secao); /actuator/metrics só com ACTUATOR_EXPOSICAO
+    private <T> T medir(String secao, Callable<T> calculo) {
+        long comeco = System.nanoTime();
+        try {
+            return calculo.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            Timer.builder("dashboard.secao")
+                    .tag("secao", secao)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - comeco, TimeUnit.NANOSECONDS);
+        }
+    }
 
+    // --- KPIs GERAIS ---
+    private Kpis calcularKpis(ResumoGeralDTO resumo) {
         double totalSegundosResumo = resumo.totalSegundos() != null ? resumo.totalSegundos() : 0.0;
         double horasLiquidas = Math.round((totalSegundosResumo / 3600.0) * 100.0) / 100.0;
-        
+
         int totalQuestoes = resumo.totalQuestoes() != null ? resumo.totalQuestoes().intValue() : 0;
         int totalAcertos = resumo.totalAcertos() != null ? resumo.totalAcertos().intValue() : 0;
-        
+
         double taxaAcertos = totalQuestoes > 0 ? (double) totalAcertos / totalQuestoes * 100.0 : 0.0;
         taxaAcertos = Math.round(taxaAcertos * 10.0) / 10.0;
 
-        // --- GRÁFICO EVOLUÇÃO (Com Gap Filling) ---
-        List<EvolucaoDiariaDTO> evolucaoBanco = registroRepository.calcularEvolucaoDiaria(
-            usuario, inicio, fim, listaMaterias, listaTopicos, listaConcursos, listaTipos
+        return new Kpis(horasLiquidas, totalQuestoes, taxaAcertos);
+    }
+
+    // --- TOTAIS POR MATÉRIA (mais estudada primeiro) ---
+    private List<DashboardDTO.TotalMateria> ordenarMaterias(List<TotalMateriaDTO> totais) {
+        return totais.stream()
+                .sorted((a, b) -> Long.compare(numero(b.totalSegundos()), numero(a.totalSegundos())))
+                .map(total -> {
+                    Kpis kpis = calcularKpis(new ResumoGeralDTO(total.totalSegundos(), total.totalQuestoes(), total.totalAcertos()));
+                    return new DashboardDTO.TotalMateria(
+                        total.materiaId(), total.nomeMateria(), kpis.horasLiquidas(), kpis.totalQuestoes(), kpis.taxaAcertos()
+                    );
+                })
+                .toList();
+    }
+
+    // --- CICLO ATIVO (Cálculo Duplo) ---
+    // O realizado vem dos contadores dos itens (ProgressoCicloService), sem agregar registros,
+    // menos o que já foi cumprido nas voltas fechadas (uma leitura agrupada de CicloHistorico)
+    private ProgressoCiclo buscarProgressoCiclo(Usuario usuario) {
+        return cicloAtivoCache.obter(usuario.getId(), cicloRepository::buscarCicloAtivo)
+                .flatMap(ativo -> cicloRepository.buscarComItens(ativo.cicloId()))
+                .map(this::calcularProgressoCiclo)
+                .orElse(ProgressoCiclo.SEM_CICLO);
+    }
+
+    private ProgressoCiclo calcularProgressoCiclo(Ciclo ciclo) {
+        List<DashboardDTO.ItemProgresso> itensCiclo = new ArrayList<>();
+        double progressoGeral = 0.0;
+
+        double somaPercentuais = 0;
+        int totalItens = 0;
+
+        Map<Long, ResumoHistoricoDTO> descontos = cicloHistoricoRepository.descontosPorMateria(ciclo.getConcurso().getId());
+
+        for (ItemCiclo item : ciclo.getItens()) {
+            var desconto = descontos.get(item.getMateria().getId());
+            long realizadoSeg = Math.max(numero(item.getSegundosRealizados()) - (desconto != null ? numero(desconto.totalSegundos()) : 0L), 0L);
+            double metaH = item.getHorasMeta();
+            long metaS = (long) (metaH * 3600);
+            long saldoS = metaS - realizadoSeg;
+            double percH = metaS > 0 ? ((double) realizadoSeg / metaS) * 100.0 : 0.0;
+            if (percH > 100.0) percH = 100.0;
+
+            long realizadoQ = Math.max(numero(item.getQuestoesRealizadas()) - (desconto != null ? numero(desconto.totalQuestoes()) : 0L), 0L);
+            int metaQ = item.getQuestoesMeta() != null ? item.getQuestoesMeta() : 0;
+            long saldoQ = metaQ - realizadoQ;
+            double percQ = metaQ > 0 ? ((double) realizadoQ / metaQ) * 100.0 : 0.0;
+            if (percQ > 100.0) percQ = 100.0;
+
+            double progressoItem = (metaQ > 0) ? (percH + percQ) / 2.0 : percH;
+            somaPercentuais += progressoItem;
+            totalItens++;
+
+            itensCiclo.add(new DashboardDTO.ItemProgresso(
+                item.getMateria().getNome(),
+                metaH, realizadoSeg, saldoS, Math.round(percH * 10.0) / 10.0,
+                metaQ, realizadoQ, saldoQ, Math.round(percQ * 10.0) / 10.0
+            ));
+        }
+
+        itensCiclo.sort((a, b) -> b.saldoSegundos().compareTo(a.saldoSegundos()));
+
+        if (totalItens > 0) {
+            progressoGeral = Math.round((somaPercentuais / totalItens) * 10.0) / 10.0;
+        }
+
+        // Ritmo vem das colunas do próprio ciclo (já carregado): nenhuma consulta a mais
+        DashboardDTO.RitmoCiclo ritmo = ciclo.getSituacaoRitmo() == null ? null : new DashboardDTO.RitmoCiclo(
+            ciclo.getSituacaoRitmo().name(), ciclo.getItensAtrasados(),
+            ciclo.getHorasDiariasNecessarias(), ciclo.getRitmoAvaliadoEm()
         );
 
+        return new ProgressoCiclo(ciclo.getId(), ciclo.getConcurso().getNome(), progressoGeral, itensCiclo, ritmo);
+    }
+
+    // --- GRÁFICO EVOLUÇÃO (Com Gap Filling) ---
+    private List<DadosGrafico> preencherEvolucao(
+            List<EvolucaoDiariaDTO> evolucaoBanco, LocalDateTime inicio, LocalDateTime fim,
+            Granularidade granularidade, Integer pontos
+    ) {
         // 1. Determinar Range de Datas
         LocalDate dataFim = (fim != null) ? fim.toLocalDate() : LocalDate.now();
         LocalDate dataInicio;
@@ -61,98 +382,55 @@ public class DashboardService {
         } else if (!evolucaoBanco.isEmpty()) {
             // Se não tem filtro, pega a primeira data do banco
             dataInicio = evolucaoBanco.stream()
-                    .map(e -> e.data().toLocalDate())
+                    .map(EvolucaoDiariaDTO::data)
                     .min(LocalDate::compareTo)
                     .orElse(LocalDate.now().minusDays(30));
         } else {
             // Padrão: Últimos 30 dias se tudo estiver vazio
             dataInicio = LocalDate.now().minusDays(30);
         }
-        
+
         // Garante que não exploda se o banco tiver datas muito antigas sem filtro (trava em 2 anos)
         if (inicio == null && ChronoUnit.DAYS.between(dataInicio, dataFim) > 730) {
             dataInicio = dataFim.minusYears(2);
         }
 
-        // 2. Mapear dados existentes
-        Map<LocalDate, Double> mapDados = evolucaoBanco.stream()
-            .collect(Collectors.toMap(
-                e -> e.data().toLocalDate(),
-                e -> e.totalSegundos() / 3600.0,
-                (a, b) -> a 
-            ));
+        // 2. Agrupar por período e preencher buracos (Gap Filling) num array denso
+        List<DadosGrafico> evolucao = SerieEvolucao.montar(
+            evolucaoBanco, dataInicio, dataFim, granularidade.resolver(dataInicio, dataFim)
+        );
 
-        // 3. Preencher buracos (Gap Filling)
-        List<DadosGrafico> evolucao = new ArrayList<>();
-        LocalDate current = dataInicio;
-        
-        while (!current.isAfter(dataFim)) {
-            Double valor = mapDados.getOrDefault(current, 0.0);
-            valor = Math.round(valor * 100.0) / 100.0;
-            
-            // Retorna ISO 8601 para o front tratar
-            evolucao.add(new DadosGrafico(current.toString(), valor));
-            current = current.plusDays(1);
-        }
+        // 3. Limite de pontos (opcional): períodos longos cabem num gráfico de tamanho fixo
+        return pontos != null ? SerieEvolucao.reduzir(evolucao, pontos) : evolucao;
+    }
 
-        // --- 2. CICLO ATIVO (Cálculo Duplo) ---
-        List<DashboardDTO.ItemProgresso> itensCiclo = new ArrayList<>();
-        Long cicloId = null;
-        String nomeConcurso = null;
-        double progressoGeral = 0.0;
+    // --- PARTES DO DTO ---
+    private record Kpis(double horasLiquidas, int totalQuestoes, double taxaAcertos) {}
 
-        var cicloOpt = cicloRepository.findFirstByUsuarioAndAtivoTrue(usuario);
-        if (cicloOpt.isPresent()) {
-            Ciclo ciclo = cicloOpt.get();
-            cicloId = ciclo.getId();
-            nomeConcurso = ciclo.getConcurso().getNome();
-
-            List<ResumoHistoricoDTO> historico = registroRepository.somarEstudosPorConcurso(ciclo.getConcurso().getId());
-            
-            Map<Long, Long> segundosPorMateria = historico.stream()
-                    .collect(Collectors.toMap(ResumoHistoricoDTO::materiaId, dto -> dto.totalSegundos() != null ? dto.totalSegundos() : 0L));
-            
-            Map<Long, Long> questoesPorMateria = historico.stream()
-                    .collect(Collectors.toMap(ResumoHistoricoDTO::materiaId, dto -> dto.totalQuestoes() != null ? dto.totalQuestoes() : 0L));
-
-            double somaPercentuais = 0;
-            int totalItens = 0;
-
-            for (ItemCiclo item : ciclo.getItens()) {
-                long realizadoSeg = segundosPorMateria.getOrDefault(item.getMateria().getId(), 0L);
-                double metaH = item.getHorasMeta();
-                long metaS = (long) (metaH * 3600);
-                long saldoS = metaS - realizadoSeg;
-                double percH = metaS > 0 ? ((double) realizadoSeg / metaS) * 100.0 : 0.0;
-                if (percH > 100.0) percH = 100.0;
-
-                long realizadoQ = questoesPorMateria.getOrDefault(item.getMateria().getId(), 0L);
-                int metaQ = item.getQuestoesMeta() != null ? item.getQuestoesMeta() : 0;
-                long saldoQ = metaQ - realizadoQ;
-                double percQ = metaQ > 0 ? ((double) realizadoQ / metaQ) * 100.0 : 0.0;
-                if (percQ > 100.0) percQ = 100.0;
-
-                double progressoItem = (metaQ > 0) ? (percH + percQ) / 2.0 : percH;
-                somaPercentuais += progressoItem;
-                totalItens++;
-
-                itensCiclo.add(new DashboardDTO.ItemProgresso(
-                    item.getMateria().getNome(),
-                    metaH, realizadoSeg, saldoS, Math.round(percH * 10.0) / 10.0,
-                    metaQ, realizadoQ, saldoQ, Math.round(percQ * 10.0) / 10.0
-                ));
-            }
-            
-            itensCiclo.sort((a, b) -> b.saldoSegundos().compareTo(a.saldoSegundos()));
-            
-            if (totalItens > 0) {
-                progressoGeral = Math.round((somaPercentuais / totalItens) * 10.0) / 10.0;
-            }
-        }
+    // Resumo, série e matérias do caminho agrupado (saem da mesma consulta)
+    private record Agrupado(Kpis kpis, List<DadosGrafico> evolucao, List<DashboardDTO.TotalMateria> materias) {}
+
+    private record ProgressoCiclo(Long cicloId, String nomeConcurso, double progressoGeral,
+                                  List<DashboardDTO.ItemProgresso> itens, DashboardDTO.RitmoCiclo ritmo) {
+        static final ProgressoCiclo SEM_CICLO = new ProgressoCiclo(null, null, 0.0, List.of(), null);
+    }
 
+    private static DashboardDTO montar(
+            Kpis kpis, List<DadosGrafico> evolucao, List<DashboardDTO.TotalMateria> materias, ProgressoCiclo ciclo
+    ) {
         return new DashboardDTO(
-            horasLiquidas, totalQuestoes, taxaAcertos,
-            cicloId, nomeConcurso, progressoGeral, evolucao, itensCiclo
+            kpis.horasLiquidas(), kpis.totalQuestoes(), kpis.taxaAcertos(),
+            ciclo.cicloId(), ciclo.nomeConcurso(), ciclo.progressoGeral(), evolucao, ciclo.itens(), ciclo.ritmo(),
+            materias
         );
     }
-}
\ No newline at end of file
+
+
+    private static long numero(Object valor) {
+        return valor != null ? ((Number) valor).longValue() : 0L;
+    }
+
+    private static LocalDate data(Object valor) {
+        return valor instanceof Date d ? d.toLocalDate() : (LocalDate) valor;
+    }
+}
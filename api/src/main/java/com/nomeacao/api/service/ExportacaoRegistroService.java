@@ -0,0 +1,173 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.dto.DadosExportacaoRegistro;
+import com.nomeacao.api.dto.FormatoExportacao;
+import com.nomeacao.api.model.Usuario;
+import com.nomeacao.api.repository.RegistroEstudoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+ * Exportação do histórico em CSV ou NDJSON, escrita direto na resposta enquanto o cursor do banco avança:
+ * nenhuma lista de registros em memória, o heap fica do tamanho de um lote do fetch size.
+ * Métricas: registros.exportacao.linhas e registros.exportacao.bytes (tag formato).
+ */
+@Service
+public class ExportacaoRegistroService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacaoRegistroService.class);
+
+    private static final String CABECALHO_CSV =
+            "id,data_inicio,materia,topico,concurso,tipo_estudo,segundos,questoes_feitas,questoes_certas,conta_no_ciclo,anotacoes";
+
+    @Autowired private RegistroEstudoRepository repository;
+    @Autowired private JsonMapper jsonMapper;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Value("${app.registros.exportacao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    public StreamingResponseBody exportar(
+            LocalDateTime inicio,
+            LocalDateTime fim,
+            List<Long> materias,
+            List<Long> topicos,
+            List<Long> concursos,
+            List<Long> tipos,
+            FormatoExportacao formato,
+            Usuario usuario) {
+
+        Long usuarioId = usuario.getId();
+        return saida -> {
+            var contador = new ContadorBytes(saida);
+            long linhas = 0;
+            try {
+                linhas = formato == FormatoExportacao.CSV
+                        ? escreverCsv(contador, usuarioId, inicio, fim, materias, topicos, concursos, tipos)
+                        : escreverNdjson(contador, usuarioId, inicio, fim, materias, topicos, concursos, tipos);
+            } catch (UncheckedIOException e) {
+                // Cliente desistiu do download no meio: o cursor já foi fechado junto com a transação
+                logger.info("Exportação interrompida (usuário {}): {}", usuarioId, e.getMessage());
+                throw e.getCause();
+            } finally {
+                String tag = formato.extensao();
+                meterRegistry.counter("registros.exportacao.linhas", "formato", tag).increment(linhas);
+                meterRegistry.counter("registros.exportacao.bytes", "formato", tag).increment(contador.bytes);
+            }
+        };
+    }
+
+    private long escreverCsv(OutputStream saida, Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                             List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        writer.write('\uFEFF'); // BOM: o Excel só reconhece UTF-8 com ele
+        writer.write(CABECALHO_CSV);
+        writer.write("\r\n");
+
+        long linhas = repository.exportar(usuarioId, inicio, fim, materias, topicos, concursos, tipos, tamanhoLote,
+                registro -> {
+                    try {
+                        writer.write(linhaCsv(registro));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        writer.flush();
+        return linhas;
+    }
+
+    private long escreverNdjson(OutputStream saida, Long usuarioId, LocalDateTime inicio, LocalDateTime fim,
+                                List<Long> materias, List<Long> topicos, List<Long> concursos, List<Long> tipos) {
+        try (SequenceWriter sequencia = jsonMapper.writer().withRootValueSeparator("\n").writeValues(naoFechar(saida))) {
+            long linhas = repository.exportar(usuarioId, inicio, fim, materias, topicos, concursos, tipos, tamanhoLote,
+                    sequencia::write);
+            if (linhas > 0) saida.write('\n');
+            return linhas;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Pacote: testado direto (escape de aspas, vírgulas e quebras de linha)
+    static String linhaCsv(DadosExportacaoRegistro r) {
+        return String.join(",",
+                texto(r.id()),
+                texto(r.dataInicio()),
+                csv(r.materia()),
+                csv(r.topico()),
+                csv(r.concurso()),
+                csv(r.tipoEstudo()),
+                texto(r.segundos()),
+                texto(r.questoesFeitas()),
+                texto(r.questoesCertas()),
+                texto(r.contarHorasNoCiclo()),
+                csv(r.anotacoes())) + "\r\n";
+    }
+
+    private static String texto(Object valor) {
+        return valor != null ? valor.toString() : "";
+    }
+
+    // RFC 4180: entre aspas só quando precisa, aspas internas dobradas
+    private static String csv(String valor) {
+        if (valor == null) return "";
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    // O SequenceWriter fecha o destino no close(); quem fecha a resposta é o Spring
+    private static OutputStream naoFechar(OutputStream saida) {
+        return new FilterOutputStream(saida) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    private static final class ContadorBytes extends FilterOutputStream {
+        long bytes;
+
+        ContadorBytes(OutputStream saida) {
+            super(saida);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes += len;
+        }
+    }
+}
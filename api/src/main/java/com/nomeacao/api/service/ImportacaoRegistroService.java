@@ -0,0 +1,381 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.dto.DadosResultadoImportacao;
+import com.nomeacao.api.dto.DadosResultadoImportacao.ErroLinha;
+import com.nomeacao.api.dto.FormatoExportacao;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
+import com.nomeacao.api.model.Usuario;
+import com.nomeacao.api.repository.*;
+import com.nomeacao.api.service.ProgressoCicloService.SomaLote;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Importação em massa (CSV ou NDJSON, mesmas colunas da exportação), lida em streaming:
+ *  - matéria/tópico/concurso/tipo aceitam id ou nome, resolvidos por mapas carregados uma vez por importação;
+ *  - linhas válidas vão para o banco em lotes JDBC (app.registros.importacao.tamanho-lote), cada lote com a sua transação;
+ *  - linha inválida entra no relatório de erros e o resto do arquivo segue;
+ *  - pausa entre lotes e limite de importações simultâneas, para não disputar o banco com o uso normal;
+ *  - resumos e ciclos são atualizados uma vez no final, não por linha; se a leitura ou um lote falhar no meio,
+ *    os lotes já gravados são consolidados antes de o erro subir (nada fica gravado sem resumo nem ciclo).
+ */
+@Service
+public class ImportacaoRegistroService {
+
+    private static final int MAXIMO_ERROS_LISTADOS = 100;
+
+    // CSV usa os nomes do cabeçalho da exportação; NDJSON, os nomes do JSON da exportação
+    private static final Map<String, String> CAMPOS_JSON = Map.of(
+        "dataInicio", "data_inicio",
+        "materia", "materia",
+        "topico", "topico",
+        "concurso", "concurso",
+        "tipoEstudo", "tipo_estudo",
+        "segundos", "segundos",
+        "questoesFeitas", "questoes_feitas",
+        "questoesCertas", "questoes_certas",
+        "contarHorasNoCiclo", "conta_no_ciclo",
+        "anotacoes", "anotacoes"
+    );
+
+    @Autowired private RegistroEstudoRepository repository;
+    @Autowired private MateriaRepository materiaRepository;
+    @Autowired private TopicoRepository topicoRepository;
+    @Autowired private ConcursoRepository concursoRepository;
+    @Autowired private TipoEstudoRepository tipoRepository;
+    @Autowired private ResumoDiarioService resumoDiarioService;
+    @Autowired private ProgressoCicloService progressoCicloService;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private JsonMapper jsonMapper;
+
+    @Value("${app.registros.importacao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${app.registros.importacao.maximo-linhas:100000}")
+    private int maximoLinhas;
+
+    @Value("${app.registros.importacao.simultaneas:2}")
+    private int simultaneas;
+
+    @Value("${app.registros.importacao.pausa-entre-lotes:50ms}")
+    private Duration pausaEntreLotes;
+
+    private final AtomicInteger emAndamento = new AtomicInteger();
+
+    public DadosResultadoImportacao importar(InputStream corpo, FormatoExportacao formato, Usuario usuario) throws IOException {
+        if (emAndamento.incrementAndGet() > simultaneas) {
+            emAndamento.decrementAndGet();
+            throw new RuntimeException("Há importações demais em andamento. Tente novamente em instantes.");
+        }
+        try {
+            var importacao = new Importacao(usuario.getId(), carregarCatalogo(usuario));
+            var reader = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+            try {
+                if (formato == FormatoExportacao.CSV) lerCsv(reader, importacao);
+                else lerNdjson(reader, importacao);
+                importacao.gravarLote();
+            } catch (IOException | RuntimeException e) {
+                importacao.consolidarAposFalha(e);
+                if (e instanceof RuntimeException && importacao.importadas > 0) {
+                    throw new RuntimeException(e.getMessage() + " Os " + importacao.importadas
+                            + " registros gravados antes da falha foram mantidos.", e);
+                }
+                throw e;
+            }
+            importacao.consolidar();
+            return importacao.resultado();
+        } finally {
+            emAndamento.decrementAndGet();
+        }
+    }
+
+    // --- LEITURA ---
+
+    private void lerCsv(BufferedReader reader, Importacao importacao) throws IOException {
+        var leitor = new LeitorCsv(reader);
+        List<String> cabecalho = leitor.proximo();
+        if (cabecalho == null) throw new RuntimeException("O arquivo está vazio.");
+
+        List<String> colunas = cabecalho.stream().map(c -> c.trim().toLowerCase(Locale.ROOT)).toList();
+        if (!colunas.contains("data_inicio") || !colunas.contains("materia") || !colunas.contains("segundos")) {
+            throw new RuntimeException("O cabeçalho precisa ter ao menos as colunas data_inicio, materia e segundos.");
+        }
+
+        long linha = 1;
+        List<String> valores;
+        while ((valores = leitor.proximo()) != null && importacao.aceitaMais()) {
+            Map<String, String> campos = new HashMap<>();
+            for (int i = 0; i < colunas.size() && i < valores.size(); i++) campos.put(colunas.get(i), valores.get(i));
+            importacao.processar(++linha, campos);
+        }
+    }
+
+    private void lerNdjson(BufferedReader reader, Importacao importacao) throws IOException {
+        long linha = 0;
+        String texto;
+        while ((texto = reader.readLine()) != null && importacao.aceitaMais()) {
+            linha++;
+            if (texto.isBlank()) continue;
+
+            Map<String, String> campos = new HashMap<>();
+            try {
+                JsonNode json = jsonMapper.readTree(texto);
+                if (!json.isObject()) throw new RuntimeException("Cada linha deve ser um objeto JSON.");
+                CAMPOS_JSON.forEach((chave, campo) -> {
+                    JsonNode valor = json.get(chave);
+                    if (valor != null && !valor.isNull()) campos.put(campo, valor.asString());
+                });
+            } catch (JacksonException e) {
+                importacao.invalida(linha, "JSON inválido.");
+                continue;
+            } catch (RuntimeException e) {
+                importacao.invalida(linha, e.getMessage());
+                continue;
+            }
+            importacao.processar(linha, campos);
+        }
+    }
+
+    // --- RESOLUÇÃO DE NOMES E IDS ---
+
+    private Catalogo carregarCatalogo(Usuario usuario) {
+        var catalogo = new Catalogo();
+        materiaRepository.findAllByUsuario(usuario).forEach(m -> catalogo.materias.adicionar(m.getId(), m.getNome()));
+        concursoRepository.findAllByUsuario(usuario).forEach(c -> catalogo.concursos.adicionar(c.getId(), c.getNome()));
+        tipoRepository.findAllByUsuario(usuario).forEach(t -> catalogo.tipos.adicionar(t.getId(), t.getNome()));
+        topicoRepository.findAllByMateriaUsuario(usuario).forEach(t -> {
+            Long materiaId = t.getMateria().getId();
+            catalogo.topicos.computeIfAbsent(materiaId, id -> new Nomes()).adicionar(t.getId(), t.getNome());
+        });
+        return catalogo;
+    }
+
+    private static final class Catalogo {
+        final Nomes materias = new Nomes();
+        final Nomes concursos = new Nomes();
+        final Nomes tipos = new Nomes();
+        final Map<Long, Nomes> topicos = new HashMap<>(); // Por matéria: o mesmo nome de tópico pode existir em várias
+    }
+
+    // Id ou nome (sem diferenciar maiúsculas) -> id; nome repetido fica marcado como ambíguo
+    private static final class Nomes {
+        private static final Long AMBIGUO = -1L;
+        private final Set<Long> ids = new HashSet<>();
+        private final Map<String, Long> porNome = new HashMap<>();
+
+        void adicionar(Long id, String nome) {
+            ids.add(id);
+            porNome.merge(chave(nome), id, (atual, novo) -> AMBIGUO);
+        }
+
+        Long resolver(String valor, String rotulo) {
+            String texto = valor.trim();
+            if (texto.chars().allMatch(Character::isDigit)) {
+                Long id = Long.valueOf(texto);
+                if (ids.contains(id)) return id;
+            }
+            Long id = porNome.get(chave(texto));
+            if (id == null) throw new RuntimeException(rotulo + " inexistente: '" + texto + "'.");
+            if (AMBIGUO.equals(id)) throw new RuntimeException(rotulo + " com nome repetido: '" + texto + "'. Use o id.");
+            return id;
+        }
+
+        private static String chave(String nome) {
+            return nome.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // --- ESTADO DE UMA IMPORTAÇÃO ---
+
+    private final class Importacao {
+        private final Long usuarioId;
+        private final Catalogo catalogo;
+        private final List<Object[]> lote = new ArrayList<>();
+        private final List<ErroLinha> erros = new ArrayList<>();
+        private final Map<List<Long>, long[]> somasCiclo = new HashMap<>(); // Só dos lotes já gravados
+        private long lidas;
+        private long importadas;
+        private long comErro;
+        private LocalDateTime menorData;
+        private LocalDateTime maiorData;
+
+        Importacao(Long usuarioId, Catalogo catalogo) {
+            this.usuarioId = usuarioId;
+            this.catalogo = catalogo;
+        }
+
+        boolean aceitaMais() {
+            if (lidas < maximoLinhas) return true;
+            erro(lidas + 1, "Limite de " + maximoLinhas + " linhas por importação atingido; o restante não foi lido.");
+            return false;
+        }
+
+        void processar(long linha, Map<String, String> campos) {
+            lidas++;
+            Object[] registro;
+            try {
+                registro = converter(campos);
+            } catch (RuntimeException e) {
+                erro(linha, e.getMessage());
+                return;
+            }
+            lote.add(registro);
+            if (lote.size() >= tamanhoLote) {
+                gravarLote();
+                pausar();
+            }
+        }
+
+        // Linha que nem chegou a virar campos (JSON quebrado): conta como lida para o limite e os totais
+        void invalida(long linha, String mensagem) {
+            lidas++;
+            erro(linha, mensagem);
+        }
+
+        void erro(long linha, String mensagem) {
+            comErro++;
+            if (erros.size() < MAXIMO_ERROS_LISTADOS) erros.add(new ErroLinha(linha, mensagem));
+        }
+
+        // Mesma ordem de RegistroEstudoRepositoryImpl.COLUNAS_IMPORTACAO
+        private Object[] converter(Map<String, String> campos) {
+            LocalDateTime dataInicio = data(obrigatorio(campos, "data_inicio"));
+            Long materiaId = catalogo.materias.resolver(obrigatorio(campos, "materia"), "Matéria");
+            Integer segundos = inteiro(obrigatorio(campos, "segundos"), "segundos");
+            Integer feitas = inteiro(opcional(campos, "questoes_feitas"), "questoes_feitas");
+            Integer certas = inteiro(opcional(campos, "questoes_certas"), "questoes_certas");
+            if (certas != null && (feitas == null || certas > feitas)) {
+                throw new RuntimeException("Questões certas não podem passar das feitas.");
+            }
+
+            String topico = opcional(campos, "topico");
+            Long topicoId = null;
+            if (topico != null) {
+                Nomes daMateria = catalogo.topicos.get(materiaId);
+                if (daMateria == null) throw new RuntimeException("Tópico inexistente na matéria: '" + topico + "'.");
+                topicoId = daMateria.resolver(topico, "Tópico");
+            }
+            String concurso = opcional(campos, "concurso");
+            Long concursoId = concurso != null ? catalogo.concursos.resolver(concurso, "Concurso") : null;
+            String tipo = opcional(campos, "tipo_estudo");
+            Long tipoId = tipo != null ? catalogo.tipos.resolver(tipo, "Tipo de estudo") : null;
+            boolean contaNoCiclo = booleano(opcional(campos, "conta_no_ciclo"));
+
+            return new Object[]{dataInicio, segundos, feitas, certas, opcional(campos, "anotacoes"),
+                    contaNoCiclo, usuarioId, materiaId, topicoId, concursoId, tipoId};
+        }
+
+        // O que vai para o ciclo e o período dos snapshots só conta depois que o lote foi gravado
+        void gravarLote() {
+            if (lote.isEmpty()) return;
+            importadas += repository.inserirEmLote(lote);
+            for (Object[] registro : lote) somar(registro);
+            lote.clear();
+        }
+
+        private void somar(Object[] registro) {
+            LocalDateTime dataInicio = (LocalDateTime) registro[0];
+            Long concursoId = (Long) registro[9];
+            if (concursoId != null) {
+                long[] soma = somasCiclo.computeIfAbsent(List.of(concursoId, (Long) registro[7]), k -> new long[2]);
+                if ((Boolean) registro[5]) soma[0] += (Integer) registro[1];
+                soma[1] += registro[2] != null ? (Integer) registro[2] : 0;
+            }
+            if (menorData == null || dataInicio.isBefore(menorData)) menorData = dataInicio;
+            if (maiorData == null || dataInicio.isAfter(maiorData)) maiorData = dataInicio;
+        }
+
+        private void pausar() {
+            if (pausaEntreLotes.isZero()) return;
+            try {
+                Thread.sleep(pausaEntreLotes.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Importação interrompida.");
+            }
+        }
+
+        void consolidar() {
+            if (importadas == 0) return;
+            resumoDiarioService.reconstruir(usuarioId);
+            List<SomaLote> somas = somasCiclo.entrySet().stream()
+                    .map(e -> new SomaLote(e.getKey().get(0), e.getKey().get(1), e.getValue()[0], e.getValue()[1]))
+                    .toList();
+            progressoCicloService.adicionarEmLote(usuarioId, somas, menorData, maiorData);
+            eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuarioId, Agregado.REGISTROS, Agregado.CICLOS));
+        }
+
+        // Cada lote já fez commit: sem consolidar, esses registros ficariam fora dos resumos e do ciclo.
+        // Uma falha aqui não esconde a original (a reconstrução dos resumos ainda resolve depois).
+        void consolidarAposFalha(Exception original) {
+            try {
+                consolidar();
+            } catch (RuntimeException e) {
+                original.addSuppressed(e);
+            }
+        }
+
+        DadosResultadoImportacao resultado() {
+            return new DadosResultadoImportacao(lidas, importadas, comErro, erros);
+        }
+    }
+
+    // --- CONVERSÕES ---
+
+    private static String obrigatorio(Map<String, String> campos, String campo) {
+        String valor = opcional(campos, campo);
+        if (valor == null) throw new RuntimeException("Campo obrigatório vazio: " + campo + ".");
+        return valor;
+    }
+
+    private static String opcional(Map<String, String> campos, String campo) {
+        String valor = campos.get(campo);
+        return valor == null || valor.isBlank() ? null : valor;
+    }
+
+    // ISO (2026-03-01T08:00[:00]) ou com espaço no lugar do T, como as planilhas costumam gravar
+    private static LocalDateTime data(String valor) {
+        try {
+            return LocalDateTime.parse(valor.trim().replace(' ', 'T')).withNano(0);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Data inválida: '" + valor + "'. Use o formato 2026-03-01T08:00.");
+        }
+    }
+
+    private static Integer inteiro(String valor, String campo) {
+        if (valor == null) return null;
+        try {
+            int numero = Integer.parseInt(valor.trim());
+            if (numero < 0) throw new NumberFormatException();
+            return numero;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Valor inválido em " + campo + ": '" + valor + "'.");
+        }
+    }
+
+    // Padrão do cadastro: conta no ciclo, a não ser que venha explicitamente falso
+    private static boolean booleano(String valor) {
+        if (valor == null) return true;
+        return switch (valor.trim().toLowerCase(Locale.ROOT)) {
+            case "false", "0", "nao", "não", "n" -> false;
+            default -> true;
+        };
+    }
+}
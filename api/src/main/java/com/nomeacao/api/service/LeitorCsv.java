@@ -0,0 +1,75 @@
+package com.nomeacao.api.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Leitor de CSV (RFC 4180) que lê um registro por vez do Reader: campos entre aspas podem ter vírgula,
+ * aspas dobradas e quebra de linha. Ignora o BOM do início (a exportação grava um para o Excel).
+ */
+final class LeitorCsv {
+
+    private final BufferedReader reader; // mark/reset para olhar o caractere depois das aspas
+    private boolean inicio = true;
+    private boolean fim = false;
+
+    LeitorCsv(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    // Próximo registro, ou null no fim do arquivo. Linhas em branco são puladas.
+    List<String> proximo() throws IOException {
+        while (!fim) {
+            List<String> campos = lerRegistro();
+            if (campos != null && !(campos.size() == 1 && campos.get(0).isBlank())) return campos;
+        }
+        return null;
+    }
+
+    private List<String> lerRegistro() throws IOException {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        boolean leuAlgo = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (inicio) {
+                inicio = false;
+                if (c == '\uFEFF') continue;
+            }
+            leuAlgo = true;
+            if (entreAspas) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int seguinte = reader.read();
+                    if (seguinte == '"') {
+                        atual.append('"');
+                    } else {
+                        entreAspas = false;
+                        if (seguinte != -1) reader.reset();
+                    }
+                } else {
+                    atual.append((char) c);
+                }
+            } else if (c == '"' && atual.isEmpty()) {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else if (c == '\n') {
+                campos.add(atual.toString());
+                return campos;
+            } else if (c != '\r') {
+                atual.append((char) c);
+            }
+        }
+
+        fim = true;
+        if (!leuAlgo) return null;
+        campos.add(atual.toString());
+        return campos;
+    }
+}
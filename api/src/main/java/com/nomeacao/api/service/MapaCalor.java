@@ -0,0 +1,53 @@
+package com.nomeacao.api.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+
+// Codificação do mapa de calor: minutos por dia em varints (1 byte até 127 min, 2 bytes até 16383 min)
+final class MapaCalor {
+
+    private MapaCalor() {}
+
+    static String empacotar(long[] minutos) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(minutos.length + 16);
+        for (long valor : minutos) {
+            long v = Math.max(0, valor);
+            while (v >= 0x80) {
+                saida.write((int) (v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            saida.write((int) v);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(saida.toByteArray());
+    }
+
+    // Inverso de empacotar (usado nos testes e documenta o formato para o front)
+    static long[] desempacotar(String texto, int dias) {
+        byte[] bytes = Base64.getUrlDecoder().decode(texto);
+        long[] minutos = new long[dias];
+        int pos = 0;
+        for (int i = 0; i < dias; i++) {
+            long v = 0;
+            int deslocamento = 0;
+            int b;
+            do {
+                b = bytes[pos++] & 0xFF;
+                v |= (long) (b & 0x7F) << deslocamento;
+                deslocamento += 7;
+            } while ((b & 0x80) != 0);
+            minutos[i] = v;
+        }
+        return minutos;
+    }
+
+    // Escala linear sobre o maior dia: 0 só para dia sem estudo, qualquer minuto já vale pelo menos 1
+    static String quantizar(long[] minutos, long maximo, int niveis) {
+        StringBuilder sb = new StringBuilder(minutos.length);
+        int topo = niveis - 1;
+        for (long valor : minutos) {
+            int nivel = valor <= 0 || maximo <= 0 ? 0 : (int) Math.max(1, Math.min(topo, Math.ceil(valor * (double) topo / maximo)));
+            sb.append((char) ('0' + nivel));
+        }
+        return sb.toString();
+    }
+}
@@ -3,6 +3,9 @@ package com.nomeacao.api.service;
 import com.nomeacao.api.dto.DadosAtualizacaoMateria;
 import com.nomeacao.api.dto.DadosCadastroMateria;
 import com.nomeacao.api.dto.DadosListagemMateria;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.ComposicaoConcursoAlteradaEvent;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
 import com.nomeacao.api.model.Materia;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.repository.ConcursoMateriaRepository;
@@ -10,6 +13,7 @@ import com.nomeacao.api.repository.MateriaRepository;
 import com.nomeacao.api.repository.RegistroEstudoRepository;
 import com.nomeacao.api.repository.CicloRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -29,6 +33,9 @@ public class MateriaService {
     @Autowired 
     private CicloRepository cicloRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public DadosListagemMateria cadastrar(DadosCadastroMateria dados, Usuario usuario) {
         if (repository.existsByUsuarioIdAndNomeIgnoreCase(usuario.getId(), dados.nome().trim())) {
             throw new RuntimeException("Já existe uma matéria cadastrada com este nome.");
@@ -38,6 +45,7 @@ public class MateriaService {
         materia.setUsuario(usuario);
         
         repository.save(materia);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.MATERIAS));
         
         return new DadosListagemMateria(materia);
     }
@@ -61,7 +69,13 @@ public class MateriaService {
         }
 
         materia.atualizarInformacoes(dados.nome());
-        return new DadosListagemMateria(repository.save(materia)); 
+        var atualizada = repository.save(materia);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.MATERIAS));
+
+        // O nome da matéria aparece na sugestão de ciclo dos concursos em que ela está
+        var concursos = vinculoRepository.findConcursoIdsByMateriaId(materia.getId());
+        if (!concursos.isEmpty()) eventPublisher.publishEvent(new ComposicaoConcursoAlteradaEvent(concursos));
+        return new DadosListagemMateria(atualizada);
     }
 
     public void excluir(Long id, Usuario usuario) {
@@ -79,6 +93,7 @@ public class MateriaService {
         }
 
         repository.delete(materia);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.MATERIAS));
     }
 
     private void validarDono(Materia materia, Usuario usuario) {
@@ -100,6 +115,7 @@ public class MateriaService {
 
         materia.setArquivada(true);
         repository.save(materia);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.MATERIAS));
     }
     
     public void desarquivar(Long id, Usuario usuario) {
@@ -112,5 +128,6 @@ public class MateriaService {
 
         materia.setArquivada(false);
         repository.save(materia);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.MATERIAS));
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.model.RegistroEstudo;
+import com.nomeacao.api.repository.CicloRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Service
+public class ProgressoCicloService {
+
+    @Autowired private CicloRepository cicloRepository;
+
+    // Soma o registro no item do ciclo ativo (chamar depois de salvar)
+    public void adicionar(RegistroEstudo registro) {
+        aplicar(registro, 1);
+    }
+
+    // Tira o registro do item do ciclo ativo (chamar ANTES de alterar ou excluir)
+    public void remover(RegistroEstudo registro) {
+        aplicar(registro, -1);
+    }
+
+    // Operações em lote: cada (concurso, matéria) soma uma vez no ciclo ativo (negativo tira, como no remover);
+    // os encerrados do período têm o snapshot refeito dos registros brutos (em vez de um ajuste por registro)
+    @Transactional
+    public void adicionarEmLote(Long usuarioId, Collection<SomaLote> somas, LocalDateTime inicio, LocalDateTime fim) {
+        for (SomaLote soma : somas) {
+            if (soma.segundos() == 0 && soma.questoes() == 0) continue;
+            cicloRepository.acumularProgresso(soma.concursoId(), soma.materiaId(), soma.segundos(), soma.questoes());
+            if (soma.segundos() != 0) {
+                cicloRepository.avancarRodizio(soma.concursoId(), soma.materiaId(), soma.segundos());
+            }
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        for (Long cicloId : cicloRepository.buscarEncerradosNoPeriodo(usuarioId, inicio, fim)) {
+            cicloRepository.congelarProgresso(cicloId, agora);
+        }
+    }
+
+    public record SomaLote(Long concursoId, Long materiaId, long segundos, long questoes) {}
+
+    private void aplicar(RegistroEstudo registro, int sinal) {
+        long segundos = Boolean.TRUE.equals(registro.getContarHorasNoCiclo()) ? valor(registro.getSegundos()) : 0L;
+        long questoes = valor(registro.getQuestoesFeitas());
+        if (segundos == 0 && questoes == 0) return;
+
+        if (registro.getConcurso() != null) { // Sem concurso não conta para o ciclo ativo
+            cicloRepository.acumularProgresso(
+                registro.getConcurso().getId(),
+                registro.getMateria().getId(),
+                sinal * segundos,
+                sinal * questoes
+            );
+            if (segundos > 0) {
+                cicloRepository.avancarRodizio(registro.getConcurso().getId(), registro.getMateria().getId(), sinal * segundos);
+            }
+        }
+
+        // Snapshot dos ciclos encerrados (critério do histórico: matéria + janela do ciclo, com ou sem concurso)
+        Long usuarioId = registro.getUsuario().getId();
+        int itensAjustados = cicloRepository.ajustarItensCongelados(
+            usuarioId, registro.getMateria().getId(), registro.getDataInicio(), sinal * segundos, sinal * questoes
+        );
+        if (itensAjustados > 0) {
+            cicloRepository.recalcularProgressoCongelado(
+                usuarioId, registro.getMateria().getId(), registro.getDataInicio(), LocalDateTime.now()
+            );
+        }
+    }
+
+    private static long valor(Integer valor) {
+        return valor != null ? valor : 0L;
+    }
+}
@@ -0,0 +1,51 @@
+package com.nomeacao.api.service;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/*
+ * Distribuição do saldo do Método de Hamilton em passos discretos, em O(n log n) qualquer que seja o saldo.
+ * Reproduz exatamente as regras do laço passo a passo que existia no CicloService:
+ *   1. Resgate: enquanto houver item com piso zero, o de maior score (empate: ordem da lista) ganha um passo;
+ *   2. Justiça: depois, o de maior resto (empate: ordem da lista) ganha um passo e sai da disputa;
+ *   3. Se ainda sobrar saldo com todos já atendidos, o excedente vai inteiro para o primeiro item da lista.
+ */
+final class RateioHamilton {
+
+    private RateioHamilton() {}
+
+    // Passos extras de cada item (mesma ordem das entradas). pisos = passos já garantidos pelo arredondamento para baixo.
+    static long[] distribuir(long[] pisos, double[] restos, double[] scores, long passos) {
+        int n = pisos.length;
+        long[] extras = new long[n];
+        if (n == 0 || passos <= 0) return extras;
+
+        boolean[] atendido = new boolean[n];
+        long saldo = passos;
+
+        // 1. Resgate (Matérias zeradas com maior score)
+        PriorityQueue<Integer> zerados = new PriorityQueue<>(
+                Comparator.comparingDouble((Integer i) -> scores[i]).reversed().thenComparingInt(i -> i));
+        IntStream.range(0, n).filter(i -> pisos[i] == 0).forEach(zerados::add);
+        while (saldo > 0 && !zerados.isEmpty()) {
+            int i = zerados.poll();
+            extras[i]++;
+            atendido[i] = true;
+            saldo--;
+        }
+
+        // 2. Justiça (Maior Resto), cada item no máximo uma vez
+        PriorityQueue<Integer> porResto = new PriorityQueue<>(
+                Comparator.comparingDouble((Integer i) -> restos[i]).reversed().thenComparingInt(i -> i));
+        IntStream.range(0, n).filter(i -> !atendido[i]).forEach(porResto::add);
+        while (saldo > 0 && !porResto.isEmpty()) {
+            extras[porResto.poll()]++;
+            saldo--;
+        }
+
+        // 3. Todos com resto "usado": o laço antigo sempre caía no primeiro item
+        extras[0] += saldo;
+        return extras;
+    }
+}
@@ -1,22 +1,45 @@
 package com.nomeacao.api.service;
 
+import com.nomeacao.api.dto.CicloAtivoDTO;
+import com.nomeacao.api.dto.CursorRegistro;
 import com.nomeacao.api.dto.DadosCadastroRegistro;
 import com.nomeacao.api.dto.DadosDetalhamentoRegistro;
 import com.nomeacao.api.dto.DadosAtualizacaoRegistro;
+import com.nomeacao.api.dto.DadosPaginaRegistros;
+import com.nomeacao.api.dto.DadosReatribuicaoLote;
+import com.nomeacao.api.dto.DadosResultadoLote;
+import com.nomeacao.api.dto.DadosResultadoSincronizacao;
+import com.nomeacao.api.dto.DadosResultadoSincronizacao.Sessao;
+import com.nomeacao.api.dto.DadosResultadoSincronizacao.Situacao;
+import com.nomeacao.api.dto.DadosSessaoSincronizada;
+import com.nomeacao.api.dto.DadosSincronizacao;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.CicloAtivoCache;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
 import com.nomeacao.api.model.RegistroEstudo;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.repository.*;
-import jakarta.persistence.criteria.Predicate;
+import com.nomeacao.api.repository.RegistroEstudoRepositoryCustom.GrupoAfetado;
+import com.nomeacao.api.service.ProgressoCicloService.SomaLote;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class RegistroEstudoService {
@@ -27,7 +50,15 @@ public class RegistroEstudoService {
     @Autowired private ConcursoRepository concursoRepository;
     @Autowired private TipoEstudoRepository tipoRepository;
     @Autowired private CicloRepository cicloRepository;
+    @Autowired private CicloAtivoCache cicloAtivoCache;
+    @Autowired private ResumoDiarioService resumoDiarioService;
+    @Autowired private ProgressoCicloService progressoCicloService;
+    @Autowired private ApplicationEventPublisher eventPublisher;
 
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+    private static final int TAMANHO_MAXIMO_LOTE = 5000;
+
+    @Transactional
     public DadosDetalhamentoRegistro registrar(DadosCadastroRegistro dados, Usuario usuario) {
         var registro = new RegistroEstudo();
         registro.setUsuario(usuario);
@@ -56,8 +87,8 @@ public class RegistroEstudoService {
             if (!concurso.getUsuario().getId().equals(usuario.getId())) throw new RuntimeException("Acesso Negado ao Concurso");
             registro.setConcurso(concurso);
         } else {
-            cicloRepository.findFirstByUsuarioAndAtivoTrue(usuario)
-                .ifPresent(cicloAtivo -> registro.setConcurso(cicloAtivo.getConcurso()));
+            cicloAtivoCache.obter(usuario.getId(), cicloRepository::buscarCicloAtivo)
+                .ifPresent(cicloAtivo -> registro.setConcurso(concursoRepository.getReferenceById(cicloAtivo.concursoId())));
         }
 
         if (dados.tipoEstudoId() != null) {
@@ -68,6 +99,9 @@ public class RegistroEstudoService {
         }
 
         repository.save(registro);
+        resumoDiarioService.adicionar(registro);
+        progressoCicloService.adicionar(registro);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.REGISTROS));
         return new DadosDetalhamentoRegistro(registro);
     }
 
@@ -80,6 +114,10 @@ public class RegistroEstudoService {
             throw new RuntimeException("Acesso negado.");
         }
 
+        // Tira os valores antigos do resumo diário e do ciclo antes de aplicar a edição
+        resumoDiarioService.remover(registro);
+        progressoCicloService.remover(registro);
+
         if (dados.dataInicio() != null) registro.setDataInicio(dados.dataInicio().withNano(0));
         
         if (dados.segundos() != null) registro.setSegundos(dados.segundos());
@@ -109,6 +147,9 @@ public class RegistroEstudoService {
         }
 
         repository.save(registro);
+        resumoDiarioService.adicionar(registro);
+        progressoCicloService.adicionar(registro);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.REGISTROS));
         return new DadosDetalhamentoRegistro(registro);
     }
 
@@ -122,44 +163,117 @@ public class RegistroEstudoService {
             Pageable pageable,
             Usuario usuario) {
         
-        Specification<RegistroEstudo> spec = (root, query, cb) -> {
-            List<Predicate> mainPredicates = new ArrayList<>();
+        // Ids da página com só os filtros em uso (ver FiltroSql); o total só é contado se a página não disser tudo
+        List<Long> ids = repository.buscarIdsFiltrados(
+                usuario.getId(), inicio, fim, materias, topicos, concursos, tipos, pageable);
 
-            mainPredicates.add(cb.equal(root.get("usuario"), usuario));
+        Map<Long, RegistroEstudo> porId = repository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(RegistroEstudo::getId, Function.identity()));
+        List<DadosDetalhamentoRegistro> conteudo = ids.stream()
+                .map(porId::get)
+                .map(DadosDetalhamentoRegistro::new)
+                .toList();
 
-            if (inicio != null) {
-                mainPredicates.add(cb.greaterThanOrEqualTo(root.get("dataInicio"), inicio));
-            }
-            if (fim != null) {
-                mainPredicates.add(cb.lessThanOrEqualTo(root.get("dataInicio"), fim));
-            }
+        return PageableExecutionUtils.getPage(conteudo, pageable,
+                () -> repository.contarFiltrados(usuario.getId(), inicio, fim, materias, topicos, concursos, tipos));
+    }
 
-            // Lógica OR: (Materia IN ... OR Topico IN ...)
-            List<Predicate> matTopPredicates = new ArrayList<>();
-            if (materias != null && !materias.isEmpty()) {
-                matTopPredicates.add(root.get("materia").get("id").in(materias));
-            }
-            if (topicos != null && !topicos.isEmpty()) {
-                matTopPredicates.add(root.get("topico").get("id").in(topicos));
-            }
-            
-            // Se tiver filtro de matéria ou tópico, agrupa com OR e adiciona ao AND principal
-            if (!matTopPredicates.isEmpty()) {
-                mainPredicates.add(cb.or(matTopPredicates.toArray(new Predicate[0])));
-            }
+    /*
+     * Fila offline do cronômetro: N sessões numa transação e num INSERT só, idempotente pelo clienteId.
+     * Sessão sem concurso vai para o concurso do ciclo ativo, como no cadastro individual.
+     * Resumos e ciclo recebem só as criadas agora (uma atualização agrupada, não uma por sessão).
+     */
+    @Transactional
+    public DadosResultadoSincronizacao sincronizar(DadosSincronizacao dados, Usuario usuario) {
+        Long concursoAtivo = cicloAtivoCache.obter(usuario.getId(), cicloRepository::buscarCicloAtivo)
+                .map(CicloAtivoDTO::concursoId)
+                .orElse(null);
 
-            if (concursos != null && !concursos.isEmpty()) {
-                mainPredicates.add(root.get("concurso").get("id").in(concursos));
-            }
-            if (tipos != null && !tipos.isEmpty()) {
-                mainPredicates.add(root.get("tipoEstudo").get("id").in(tipos));
+        // Mesmo UUID repetido no lote: vale a primeira
+        Map<UUID, DadosSessaoSincronizada> porCliente = new LinkedHashMap<>();
+        for (DadosSessaoSincronizada sessao : dados.sessoes()) {
+            porCliente.putIfAbsent(sessao.clienteId(), sessao.concursoId() != null || concursoAtivo == null
+                    ? sessao
+                    : new DadosSessaoSincronizada(sessao.clienteId(), sessao.materiaId(), sessao.topicoId(), concursoAtivo,
+                            sessao.tipoEstudoId(), sessao.dataInicio(), sessao.segundos(), sessao.questoesFeitas(),
+                            sessao.questoesCertas(), sessao.contarHorasNoCiclo(), sessao.anotacoes()));
+        }
+
+        List<Sessao> resultado = new ArrayList<>();
+        List<Long> criados = new ArrayList<>();
+        List<DadosSessaoSincronizada> sessoesCriadas = new ArrayList<>();
+        for (Object[] linha : repository.sincronizar(usuario.getId(), List.copyOf(porCliente.values()))) {
+            UUID clienteId = (UUID) linha[0];
+            Long criado = (Long) linha[1];
+            Long existente = (Long) linha[2];
+            if (criado != null) {
+                criados.add(criado);
+                sessoesCriadas.add(porCliente.get(clienteId));
+                resultado.add(new Sessao(clienteId, criado, Situacao.CRIADA));
+            } else if (existente != null) {
+                resultado.add(new Sessao(clienteId, existente, Situacao.DUPLICADA));
+            } else {
+                resultado.add(new Sessao(clienteId, null, Situacao.REJEITADA));
             }
+        }
+
+        if (!criados.isEmpty()) {
+            aplicarCriadas(usuario.getId(), criados, sessoesCriadas);
+            eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.REGISTROS));
+        }
+        return new DadosResultadoSincronizacao(resultado);
+    }
 
-            return cb.and(mainPredicates.toArray(new Predicate[0]));
-        };
+    private void aplicarCriadas(Long usuarioId, List<Long> ids, List<DadosSessaoSincronizada> sessoes) {
+        resumoDiarioService.adicionarEmLote(usuarioId, ids,
+                sessoes.stream().map(s -> s.dataInicio().toLocalDate()).distinct().toList());
 
-        return repository.findAll(spec, pageable)
-                .map(DadosDetalhamentoRegistro::new);
+        Map<List<Long>, long[]> somas = new HashMap<>();
+        for (DadosSessaoSincronizada sessao : sessoes) {
+            if (sessao.concursoId() == null) continue;
+            long[] soma = somas.computeIfAbsent(List.of(sessao.concursoId(), sessao.materiaId()), k -> new long[2]);
+            if (!Boolean.FALSE.equals(sessao.contarHorasNoCiclo())) soma[0] += sessao.segundos();
+            soma[1] += sessao.questoesFeitas() != null ? sessao.questoesFeitas() : 0;
+        }
+        LocalDateTime inicio = sessoes.stream().map(s -> s.dataInicio().withNano(0)).min(LocalDateTime::compareTo).orElseThrow();
+        LocalDateTime fim = sessoes.stream().map(s -> s.dataInicio().withNano(0)).max(LocalDateTime::compareTo).orElseThrow();
+        progressoCicloService.adicionarEmLote(usuarioId, somas.entrySet().stream()
+                .map(e -> new SomaLote(e.getKey().get(0), e.getKey().get(1), e.getValue()[0], e.getValue()[1]))
+                .toList(), inicio, fim);
+    }
+
+    // Modo seek: sem OFFSET nem COUNT por página; busca uma linha a mais só para saber se há próxima
+    public DadosPaginaRegistros listarPorCursor(
+            LocalDateTime inicio,
+            LocalDateTime fim,
+            List<Long> materias,
+            List<Long> topicos,
+            List<Long> concursos,
+            List<Long> tipos,
+            String cursor,
+            int tamanho,
+            boolean comTotal,
+            Usuario usuario) {
+
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new RuntimeException("O tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+        }
+
+        List<DadosDetalhamentoRegistro> linhas = repository.buscarPorCursor(usuario.getId(), inicio, fim,
+                materias, topicos, concursos, tipos, CursorRegistro.decodificar(cursor), tamanho + 1);
+
+        boolean temProxima = linhas.size() > tamanho;
+        List<DadosDetalhamentoRegistro> conteudo = temProxima ? linhas.subList(0, tamanho) : linhas;
+        String proximo = null;
+        if (temProxima) {
+            var ultimo = conteudo.get(conteudo.size() - 1);
+            proximo = new CursorRegistro(ultimo.dataInicio(), ultimo.id()).codificar();
+        }
+
+        Long total = comTotal
+                ? repository.contarFiltrados(usuario.getId(), inicio, fim, materias, topicos, concursos, tipos)
+                : null;
+        return new DadosPaginaRegistros(conteudo, proximo, total);
     }
 
     @Transactional
@@ -171,22 +285,128 @@ public class RegistroEstudoService {
             throw new RuntimeException("Acesso negado.");
         }
 
+        resumoDiarioService.remover(registro);
+        progressoCicloService.remover(registro);
         repository.delete(registro);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.REGISTROS));
     }
 
+    /*
+     * Operações em lote: sem carregar as entidades. Um EXISTS recusa a seleção com id de outro usuário (como o
+     * excluirEmLote antigo) e o DELETE/UPDATE ainda filtra por usuario_id. Resumos e ciclo são ajustados por
+     * grupo (dia, concurso, matéria) devolvido pelo statement.
+     */
     @Transactional
-    public void excluirEmLote(List<Long> ids, Usuario usuario) {
-        if (ids == null || ids.isEmpty()) return;
+    public DadosResultadoLote excluirEmLote(List<Long> ids, Usuario usuario) {
+        if (ids == null || ids.isEmpty()) return new DadosResultadoLote(0);
+        validarTamanhoLote(ids);
+        Long usuarioId = usuario.getId();
+        validarPosse(ids, usuarioId);
 
-        var registros = repository.findAllById(ids);
-        
-        boolean todosPertencemAoUsuario = registros.stream()
-                .allMatch(r -> r.getUsuario().getId().equals(usuario.getId()));
+        resumoDiarioService.removerEmLote(usuarioId, ids);
+        List<GrupoAfetado> grupos = repository.excluirEmLote(usuarioId, ids);
+        if (grupos.isEmpty()) return new DadosResultadoLote(0);
+
+        resumoDiarioService.recalcularMeses(usuarioId, dias(grupos));
+        // Sempre refaz os encerrados do período: o histórico deles conta registros com ou sem concurso
+        progressoCicloService.adicionarEmLote(usuarioId, somasPorConcurso(grupos), primeiro(grupos), ultimo(grupos));
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuarioId, Agregado.REGISTROS));
+        return new DadosResultadoLote(total(grupos));
+    }
+
+    @Transactional
+    public DadosResultadoLote reatribuirEmLote(DadosReatribuicaoLote dados, Usuario usuario) {
+        if (dados.topicoId() == null && dados.concursoId() == null && dados.tipoEstudoId() == null) {
+            throw new RuntimeException("Informe o tópico, o concurso ou o tipo de estudo de destino.");
+        }
+        validarTamanhoLote(dados.ids());
+        Long usuarioId = usuario.getId();
+        validarPosse(dados.ids(), usuarioId);
+
+        Long materiaDoTopico = null;
+        if (dados.topicoId() != null) {
+            var topico = topicoRepository.findById(dados.topicoId())
+                    .orElseThrow(() -> new RuntimeException("Tópico não encontrado"));
+            if (!topico.getMateria().getUsuario().getId().equals(usuarioId)) throw new RuntimeException("Acesso Negado ao Tópico");
+            materiaDoTopico = topico.getMateria().getId();
+            if (repository.existsByIdInAndUsuarioIdAndMateriaIdNot(dados.ids(), usuarioId, materiaDoTopico)) {
+                throw new RuntimeException("O tópico só pode ser aplicado a registros de " + topico.getMateria().getNome()
+                        + "; a seleção tem registros de outra matéria.");
+            }
+        }
+
+        if (dados.concursoId() != null) {
+            var concurso = concursoRepository.findById(dados.concursoId())
+                    .orElseThrow(() -> new RuntimeException("Concurso não encontrado"));
+            if (!concurso.getUsuario().getId().equals(usuarioId)) throw new RuntimeException("Acesso Negado ao Concurso");
+        }
+
+        if (dados.tipoEstudoId() != null) {
+            var tipo = tipoRepository.findById(dados.tipoEstudoId())
+                    .orElseThrow(() -> new RuntimeException("Tipo de Estudo não encontrado"));
+            if (!tipo.getUsuario().getId().equals(usuarioId)) throw new RuntimeException("Acesso Negado ao Tipo");
+        }
+
+        // Tópico/concurso/tipo fazem parte da chave do resumo diário: sai tudo antes e volta depois do UPDATE
+        resumoDiarioService.removerEmLote(usuarioId, dados.ids());
+        List<GrupoAfetado> grupos = repository.reatribuirEmLote(usuarioId, dados.ids(), dados.topicoId(),
+                materiaDoTopico, dados.concursoId(), dados.tipoEstudoId());
+        resumoDiarioService.adicionarEmLote(usuarioId, dados.ids(), dias(grupos));
+        if (grupos.isEmpty()) return new DadosResultadoLote(0);
+
+        // Só a troca de concurso mexe no ciclo ativo; o histórico dos encerrados não depende do concurso
+        List<SomaLote> somas = somasPorConcurso(grupos);
+        if (!somas.isEmpty()) {
+            progressoCicloService.adicionarEmLote(usuarioId, somas, primeiro(grupos), ultimo(grupos));
+        }
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuarioId, Agregado.REGISTROS));
+        return new DadosResultadoLote(total(grupos));
+    }
 
-        if (!todosPertencemAoUsuario) {
+    private void validarPosse(List<Long> ids, Long usuarioId) {
+        if (repository.existsByIdInAndUsuarioIdNot(ids, usuarioId)) {
             throw new RuntimeException("Acesso negado: Um ou mais registros não pertencem a você.");
         }
+    }
+
+    private static void validarTamanhoLote(List<Long> ids) {
+        if (ids.size() > TAMANHO_MAXIMO_LOTE) {
+            throw new RuntimeException("No máximo " + TAMANHO_MAXIMO_LOTE + " registros por operação em lote.");
+        }
+    }
+
+    // Cada grupo sai do (concurso anterior, matéria) e entra no (concurso atual, matéria); sem troca, nada muda
+    private static List<SomaLote> somasPorConcurso(List<GrupoAfetado> grupos) {
+        Map<List<Long>, long[]> somas = new LinkedHashMap<>();
+        for (GrupoAfetado grupo : grupos) {
+            if (Objects.equals(grupo.concursoAnterior(), grupo.concursoAtual())) continue;
+            if (grupo.concursoAnterior() != null) somar(somas, grupo.concursoAnterior(), grupo, -1);
+            if (grupo.concursoAtual() != null) somar(somas, grupo.concursoAtual(), grupo, 1);
+        }
+        return somas.entrySet().stream()
+                .map(e -> new SomaLote(e.getKey().get(0), e.getKey().get(1), e.getValue()[0], e.getValue()[1]))
+                .toList();
+    }
+
+    private static void somar(Map<List<Long>, long[]> somas, Long concursoId, GrupoAfetado grupo, int sinal) {
+        long[] soma = somas.computeIfAbsent(List.of(concursoId, grupo.materiaId()), k -> new long[2]);
+        soma[0] += sinal * grupo.segundosCiclo();
+        soma[1] += sinal * grupo.questoes();
+    }
+
+    private static List<LocalDate> dias(List<GrupoAfetado> grupos) {
+        return grupos.stream().map(GrupoAfetado::dia).distinct().toList();
+    }
+
+    private static LocalDateTime primeiro(List<GrupoAfetado> grupos) {
+        return grupos.stream().map(GrupoAfetado::primeiro).min(LocalDateTime::compareTo).orElseThrow();
+    }
+
+    private static LocalDateTime ultimo(List<GrupoAfetado> grupos) {
+        return grupos.stream().map(GrupoAfetado::ultimo).max(LocalDateTime::compareTo).orElseThrow();
+    }
 
-        repository.deleteAll(registros);
+    private static int total(List<GrupoAfetado> grupos) {
+        return grupos.stream().mapToInt(GrupoAfetado::registros).sum();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.model.RegistroEstudo;
+import com.nomeacao.api.repository.ResumoDiarioRepository;
+import com.nomeacao.api.repository.ResumoMensalRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+@Service
+public class ResumoDiarioService {
+
+    @Autowired private ResumoDiarioRepository repository;
+    @Autowired private ResumoMensalRepository resumoMensalRepository;
+
+    // Soma o registro no consolidado do dia (chamar depois de salvar)
+    public void adicionar(RegistroEstudo registro) {
+        aplicar(registro, 1);
+        recalcularMes(registro);
+    }
+
+    // Tira o registro do consolidado do dia (chamar ANTES de alterar ou excluir)
+    public void remover(RegistroEstudo registro) {
+        aplicar(registro, -1);
+        repository.removerVazios(registro.getUsuario().getId(), registro.getDataInicio().toLocalDate());
+        recalcularMes(registro);
+    }
+
+    // Vários registros recém-gravados: um INSERT agrupado no diário e cada mês tocado refeito uma vez
+    public void adicionarEmLote(Long usuarioId, Collection<Long> ids, Collection<LocalDate> dias) {
+        if (ids.isEmpty()) return;
+        repository.acumularRegistros(usuarioId, ids.toArray(Long[]::new), 1);
+        recalcularMeses(usuarioId, dias);
+    }
+
+    // Tira vários registros do diário num INSERT agrupado (chamar ANTES de alterar ou excluir).
+    // Os meses ficam para recalcularMeses, com os dias que a operação devolver
+    public void removerEmLote(Long usuarioId, Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        repository.acumularRegistros(usuarioId, ids.toArray(Long[]::new), -1);
+        repository.removerVaziosDoUsuario(usuarioId);
+    }
+
+    public void recalcularMeses(Long usuarioId, Collection<LocalDate> dias) {
+        dias.stream().map(dia -> dia.withDayOfMonth(1)).distinct().forEach(mes -> {
+            resumoMensalRepository.excluirMes(usuarioId, mes);
+            resumoMensalRepository.recalcularMes(usuarioId, mes);
+        });
+    }
+
+    // O mês sai do diário já atualizado (inclui os dias estudados, que não dá para subtrair por soma)
+    private void recalcularMes(RegistroEstudo registro) {
+        Long usuarioId = registro.getUsuario().getId();
+        LocalDate mes = registro.getDataInicio().toLocalDate().withDayOfMonth(1);
+        resumoMensalRepository.excluirMes(usuarioId, mes);
+        resumoMensalRepository.recalcularMes(usuarioId, mes);
+    }
+
+    private void aplicar(RegistroEstudo registro, int sinal) {
+        repository.acumular(
+            registro.getUsuario().getId(),
+            registro.getDataInicio().toLocalDate(),
+            registro.getMateria().getId(),
+            registro.getTopico() != null ? registro.getTopico().getId() : null,
+            registro.getConcurso() != null ? registro.getConcurso().getId() : null,
+            registro.getTipoEstudo() != null ? registro.getTipoEstudo().getId() : null,
+            sinal * (long) valor(registro.getSegundos()),
+            Boolean.TRUE.equals(registro.getContarHorasNoCiclo()) ? sinal * (long) valor(registro.getSegundos()) : 0L,
+            sinal * (long) valor(registro.getQuestoesFeitas()),
+            sinal * (long) valor(registro.getQuestoesCertas()),
+            sinal
+        );
+    }
+
+    // Backfill / correção: refaz o consolidado a partir dos registros brutos
+    @Transactional
+    public void reconstruir(Long usuarioId) {
+        repository.excluirPorUsuario(usuarioId);
+        repository.reconstruirPorUsuario(usuarioId);
+        resumoMensalRepository.excluirPorUsuario(usuarioId);
+        resumoMensalRepository.reconstruirPorUsuario(usuarioId);
+    }
+
+    @Transactional
+    public void reconstruirTodos() {
+        repository.excluirTodos();
+        repository.reconstruirTodos();
+        resumoMensalRepository.excluirTodos();
+        resumoMensalRepository.reconstruirTodos();
+    }
+
+    private static int valor(Integer valor) {
+        return valor != null ? valor : 0;
+    }
+}
@@ -0,0 +1,81 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
+import com.nomeacao.api.infra.concorrencia.AvaliacaoRitmoExecutor;
+import com.nomeacao.api.repository.CicloRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+@Service
+public class RitmoCicloService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RitmoCicloService.class);
+
+    @Autowired private CicloRepository cicloRepository;
+    @Autowired private AvaliacaoRitmoExecutor executor;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.ciclo.ritmo.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    // Percorre os ciclos ativos por id (keyset, sem OFFSET) e manda cada faixa para o pool.
+    // Cada lote é um UPDATE set-based: custo por lote constante, independente de quantos usuários existem.
+    public int avaliarCiclosAtivos() {
+        LocalDate hoje = LocalDate.now();
+        LocalDateTime agora = LocalDateTime.now();
+        Timer.Sample amostra = Timer.start(meterRegistry);
+
+        List<Future<List<Long>>> lotes = new ArrayList<>();
+        long aposId = 0L;
+        List<Long> ids;
+        do {
+            ids = cicloRepository.buscarIdsAtivosApos(aposId, tamanhoLote);
+            if (ids.isEmpty()) break;
+
+            Long primeiroId = ids.get(0);
+            Long ultimoId = ids.get(ids.size() - 1);
+            lotes.add(executor.submeter(() -> cicloRepository.avaliarRitmo(primeiroId, ultimoId, hoje, agora)));
+            aposId = ultimoId;
+        } while (ids.size() == tamanhoLote);
+
+        int avaliados = 0;
+        int falhas = 0;
+        for (Future<List<Long>> lote : lotes) {
+            try {
+                List<Long> usuarios = lote.get();
+                avaliados += usuarios.size();
+                // Lote já commitado: o Dashboard e as ETags passam a mostrar o ritmo novo
+                usuarios.stream().distinct().forEach(usuarioId ->
+                        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuarioId, Agregado.CICLOS)));
+            } catch (ExecutionException e) {
+                falhas++;
+                logger.error("[RITMO] Falha ao avaliar um lote de ciclos", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Avaliação de ritmo interrompida", e);
+            }
+        }
+
+        long duracao = amostra.stop(Timer.builder("ciclo.ritmo.avaliacao")
+                .description("Duração da avaliação de ritmo de todos os ciclos ativos")
+                .register(meterRegistry));
+        logger.info("[RITMO] {} ciclos avaliados em {} lotes ({} com falha) em {}ms",
+                avaliados, lotes.size(), falhas, duracao / 1_000_000);
+        return avaliados;
+    }
+}
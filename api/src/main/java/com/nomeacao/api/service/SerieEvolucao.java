@@ -0,0 +1,81 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.dto.DadosGrafico;
+import com.nomeacao.api.dto.EvolucaoDiariaDTO;
+import com.nomeacao.api.dto.Granularidade;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Montagem do gráfico de evolução: períodos num array denso (sem mapa por dia) e redução opcional por LTTB
+final class SerieEvolucao {
+
+    private SerieEvolucao() {}
+
+    // As linhas podem vir já agrupadas pelo banco ou dia a dia: somar no índice serve para os dois casos
+    static List<DadosGrafico> montar(List<EvolucaoDiariaDTO> linhas, LocalDate dataInicio, LocalDate dataFim,
+                                     Granularidade granularidade) {
+        LocalDate base = granularidade.truncar(dataInicio);
+        int tamanho = granularidade.indice(base, dataFim) + 1;
+        long[] segundos = new long[tamanho];
+
+        for (EvolucaoDiariaDTO linha : linhas) {
+            int i = granularidade.indice(base, linha.data());
+            if (i >= 0 && i < tamanho && linha.totalSegundos() != null) segundos[i] += linha.totalSegundos();
+        }
+
+        List<DadosGrafico> serie = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            double horas = Math.round((segundos[i] / 3600.0) * 100.0) / 100.0;
+            // Retorna ISO 8601 (início do período) para o front tratar
+            serie.add(new DadosGrafico(granularidade.avancar(base, i).toString(), horas));
+        }
+        return serie;
+    }
+
+    // Largest-Triangle-Three-Buckets: mantém o primeiro, o último e, em cada faixa, o ponto que mais altera o desenho
+    static List<DadosGrafico> reduzir(List<DadosGrafico> serie, int pontos) {
+        int n = serie.size();
+        if (pontos >= n || pontos < 3) return serie;
+
+        List<DadosGrafico> resultado = new ArrayList<>(pontos);
+        resultado.add(serie.get(0));
+
+        double largura = (double) (n - 2) / (pontos - 2);
+        int anterior = 0;
+
+        for (int faixa = 0; faixa < pontos - 2; faixa++) {
+            // Média da próxima faixa (ou o último ponto, na faixa final)
+            int inicioProxima = (int) ((faixa + 1) * largura) + 1;
+            int fimProxima = Math.min((int) ((faixa + 2) * largura) + 1, n);
+            double mediaX = 0, mediaY = 0;
+            for (int j = inicioProxima; j < fimProxima; j++) {
+                mediaX += j;
+                mediaY += serie.get(j).valor();
+            }
+            int qtd = fimProxima - inicioProxima;
+            mediaX /= qtd;
+            mediaY /= qtd;
+
+            int inicioFaixa = (int) (faixa * largura) + 1;
+            int fimFaixa = (int) ((faixa + 1) * largura) + 1;
+            double ax = anterior, ay = serie.get(anterior).valor();
+
+            double maiorArea = -1;
+            int escolhido = inicioFaixa;
+            for (int j = inicioFaixa; j < fimFaixa; j++) {
+                double area = Math.abs((ax - mediaX) * (serie.get(j).valor() - ay) - (ax - j) * (mediaY - ay));
+                if (area > maiorArea) {
+                    maiorArea = area;
+                    escolhido = j;
+                }
+            }
+            resultado.add(serie.get(escolhido));
+            anterior = escolhido;
+        }
+
+        resultado.add(serie.get(n - 1));
+        return resultado;
+    }
+}
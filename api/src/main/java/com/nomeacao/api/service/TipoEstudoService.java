@@ -1,11 +1,14 @@
 package com.nomeacao.api.service;
 
 import com.nomeacao.api.dto.DadosTipoEstudo;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
 import com.nomeacao.api.model.TipoEstudo;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.repository.RegistroEstudoRepository;
 import com.nomeacao.api.repository.TipoEstudoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,6 +18,7 @@ public class TipoEstudoService {
 
     @Autowired private TipoEstudoRepository repository;
     @Autowired private RegistroEstudoRepository registroRepository;
+    @Autowired private ApplicationEventPublisher eventPublisher;
 
     public TipoEstudo cadastrar(DadosTipoEstudo dados, Usuario usuario) {
         if (repository.existsByUsuarioAndNomeIgnoreCase(usuario, dados.nome())) {
@@ -27,7 +31,9 @@ public class TipoEstudoService {
         tipo.setArquivado(false);
         tipo.setContaHorasCiclo(dados.contaHorasCiclo() != null ? dados.contaHorasCiclo() : true);
         
-        return repository.save(tipo);
+        var salvo = repository.save(tipo);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.TIPOS_ESTUDO));
+        return salvo;
     }
 
     public void criarPadroes(Usuario usuario) {
@@ -67,6 +73,7 @@ public class TipoEstudoService {
         if (dados.contaHorasCiclo() != null) {
             tipo.setContaHorasCiclo(dados.contaHorasCiclo());
         }
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.TIPOS_ESTUDO));
     }
 
     public void excluir(Long id, Usuario usuario) {
@@ -78,11 +85,13 @@ public class TipoEstudoService {
         }
         
         repository.delete(tipo);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.TIPOS_ESTUDO));
     }
     
     public void alternarArquivamento(Long id, Usuario usuario) {
         var tipo = repository.findById(id).orElseThrow();
         if (!tipo.getUsuario().getId().equals(usuario.getId())) throw new RuntimeException("Acesso negado.");
         tipo.setArquivado(!tipo.getArquivado());
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.TIPOS_ESTUDO));
     }
 }
\ No newline at end of file
@@ -4,12 +4,15 @@ import com.nomeacao.api.dto.DadosAtualizacaoTopico;
 import com.nomeacao.api.dto.DadosCadastroTopico;
 import com.nomeacao.api.dto.DadosListagemTopico;
 import com.nomeacao.api.dto.MateriaComTopicosDTO;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
 import com.nomeacao.api.model.Topico;
 import com.nomeacao.api.model.Usuario;
 import com.nomeacao.api.repository.MateriaRepository;
 import com.nomeacao.api.repository.RegistroEstudoRepository;
 import com.nomeacao.api.repository.TopicoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -29,6 +32,9 @@ public class TopicoService {
     @Autowired
     private RegistroEstudoRepository registroRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<MateriaComTopicosDTO> listarHierarquia(Usuario usuario) {
         List<Topico> todosTopicos = repository.findAllByUsuarioComMateria(usuario);
 
@@ -68,6 +74,7 @@ public class TopicoService {
         topico.setArquivado(false);
 
         repository.save(topico);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.TOPICOS));
         return new DadosListagemTopico(topico);
     }
 
@@ -98,6 +105,7 @@ public class TopicoService {
         }
 
         topico.setNome(dados.nome());
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.TOPICOS));
         return new DadosListagemTopico(topico);
     }
 
@@ -114,6 +122,7 @@ public class TopicoService {
         }
         
         repository.delete(topico);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.TOPICOS));
     }
 
     public void arquivar(Long id, Usuario usuario) {
@@ -121,6 +130,7 @@ public class TopicoService {
         if (!topico.getMateria().getUsuario().getId().equals(usuario.getId())) throw new RuntimeException("Acesso negado.");
         
         topico.setArquivado(true);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.TOPICOS));
     }
 
     public void desarquivar(Long id, Usuario usuario) {
@@ -128,5 +138,6 @@ public class TopicoService {
         if (!topico.getMateria().getUsuario().getId().equals(usuario.getId())) throw new RuntimeException("Acesso negado.");
         
         topico.setArquivado(false);
+        eventPublisher.publishEvent(new DadosUsuarioAlteradosEvent(usuario.getId(), Agregado.TOPICOS));
     }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.dto.EvolucaoDiariaDTO;
+import com.nomeacao.api.dto.Granularidade;
+import com.nomeacao.api.dto.VisaoVidaDTO;
+import com.nomeacao.api.dto.VisaoVidaDTO.Fatia;
+import com.nomeacao.api.dto.VisaoVidaDTO.Sequencia;
+import com.nomeacao.api.model.Usuario;
+import com.nomeacao.api.repository.ResumoMensalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// Dashboard macro: lê só o consolidado mensal, então o custo depende do número de meses, não de registros
+@Service
+public class VisaoVidaService {
+
+    private static final int POR_MES = 3, POR_MATERIA = 5, POR_CONCURSO = 6;
+
+    private static final Sequencia SEM_SEQUENCIA = new Sequencia(0, null, null);
+
+    @Autowired private ResumoMensalRepository resumoMensalRepository;
+
+    public VisaoVidaDTO carregar(Usuario usuario) {
+        List<Object[]> linhas = resumoMensalRepository.agregarVisaoVida(usuario.getId());
+
+        // Meses já vêm em ordem (ORDER BY mes); os outros grupos ficam com mes nulo
+        List<EvolucaoDiariaDTO> meses = new ArrayList<>();
+        TreeMap<LocalDate, Integer> diasPorMes = new TreeMap<>();
+        List<Fatia> porMateria = new ArrayList<>();
+        List<Fatia> porConcurso = new ArrayList<>();
+        long segundos = 0, questoes = 0, acertos = 0, sessoes = 0;
+
+        for (Object[] linha : linhas) {
+            int grupo = (int) numero(linha[0]);
+            switch (grupo) {
+                case POR_MES -> {
+                    LocalDate mes = data(linha[1]);
+                    meses.add(new EvolucaoDiariaDTO(mes, numero(linha[6])));
+                    diasPorMes.put(mes, (int) numero(linha[10]));
+                }
+                case POR_MATERIA -> porMateria.add(fatia(id(linha[2]), (String) linha[3], linha));
+                case POR_CONCURSO -> porConcurso.add(fatia(id(linha[4]),
+                        linha[4] != null ? (String) linha[5] : "Sem concurso", linha));
+                default -> {
+                    segundos = numero(linha[6]);
+                    questoes = numero(linha[7]);
+                    acertos = numero(linha[8]);
+                    sessoes = numero(linha[9]);
+                }
+            }
+        }
+
+        Comparator<Fatia> maisHoras = Comparator.comparing(Fatia::horas).reversed();
+        porMateria.sort(maisHoras);
+        porConcurso.sort(maisHoras);
+
+        LocalDate hoje = LocalDate.now();
+        Sequencia[] sequencias = calcularSequencias(diasPorMes, hoje);
+        int diasEstudados = diasPorMes.values().stream().mapToInt(Integer::bitCount).sum();
+
+        return new VisaoVidaDTO(
+            horas(segundos), questoes, taxa(questoes, acertos), sessoes, diasEstudados,
+            meses.isEmpty() ? List.of() : SerieEvolucao.montar(meses, meses.get(0).data(), hoje, Granularidade.MES),
+            porConcurso, porMateria,
+            sequencias[0], sequencias[1]
+        );
+    }
+
+    // [melhor, atual]. A atual só conta se terminou hoje ou ontem (hoje ainda pode ser estudado)
+    static Sequencia[] calcularSequencias(NavigableMap<LocalDate, Integer> diasPorMes, LocalDate hoje) {
+        if (diasPorMes.isEmpty()) return new Sequencia[]{SEM_SEQUENCIA, SEM_SEQUENCIA};
+
+        int melhor = 0, corrente = 0;
+        LocalDate melhorInicio = null, melhorFim = null, correnteInicio = null, ultimoDia = null;
+
+        // Meses sem linha são meses sem estudo: percorrer os bits em ordem já quebra a sequência neles
+        for (Map.Entry<LocalDate, Integer> mes : diasPorMes.entrySet()) {
+            int mascara = mes.getValue();
+            while (mascara != 0) {
+                int bit = Integer.numberOfTrailingZeros(mascara);
+                mascara &= mascara - 1;
+                LocalDate dia = mes.getKey().plusDays(bit);
+
+                if (ultimoDia != null && ultimoDia.plusDays(1).equals(dia)) {
+                    corrente++;
+                } else {
+                    corrente = 1;
+                    correnteInicio = dia;
+                }
+                ultimoDia = dia;
+                if (corrente > melhor) {
+                    melhor = corrente;
+                    melhorInicio = correnteInicio;
+                    melhorFim = dia;
+                }
+            }
+        }
+
+        Sequencia atual = ultimoDia != null && !ultimoDia.isBefore(hoje.minusDays(1))
+                ? new Sequencia(corrente, correnteInicio, ultimoDia)
+                : SEM_SEQUENCIA;
+        return new Sequencia[]{new Sequencia(melhor, melhorInicio, melhorFim), atual};
+    }
+
+    private static Fatia fatia(Long id, String nome, Object[] linha) {
+        long questoes = numero(linha[7]);
+        return new Fatia(id, nome, horas(numero(linha[6])), questoes, taxa(questoes, numero(linha[8])));
+    }
+
+    private static double horas(long segundos) {
+        return Math.round((segundos / 3600.0) * 100.0) / 100.0;
+    }
+
+    private static double taxa(long questoes, long acertos) {
+        return questoes > 0 ? Math.round(((double) acertos / questoes * 100.0) * 10.0) / 10.0 : 0.0;
+    }
+
+    private static Long id(Object valor) {
+        return valor != null ? ((Number) valor).longValue() : null;
+    }
+
+    private static long numero(Object valor) {
+        return valor != null ? ((Number) valor).longValue() : 0L;
+    }
+
+    private static LocalDate data(Object valor) {
+        return valor instanceof java.sql.Date d ? d.toLocalDate() : (LocalDate) valor;
+    }
+}
@@ -0,0 +1,34 @@
+-- Consolidado diário dos registros de estudo (usado pelo Dashboard no lugar de varrer registros_estudo)
+CREATE TABLE resumos_diarios (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    dia DATE NOT NULL,
+    materia_id BIGINT NOT NULL,
+    topico_id BIGINT,
+    concurso_id BIGINT,
+    tipo_estudo_id BIGINT,
+    segundos BIGINT NOT NULL DEFAULT 0,
+    questoes_feitas BIGINT NOT NULL DEFAULT 0,
+    questoes_certas BIGINT NOT NULL DEFAULT 0,
+    sessoes INTEGER NOT NULL DEFAULT 0,
+
+    CONSTRAINT fk_resumo_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE CASCADE,
+    CONSTRAINT fk_resumo_materia FOREIGN KEY (materia_id) REFERENCES materias(id) ON DELETE CASCADE,
+    CONSTRAINT fk_resumo_topico FOREIGN KEY (topico_id) REFERENCES topicos(id) ON DELETE CASCADE,
+    CONSTRAINT fk_resumo_concurso FOREIGN KEY (concurso_id) REFERENCES concursos(id) ON DELETE CASCADE,
+    CONSTRAINT fk_resumo_tipo FOREIGN KEY (tipo_estudo_id) REFERENCES tipos_estudo(id) ON DELETE CASCADE
+);
+
+-- Chave única da combinação (os nulos viram 0 para o ON CONFLICT funcionar)
+CREATE UNIQUE INDEX uk_resumo_diario ON resumos_diarios (
+    usuario_id, dia, materia_id,
+    (COALESCE(topico_id, 0)), (COALESCE(concurso_id, 0)), (COALESCE(tipo_estudo_id, 0))
+);
+
+-- Carga inicial a partir do histórico existente
+INSERT INTO resumos_diarios (usuario_id, dia, materia_id, topico_id, concurso_id, tipo_estudo_id,
+                             segundos, questoes_feitas, questoes_certas, sessoes)
+SELECT usuario_id, CAST(data_inicio AS DATE), materia_id, topico_id, concurso_id, tipo_estudo_id,
+       SUM(segundos), SUM(COALESCE(questoes_feitas, 0)), SUM(COALESCE(questoes_certas, 0)), COUNT(*)
+FROM registros_estudo
+GROUP BY usuario_id, CAST(data_inicio AS DATE), materia_id, topico_id, concurso_id, tipo_estudo_id;
@@ -0,0 +1,13 @@
+-- Segundos que contam para o ciclo (registros com contar_horas_no_ciclo = true)
+ALTER TABLE resumos_diarios ADD COLUMN segundos_ciclo BIGINT NOT NULL DEFAULT 0;
+
+-- Recarrega o consolidado já com a coluna nova
+DELETE FROM resumos_diarios;
+
+INSERT INTO resumos_diarios (usuario_id, dia, materia_id, topico_id, concurso_id, tipo_estudo_id,
+                             segundos, segundos_ciclo, questoes_feitas, questoes_certas, sessoes)
+SELECT usuario_id, CAST(data_inicio AS DATE), materia_id, topico_id, concurso_id, tipo_estudo_id,
+       SUM(segundos), SUM(CASE WHEN contar_horas_no_ciclo THEN segundos ELSE 0 END),
+       SUM(COALESCE(questoes_feitas, 0)), SUM(COALESCE(questoes_certas, 0)), COUNT(*)
+FROM registros_estudo
+GROUP BY usuario_id, CAST(data_inicio AS DATE), materia_id, topico_id, concurso_id, tipo_estudo_id;
@@ -0,0 +1,19 @@
+-- Progresso realizado por item do ciclo, mantido a cada registro (o Dashboard lê direto, sem somar registros_estudo)
+ALTER TABLE itens_ciclo ADD COLUMN segundos_realizados BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE itens_ciclo ADD COLUMN questoes_realizadas BIGINT NOT NULL DEFAULT 0;
+
+-- Carga inicial dos ciclos ativos, com o mesmo critério do Dashboard (todos os registros do concurso)
+UPDATE itens_ciclo i
+SET segundos_realizados = t.segundos,
+    questoes_realizadas = t.questoes
+FROM ciclos c,
+     (SELECT concurso_id, materia_id,
+             SUM(CASE WHEN contar_horas_no_ciclo THEN segundos ELSE 0 END) AS segundos,
+             SUM(COALESCE(questoes_feitas, 0)) AS questoes
+      FROM registros_estudo
+      WHERE concurso_id IS NOT NULL
+      GROUP BY concurso_id, materia_id) t
+WHERE i.ciclo_id = c.id
+  AND c.ativo = true
+  AND t.concurso_id = c.concurso_id
+  AND t.materia_id = i.materia_id;
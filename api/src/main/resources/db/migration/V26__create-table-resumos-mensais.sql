@@ -0,0 +1,29 @@
+-- Consolidado mensal (Visão de Vida): derivado de resumos_diarios, um mês por vez.
+-- dias_estudados = bitmask dos dias do mês com estudo (bit 0 = dia 1) para calcular sequências sem ler dia a dia
+CREATE TABLE resumos_mensais (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    mes DATE NOT NULL,
+    materia_id BIGINT NOT NULL,
+    concurso_id BIGINT,
+    segundos BIGINT NOT NULL DEFAULT 0,
+    questoes_feitas BIGINT NOT NULL DEFAULT 0,
+    questoes_certas BIGINT NOT NULL DEFAULT 0,
+    sessoes INTEGER NOT NULL DEFAULT 0,
+    dias_estudados INTEGER NOT NULL DEFAULT 0,
+
+    CONSTRAINT fk_resumo_mensal_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE CASCADE,
+    CONSTRAINT fk_resumo_mensal_materia FOREIGN KEY (materia_id) REFERENCES materias(id) ON DELETE CASCADE,
+    CONSTRAINT fk_resumo_mensal_concurso FOREIGN KEY (concurso_id) REFERENCES concursos(id) ON DELETE CASCADE
+);
+
+CREATE UNIQUE INDEX uk_resumo_mensal ON resumos_mensais (usuario_id, mes, materia_id, (COALESCE(concurso_id, 0)));
+
+-- Carga inicial a partir do consolidado diário
+INSERT INTO resumos_mensais (usuario_id, mes, materia_id, concurso_id,
+                             segundos, questoes_feitas, questoes_certas, sessoes, dias_estudados)
+SELECT usuario_id, CAST(date_trunc('month', dia) AS DATE), materia_id, concurso_id,
+       SUM(segundos), SUM(questoes_feitas), SUM(questoes_certas), SUM(sessoes),
+       bit_or(1 << (EXTRACT(DAY FROM dia)::INT - 1))
+FROM resumos_diarios
+GROUP BY usuario_id, CAST(date_trunc('month', dia) AS DATE), materia_id, concurso_id;
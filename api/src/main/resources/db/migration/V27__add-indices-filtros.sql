@@ -0,0 +1,17 @@
+-- Listagem do histórico e somas por período: sempre filtradas por usuário e intervalo de datas.
+-- O id no fim deixa a ordenação "mais recentes primeiro" (data_inicio DESC, id DESC) sair direto do índice.
+CREATE INDEX idx_registros_usuario_data ON registros_estudo (usuario_id, data_inicio, id);
+
+-- Somas por concurso/matéria (ciclo) e verificações de uso antes de excluir matéria/tópico/tipo
+CREATE INDEX idx_registros_concurso_materia ON registros_estudo (concurso_id, materia_id);
+CREATE INDEX idx_registros_materia ON registros_estudo (materia_id);
+CREATE INDEX idx_registros_topico ON registros_estudo (topico_id) WHERE topico_id IS NOT NULL;
+CREATE INDEX idx_registros_tipo_estudo ON registros_estudo (tipo_estudo_id) WHERE tipo_estudo_id IS NOT NULL;
+
+-- Ciclo ativo por concurso e itens por ciclo
+CREATE INDEX idx_ciclos_concurso ON ciclos (concurso_id);
+CREATE INDEX idx_itens_ciclo_ciclo ON itens_ciclo (ciclo_id);
+
+-- Cadastros sempre lidos por usuário
+CREATE INDEX idx_concursos_usuario ON concursos (usuario_id);
+CREATE INDEX idx_materias_usuario ON materias (usuario_id);
@@ -0,0 +1,3 @@
+-- Progresso do histórico de ciclos: registros do usuário por matéria dentro da janela de cada ciclo
+CREATE INDEX idx_registros_usuario_materia_data ON registros_estudo (usuario_id, materia_id, data_inicio)
+    WHERE contar_horas_no_ciclo = true;
@@ -0,0 +1,38 @@
+-- Progresso congelado dos ciclos encerrados (o histórico lê daqui em vez de somar registros_estudo)
+-- NULL = ciclo ainda sem snapshot (ativo, ou encerrado sem data_fim): o progresso é calculado na hora
+ALTER TABLE ciclos ADD COLUMN progresso_final DOUBLE PRECISION;
+ALTER TABLE ciclos ADD COLUMN progresso_congelado_em TIMESTAMP;
+
+ALTER TABLE itens_ciclo ADD COLUMN segundos_congelados BIGINT;
+ALTER TABLE itens_ciclo ADD COLUMN questoes_congeladas BIGINT;
+ALTER TABLE itens_ciclo ADD COLUMN percentual_horas_congelado DOUBLE PRECISION;
+ALTER TABLE itens_ciclo ADD COLUMN percentual_questoes_congelado DOUBLE PRECISION;
+
+-- Carga inicial dos ciclos já encerrados, com o mesmo critério do histórico
+-- (registros da matéria na janela do ciclo; horas só dos que contam no ciclo; cada item limitado a 100%)
+UPDATE itens_ciclo i
+SET segundos_congelados = t.segundos,
+    questoes_congeladas = t.questoes,
+    percentual_horas_congelado = CASE WHEN i.horas_meta > 0
+        THEN LEAST(t.segundos / (i.horas_meta * 3600) * 100, 100) ELSE 0 END,
+    percentual_questoes_congelado = CASE WHEN i.questoes_meta > 0
+        THEN LEAST(t.questoes * 100.0 / i.questoes_meta, 100) ELSE 0 END
+FROM (SELECT it.id,
+             COALESCE(SUM(CASE WHEN r.contar_horas_no_ciclo THEN r.segundos ELSE 0 END), 0) AS segundos,
+             COALESCE(SUM(r.questoes_feitas), 0) AS questoes
+      FROM ciclos c
+      JOIN concursos co ON co.id = c.concurso_id
+      JOIN itens_ciclo it ON it.ciclo_id = c.id
+      LEFT JOIN registros_estudo r
+             ON r.usuario_id = co.usuario_id
+            AND r.materia_id = it.materia_id
+            AND r.data_inicio BETWEEN c.data_inicio AND c.data_fim
+      WHERE c.ativo = false AND c.data_fim IS NOT NULL
+      GROUP BY it.id) t
+WHERE i.id = t.id;
+
+UPDATE ciclos c
+SET progresso_final = COALESCE((SELECT ROUND(CAST(AVG(i.percentual_horas_congelado) AS NUMERIC), 1)
+                                FROM itens_ciclo i WHERE i.ciclo_id = c.id), 0),
+    progresso_congelado_em = NOW()
+WHERE c.ativo = false AND c.data_fim IS NOT NULL;
@@ -0,0 +1,23 @@
+-- Dono do ciclo direto na tabela: a busca do ciclo ativo deixa de passar por concursos
+ALTER TABLE ciclos ADD COLUMN usuario_id BIGINT;
+
+UPDATE ciclos c
+SET usuario_id = co.usuario_id
+FROM concursos co
+WHERE co.id = c.concurso_id;
+
+ALTER TABLE ciclos ALTER COLUMN usuario_id SET NOT NULL;
+ALTER TABLE ciclos ADD CONSTRAINT fk_ciclo_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE CASCADE;
+
+-- Se algum usuário ficou com mais de um ciclo ativo, mantém só o mais recente
+UPDATE ciclos c
+SET ativo = false,
+    data_fim = COALESCE(c.data_fim, NOW())
+WHERE c.ativo = true
+  AND EXISTS (SELECT 1 FROM ciclos o
+              WHERE o.usuario_id = c.usuario_id
+                AND o.ativo = true
+                AND (o.data_inicio, o.id) > (c.data_inicio, c.id));
+
+-- Um ciclo ativo por usuário (e a busca do ativo vira uma sondagem no índice)
+CREATE UNIQUE INDEX uk_ciclo_ativo_usuario ON ciclos (usuario_id) WHERE ativo = true;
@@ -0,0 +1,21 @@
+-- Rodízio do ciclo: posição densa (0..n-1) de cada item na ordem do ciclo + ponteiro do item da vez no ciclo
+ALTER TABLE itens_ciclo ADD COLUMN posicao INTEGER;
+
+ALTER TABLE ciclos ADD COLUMN total_itens INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE ciclos ADD COLUMN posicao_atual INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE ciclos ADD COLUMN segundos_na_posicao BIGINT NOT NULL DEFAULT 0;
+
+-- Carga inicial: posição pela ordem (itens sem ordem vão para o fim), rodízio começando no primeiro item
+UPDATE itens_ciclo i
+SET posicao = t.posicao
+FROM (SELECT id, CAST(ROW_NUMBER() OVER (PARTITION BY ciclo_id ORDER BY ordem NULLS LAST, id) - 1 AS INTEGER) AS posicao
+      FROM itens_ciclo) t
+WHERE i.id = t.id;
+
+UPDATE ciclos c
+SET total_itens = (SELECT COUNT(*) FROM itens_ciclo i WHERE i.ciclo_id = c.id);
+
+ALTER TABLE itens_ciclo ALTER COLUMN posicao SET NOT NULL;
+
+-- Item da vez = (ciclo_id, posicao_atual): uma sondagem no índice
+CREATE UNIQUE INDEX uk_item_ciclo_posicao ON itens_ciclo (ciclo_id, posicao);
@@ -0,0 +1,8 @@
+-- Voltas do ciclo: cada volta fechada grava o cumprido de cada item em ciclo_historico (descontos)
+ALTER TABLE ciclos ADD COLUMN voltas_concluidas INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE ciclo_historico ADD COLUMN volta INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE ciclo_historico ADD COLUMN data_fechamento TIMESTAMP NOT NULL DEFAULT NOW();
+
+-- Descontos por concurso (ciclos.concurso_id já tem índice)
+CREATE INDEX idx_ciclo_historico_ciclo ON ciclo_historico (ciclo_id);
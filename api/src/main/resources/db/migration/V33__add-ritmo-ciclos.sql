@@ -0,0 +1,8 @@
+-- Situação de ritmo do ciclo ativo frente à data da prova (gravada pelo job de avaliação em lote)
+ALTER TABLE ciclos ADD COLUMN situacao_ritmo VARCHAR(20);
+ALTER TABLE ciclos ADD COLUMN itens_atrasados INTEGER;
+ALTER TABLE ciclos ADD COLUMN horas_diarias_necessarias DOUBLE PRECISION;
+ALTER TABLE ciclos ADD COLUMN ritmo_avaliado_em TIMESTAMP;
+
+-- Varredura por keyset (id > ultimo) só nos ativos
+CREATE INDEX idx_ciclos_ativos_id ON ciclos (id) WHERE ativo = true;
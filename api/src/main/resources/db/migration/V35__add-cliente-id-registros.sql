@@ -0,0 +1,5 @@
+-- Sessões sincronizadas pelo cronômetro offline: o UUID gerado no aparelho torna o reenvio idempotente.
+-- Único por usuário e só quando informado (registros do formulário e importados ficam sem).
+ALTER TABLE registros_estudo ADD COLUMN cliente_id UUID;
+
+CREATE UNIQUE INDEX uk_registros_cliente ON registros_estudo (usuario_id, cliente_id) WHERE cliente_id IS NOT NULL;
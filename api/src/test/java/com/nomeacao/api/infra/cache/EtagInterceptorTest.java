@@ -0,0 +1,129 @@
+package com.nomeacao.api.infra.cache;
+
+import com.nomeacao.api.model.Usuario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class EtagInterceptorTest {
+
+    @InjectMocks
+    private EtagInterceptor interceptor;
+
+    @Spy
+    private VersoesDados versoesDados = new VersoesDados(100, Duration.ofMinutes(30));
+
+    private HandlerMethod handler;
+
+    // Controller de mentira só para carregar a anotação
+    static class ControllerFake {
+        @Versionado({Agregado.MATERIAS, Agregado.TOPICOS})
+        public List<String> listar() { return List.of(); }
+
+        public List<String> semVersao() { return List.of(); }
+    }
+
+    @BeforeEach
+    void autenticar() throws Exception {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(usuario, null, List.of()));
+        handler = new HandlerMethod(new ControllerFake(), ControllerFake.class.getMethod("listar"));
+    }
+
+    @AfterEach
+    void limpar() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("ETAG: Deve responder 304 sem chegar no controller quando a versão não mudou")
+    void preHandle_naoModificado() {
+        var primeira = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(get("/materias"), primeira, handler));
+        String etag = primeira.getHeader("ETag");
+        assertNotNull(etag);
+
+        var request = get("/materias");
+        request.addHeader("If-None-Match", etag);
+        var segunda = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, segunda, handler));
+        assertEquals(304, segunda.getStatus());
+        assertEquals(etag, segunda.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("ETAG: Escrita em agregado do endpoint deve gerar nova versão; em outro agregado, não")
+    void preHandle_versaoPorAgregado() {
+        var resposta = new MockHttpServletResponse();
+        interceptor.preHandle(get("/materias"), resposta, handler);
+        String etag = resposta.getHeader("ETag");
+
+        versoesDados.aoAlterarDados(new DadosUsuarioAlteradosEvent(1L, Agregado.REGISTROS));
+        var request = get("/materias");
+        request.addHeader("If-None-Match", etag);
+        assertFalse(interceptor.preHandle(request, new MockHttpServletResponse(), handler));
+
+        versoesDados.aoAlterarDados(new DadosUsuarioAlteradosEvent(1L, Agregado.TOPICOS));
+        var depoisDaEscrita = new MockHttpServletResponse();
+        request = get("/materias");
+        request.addHeader("If-None-Match", etag);
+
+        assertTrue(interceptor.preHandle(request, depoisDaEscrita, handler));
+        assertNotEquals(etag, depoisDaEscrita.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("ETAG: Query string diferente e outro usuário devem ter ETags diferentes")
+    void preHandle_etagPorRecursoEUsuario() {
+        var respostaA = new MockHttpServletResponse();
+        interceptor.preHandle(get("/topicos/1"), respostaA, handler);
+        var respostaB = new MockHttpServletResponse();
+        interceptor.preHandle(get("/topicos/2"), respostaB, handler);
+        assertNotEquals(respostaA.getHeader("ETag"), respostaB.getHeader("ETag"));
+
+        Usuario outro = new Usuario(); outro.setId(2L);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(outro, null, List.of()));
+        var respostaOutro = new MockHttpServletResponse();
+        interceptor.preHandle(get("/topicos/1"), respostaOutro, handler);
+        assertNotEquals(respostaA.getHeader("ETag"), respostaOutro.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("ETAG: Versão igual em outra instância (ou depois de um restart) não deve bater")
+    void assinatura_unicaPorInstancia() {
+        var outraInstancia = new VersoesDados(100, Duration.ofMinutes(30));
+
+        assertNotEquals(versoesDados.assinatura(1L, Agregado.MATERIAS), outraInstancia.assinatura(1L, Agregado.MATERIAS));
+    }
+
+    @Test
+    @DisplayName("ETAG: Métodos sem @Versionado passam direto, sem ETag")
+    void preHandle_semAnotacao() throws Exception {
+        var semVersao = new HandlerMethod(new ControllerFake(), ControllerFake.class.getMethod("semVersao"));
+        var resposta = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(get("/registros"), resposta, semVersao));
+        assertNull(resposta.getHeader("ETag"));
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
@@ -0,0 +1,82 @@
+package com.nomeacao.api.repository;
+
+import com.nomeacao.api.dto.BurnUpCicloDTO;
+import com.nomeacao.api.service.BurnUpCicloService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Burn-up x snapshot no banco de verdade (calcularBurnUp e congelarProgresso são SQL nativo).
+// Fora do build padrão (precisa do Postgres configurado): mvn test -Dtestes.banco=true
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "testes.banco", matches = "true")
+class BurnUpSnapshotTest {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private CicloRepository cicloRepository;
+    @Autowired private ResumoDiarioRepository resumoDiarioRepository;
+    @Autowired private UsuarioRepository usuarioRepository;
+    @Autowired private BurnUpCicloService burnUpCicloService;
+
+    private long inserir(String sql, Object... parametros) {
+        return jdbcTemplate.queryForObject(sql + " RETURNING id", Long.class, parametros);
+    }
+
+    private void registrar(long usuarioId, long materiaId, Long concursoId, String data, int segundos, boolean contar) {
+        jdbcTemplate.update("""
+            INSERT INTO registros_estudo (data_inicio, segundos, questoes_feitas, questoes_certas,
+                                          contar_horas_no_ciclo, usuario_id, materia_id, concurso_id)
+            VALUES (CAST(? AS TIMESTAMP), ?, 0, 0, ?, ?, ?, ?)
+        """, data, segundos, contar, usuarioId, materiaId, concursoId);
+    }
+
+    @Test
+    @DisplayName("BURN-UP: Ciclo que abre e fecha no meio do dia termina no progresso_final do snapshot")
+    void ultimoPonto_igualAoSnapshot() {
+        long usuarioId = inserir("INSERT INTO usuarios (nome, email, senha, ativo) VALUES ('Burn', 'burnup@teste.local', 'x', true)");
+        long direito = inserir("INSERT INTO materias (nome, usuario_id) VALUES ('Direito', ?)", usuarioId);
+        long portugues = inserir("INSERT INTO materias (nome, usuario_id) VALUES ('Português', ?)", usuarioId);
+        long concurso = inserir("INSERT INTO concursos (nome, usuario_id) VALUES ('TRF', ?)", usuarioId);
+        long cicloId = inserir("""
+            INSERT INTO ciclos (data_inicio, data_fim, ativo, concurso_id, usuario_id, total_itens)
+            VALUES (TIMESTAMP '2026-03-01 14:00', TIMESTAMP '2026-03-04 10:00', false, ?, ?, 3)
+        """, concurso, usuarioId);
+        // Direito aparece duas vezes no rodízio
+        jdbcTemplate.update("""
+            INSERT INTO itens_ciclo (ciclo_id, materia_id, horas_meta, ordem, posicao)
+            VALUES (?, ?, 3, 1, 0), (?, ?, 4, 2, 1), (?, ?, 2, 3, 2)
+        """, cicloId, direito, cicloId, portugues, cicloId, direito);
+
+        registrar(usuarioId, direito, concurso, "2026-03-01 09:00", 7200, true);  // antes da abertura, mesmo dia
+        registrar(usuarioId, direito, concurso, "2026-03-01 15:00", 3600, true);
+        registrar(usuarioId, direito, null, "2026-03-02 08:00", 5400, true);      // sem concurso também conta
+        registrar(usuarioId, portugues, concurso, "2026-03-03 20:00", 3600, true);
+        registrar(usuarioId, portugues, concurso, "2026-03-03 21:00", 1800, false); // fora do ciclo pela flag
+        registrar(usuarioId, portugues, concurso, "2026-03-04 09:30", 1800, true);
+        registrar(usuarioId, direito, concurso, "2026-03-04 11:00", 9000, true);  // depois do encerramento
+        resumoDiarioRepository.reconstruirPorUsuario(usuarioId);
+        cicloRepository.congelarProgresso(cicloId, LocalDateTime.now());
+
+        BurnUpCicloDTO burnUp = burnUpCicloService.carregar(cicloId, usuarioRepository.findById(usuarioId).orElseThrow());
+
+        Double progressoFinal = jdbcTemplate.queryForObject(
+                "SELECT progresso_final FROM ciclos WHERE id = ?", Double.class, cicloId);
+        Long congelados = jdbcTemplate.queryForObject("""
+            SELECT SUM(segundos) FROM (SELECT MAX(segundos_congelados) AS segundos
+                                       FROM itens_ciclo WHERE ciclo_id = ? GROUP BY materia_id) m
+        """, Long.class, cicloId);
+
+        assertEquals(progressoFinal, burnUp.progresso());
+        assertEquals(congelados, burnUp.total().get(burnUp.total().size() - 1));
+        assertEquals(3600L + 5400L + 3600L + 1800L, congelados);
+    }
+}
@@ -0,0 +1,106 @@
+package com.nomeacao.api.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Roda no banco de verdade: massa de dados dentro da transação do teste (desfeita no final) + ANALYZE.
+// Fora do build padrão (precisa do Postgres configurado): mvn test -Dtestes.banco=true
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "testes.banco", matches = "true")
+class FiltroSqlExplainTest {
+
+    private static final int USUARIOS = 200;
+    private static final int REGISTROS = 100_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long usuarioId;
+    private Long materiaId;
+
+    // Só o teste de plano precisa da massa (alguns segundos)
+    private void popularBanco() {
+        jdbcTemplate.update("""
+            INSERT INTO usuarios (nome, email, senha, ativo)
+            SELECT 'Explain ' || g, 'explain-' || g || '@teste.local', 'x', true FROM generate_series(1, ?) g
+        """, USUARIOS);
+        jdbcTemplate.update("""
+            INSERT INTO materias (nome, usuario_id)
+            SELECT 'Materia ' || m, u.id FROM usuarios u, generate_series(1, 5) m
+            WHERE u.email LIKE 'explain-%@teste.local'
+        """);
+        jdbcTemplate.update("""
+            WITH mats AS (
+                SELECT row_number() OVER (ORDER BY m.id) - 1 AS n, m.id, m.usuario_id
+                FROM materias m JOIN usuarios u ON u.id = m.usuario_id
+                WHERE u.email LIKE 'explain-%@teste.local'
+            )
+            INSERT INTO registros_estudo (data_inicio, segundos, questoes_feitas, questoes_certas, usuario_id, materia_id)
+            SELECT TIMESTAMP '2020-01-01' + (g * INTERVAL '37 minutes'), 3600, 10, 7, mats.usuario_id, mats.id
+            FROM generate_series(1, ?) g
+            JOIN mats ON mats.n = g % ?
+        """, REGISTROS, USUARIOS * 5);
+        jdbcTemplate.execute("ANALYZE registros_estudo");
+
+        usuarioId = jdbcTemplate.queryForObject(
+                "SELECT id FROM usuarios WHERE email = 'explain-7@teste.local'", Long.class);
+        materiaId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM materias WHERE usuario_id = ?", Long.class, usuarioId);
+    }
+
+    // --- TESTES DE PLANO (EXPLAIN) ---
+
+    @Test
+    @DisplayName("EXPLAIN: Nenhuma combinação de filtros do histórico pode varrer registros_estudo inteira")
+    void explain_semSeqScan() {
+        popularBanco();
+        LocalDateTime inicio = LocalDateTime.of(2020, 2, 1, 0, 0);
+        LocalDateTime fim = LocalDateTime.of(2020, 3, 1, 0, 0);
+
+        // Só o usuário, período, matéria OU tópico, concurso e tipo
+        verificarSemSeqScan(RegistroEstudoRepositoryImpl.filtrar(usuarioId, null, null, null, null, null, null));
+        verificarSemSeqScan(RegistroEstudoRepositoryImpl.filtrar(usuarioId, inicio, fim, null, null, null, null));
+        verificarSemSeqScan(RegistroEstudoRepositoryImpl.filtrar(usuarioId, null, null,
+                List.of(materiaId), List.of(999_999L), List.of(999_998L), null));
+        verificarSemSeqScan(RegistroEstudoRepositoryImpl.filtrar(usuarioId, inicio, null,
+                List.of(materiaId), null, null, List.of(1L, 2L)));
+    }
+
+    private void verificarSemSeqScan(FiltroSql filtro) {
+        Pageable pagina = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "dataInicio"));
+
+        Object[] parametros = filtro.parametros();
+        Object[] comPagina = java.util.Arrays.copyOf(parametros, parametros.length + 2);
+        comPagina[parametros.length] = 20;
+        comPagina[parametros.length + 1] = 0L;
+
+        assertSemSeqScan(RegistroEstudoRepositoryImpl.sqlIds(filtro, pagina), comPagina);
+        assertSemSeqScan(RegistroEstudoRepositoryImpl.sqlContagem(filtro), parametros);
+
+        // Página funda pelo cursor: mesmo filtro + tupla, sem OFFSET
+        filtro.antesDe("r.data_inicio", "r.id", LocalDateTime.of(2020, 2, 15, 0, 0), Long.MAX_VALUE);
+        Object[] comCursor = filtro.parametros();
+        Object[] comLimite = java.util.Arrays.copyOf(comCursor, comCursor.length + 1);
+        comLimite[comCursor.length] = 21;
+        assertSemSeqScan(RegistroEstudoRepositoryImpl.sqlCursor(filtro), comLimite);
+    }
+
+    private void assertSemSeqScan(String sql, Object[] parametros) {
+        String plano = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parametros));
+        assertFalse(plano.contains("Seq Scan on registros_estudo"), () -> "Seq scan em:\n" + sql + "\n" + plano);
+    }
+}
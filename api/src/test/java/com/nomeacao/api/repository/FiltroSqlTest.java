@@ -0,0 +1,54 @@
+package com.nomeacao.api.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Só o texto/parâmetros gerados; o plano de execução fica no FiltroSqlExplainTest (precisa de banco)
+class FiltroSqlTest {
+
+    // --- TESTES DO SQL GERADO ---
+
+    @Test
+    @DisplayName("FILTRO: Só os filtros usados entram no WHERE, listas como um único array")
+    void filtro_somenteCondicoesUsadas() {
+        FiltroSql filtro = RegistroEstudoRepositoryImpl.filtrar(1L, null, null, List.of(), null, List.of(3L, 4L, 3L), null);
+
+        assertEquals(" WHERE r.usuario_id = ? AND r.concurso_id = ANY(?::bigint[])", filtro.where());
+        assertArrayEquals(new Long[]{3L, 4L}, (Long[]) filtro.parametros()[1]);
+
+        // Tamanho da lista não muda o texto da consulta
+        assertEquals(filtro.where(),
+                RegistroEstudoRepositoryImpl.filtrar(1L, null, null, null, null, List.of(9L), null).where());
+    }
+
+    @Test
+    @DisplayName("FILTRO: Cursor entra como comparação de tupla (data_inicio, id), depois dos filtros")
+    void filtro_cursorComoTupla() {
+        LocalDateTime data = LocalDateTime.of(2026, 3, 1, 8, 0);
+        FiltroSql filtro = RegistroEstudoRepositoryImpl.filtrar(1L, null, null, null, null, null, null)
+                .antesDe("r.data_inicio", "r.id", data, 50L);
+
+        assertEquals(" WHERE r.usuario_id = ? AND (r.data_inicio, r.id) < (?, ?)", filtro.where());
+        assertArrayEquals(new Object[]{1L, data, 50L}, filtro.parametros());
+    }
+
+    @Test
+    @DisplayName("LOTE: Reatribuição só põe no SQL o destino informado e a matéria quando há tópico")
+    void reatribuicao_semParametroOpcional() {
+        FiltroSql semTopico = new FiltroSql().igual("r.usuario_id", 1L).algumDe("r.id", List.of(5L, 6L)).igual("r.materia_id", null);
+        String sql = RegistroEstudoRepositoryImpl.sqlReatribuicaoLote("concurso_id = ?", semTopico);
+
+        assertTrue(sql.contains("SET concurso_id = ? FROM registros_estudo antigo WHERE r.usuario_id = ? AND r.id = ANY(?::bigint[]) AND antigo.id = r.id"));
+        assertFalse(sql.contains("IS NULL"));
+        assertFalse(sql.contains("materia_id = ?"));
+
+        FiltroSql comTopico = new FiltroSql().igual("r.usuario_id", 1L).algumDe("r.id", List.of(5L)).igual("r.materia_id", 10L);
+        assertTrue(RegistroEstudoRepositoryImpl.sqlReatribuicaoLote("topico_id = ?", comTopico).contains("AND r.materia_id = ?"));
+        assertArrayEquals(new Object[]{7L, 1L, new Long[]{5L}, 10L}, comTopico.parametros(7L));
+    }
+}
@@ -0,0 +1,85 @@
+package com.nomeacao.api.repository;
+
+import com.nomeacao.api.dto.ResumoGeralDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Dashboard x /registros com inicio/fim no meio do dia (dias inteiros do consolidado, bordas dos registros).
+// Fora do build padrão (precisa do Postgres configurado): mvn test -Dtestes.banco=true
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "testes.banco", matches = "true")
+class ResumoPeriodoTest {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ResumoDiarioRepository resumoDiarioRepository;
+    @Autowired private UsuarioRepository usuarioRepository;
+
+    private long inserir(String sql, Object... parametros) {
+        return jdbcTemplate.queryForObject(sql + " RETURNING id", Long.class, parametros);
+    }
+
+    private void registrar(long usuarioId, long materiaId, String data, int segundos, int questoes) {
+        jdbcTemplate.update("""
+            INSERT INTO registros_estudo (data_inicio, segundos, questoes_feitas, questoes_certas,
+                                          contar_horas_no_ciclo, usuario_id, materia_id)
+            VALUES (CAST(? AS TIMESTAMP), ?, ?, 0, true, ?, ?)
+        """, data, segundos, questoes, usuarioId, materiaId);
+    }
+
+    private long brutos(long usuarioId, LocalDateTime inicio, LocalDateTime fim) {
+        return jdbcTemplate.queryForObject("""
+            SELECT COALESCE(SUM(segundos), 0) FROM registros_estudo
+            WHERE usuario_id = ? AND data_inicio >= ? AND data_inicio <= ?
+        """, Long.class, usuarioId, inicio, fim);
+    }
+
+    @Test
+    @DisplayName("PERÍODO: Horário de inicio/fim conta como em /registros, sem somar o mesmo registro duas vezes")
+    void resumo_respeitaHorario() {
+        long usuarioId = inserir("INSERT INTO usuarios (nome, email, senha, ativo) VALUES ('Periodo', 'periodo@teste.local', 'x', true)");
+        long materia = inserir("INSERT INTO materias (nome, usuario_id) VALUES ('Direito', ?)", usuarioId);
+
+        registrar(usuarioId, materia, "2026-03-01 09:00", 1000, 1);  // antes do inicio
+        registrar(usuarioId, materia, "2026-03-01 19:00", 200, 2);
+        registrar(usuarioId, materia, "2026-03-02 10:00", 30, 4);    // dia inteiro
+        registrar(usuarioId, materia, "2026-03-03 08:00", 4, 8);
+        registrar(usuarioId, materia, "2026-03-03 15:00", 50000, 16); // depois do fim
+        resumoDiarioRepository.reconstruirPorUsuario(usuarioId);
+        var usuario = usuarioRepository.findById(usuarioId).orElseThrow();
+
+        record Caso(LocalDateTime inicio, LocalDateTime fim) {}
+        for (Caso caso : List.of(
+                new Caso(LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 3, 12, 0)),
+                new Caso(LocalDateTime.of(2026, 3, 1, 0, 0), LocalDateTime.of(2026, 3, 3, 23, 59, 59)),
+                new Caso(LocalDateTime.of(2026, 3, 3, 7, 0), LocalDateTime.of(2026, 3, 3, 9, 0)),  // mesmo dia
+                new Caso(LocalDateTime.of(2026, 3, 1, 18, 0), LocalDate.of(2026, 3, 3).atTime(LocalTime.MAX)))) {
+            ResumoGeralDTO resumo = resumoDiarioRepository.calcularResumoGeral(
+                    usuario, caso.inicio(), caso.fim(), null, null, null, null);
+            long agrupado = resumoDiarioRepository.agregarDashboard(
+                    usuarioId, "day", caso.inicio(), caso.fim(), null, null, null, null).stream()
+                    .filter(linha -> (int) linha[0] == 1 && (int) linha[1] == 1)
+                    .mapToLong(linha -> (long) linha[5]).sum();
+
+            assertEquals(brutos(usuarioId, caso.inicio(), caso.fim()), resumo.totalSegundos(), caso.toString());
+            assertEquals(resumo.totalSegundos(), agrupado, caso.toString());
+        }
+
+        ResumoGeralDTO meioDoPeriodo = resumoDiarioRepository.calcularResumoGeral(usuario,
+                LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 3, 12, 0), null, null, null, null);
+        assertEquals(234L, meioDoPeriodo.totalSegundos());
+        assertEquals(14L, meioDoPeriodo.totalQuestoes());
+    }
+}
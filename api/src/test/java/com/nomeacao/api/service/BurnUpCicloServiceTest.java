@@ -0,0 +1,170 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.dto.BurnUpCicloDTO;
+import com.nomeacao.api.infra.cache.BurnUpCache;
+import com.nomeacao.api.model.Ciclo;
+import com.nomeacao.api.model.Concurso;
+import com.nomeacao.api.model.Usuario;
+import com.nomeacao.api.repository.CicloRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BurnUpCicloServiceTest {
+
+    @InjectMocks
+    private BurnUpCicloService service;
+
+    @Mock
+    private CicloRepository cicloRepository;
+
+    @Spy
+    private BurnUpCache burnUpCache = new BurnUpCache(100, Duration.ofHours(1), new SimpleMeterRegistry());
+
+    private static final LocalDate INICIO = LocalDate.of(2026, 3, 1);
+
+    private Ciclo criarCiclo(Usuario dono, boolean ativo) {
+        Concurso concurso = new Concurso();
+        concurso.setId(1L);
+        concurso.setUsuario(dono);
+
+        Ciclo ciclo = new Ciclo();
+        ciclo.setId(10L);
+        ciclo.setConcurso(concurso);
+        ciclo.setAtivo(ativo);
+        ciclo.setDataInicio(INICIO.atTime(8, 0));
+        if (!ativo) {
+            ciclo.setDataFim(INICIO.plusDays(2).atTime(20, 0));
+            ciclo.setProgressoCongeladoEm(ciclo.getDataFim());
+        }
+        return ciclo;
+    }
+
+    // Uma linha por item da matéria (percentual_itens = soma dos percentuais dos itens naquele acumulado)
+    private static Object[] linha(long materiaId, String nome, long meta, int dia, long acumulado, int itens) {
+        double percentual = itens * Math.min(acumulado * 100.0 / (meta / (double) itens), 100);
+        return new Object[]{materiaId, nome, meta, Date.valueOf(INICIO.plusDays(dia)), acumulado, percentual, itens};
+    }
+
+    // Três dias, duas matérias (a consulta já devolve o acumulado de cada uma); Direito tem dois itens de 3h
+    private static List<Object[]> linhasEncerrado() {
+        return List.of(
+            linha(6L, "Direito", 21600L, 0, 3600L, 2),
+            linha(6L, "Direito", 21600L, 1, 3600L, 2),
+            linha(6L, "Direito", 21600L, 2, 10800L, 2),
+            linha(7L, "Português", 14400L, 0, 0L, 1),
+            linha(7L, "Português", 14400L, 1, 1800L, 1),
+            linha(7L, "Português", 14400L, 2, 1800L, 1)
+        );
+    }
+
+    // --- TESTES DE MONTAGEM DAS SÉRIES ---
+
+    @Test
+    @DisplayName("BURN-UP: Deve separar as séries por matéria e somar o total de cada dia")
+    void carregar_montaSeries() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Ciclo ciclo = criarCiclo(usuario, false);
+
+        when(cicloRepository.findById(10L)).thenReturn(Optional.of(ciclo));
+        when(cicloRepository.calcularBurnUp(eq(10L), any())).thenReturn(linhasEncerrado());
+
+        BurnUpCicloDTO burnUp = service.carregar(10L, usuario);
+
+        assertTrue(burnUp.encerrado());
+        assertEquals(INICIO, burnUp.inicio());
+        assertEquals(INICIO.plusDays(2), burnUp.fim());
+        assertEquals(36000L, burnUp.metaSegundos());
+        assertEquals(List.of(3600L, 5400L, 12600L), burnUp.total());
+
+        assertEquals(2, burnUp.itens().size());
+        assertEquals("Direito", burnUp.itens().get(0).nomeMateria());
+        assertEquals(List.of(3600L, 3600L, 10800L), burnUp.itens().get(0).acumulado());
+        assertEquals(14400L, burnUp.itens().get(1).metaSegundos());
+        assertEquals(List.of(0L, 1800L, 1800L), burnUp.itens().get(1).acumulado());
+    }
+
+    @Test
+    @DisplayName("BURN-UP: Último ponto deve dar o mesmo progresso geral do snapshot do ciclo")
+    void carregar_progressoIgualAoSnapshot() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Ciclo ciclo = criarCiclo(usuario, false);
+        // Snapshot: itens de Direito 10800/10800 = 100% cada, Português 1800/14400 = 12,5% -> (100 + 100 + 12,5) / 3
+        ciclo.setProgressoFinal(70.8);
+
+        when(cicloRepository.findById(10L)).thenReturn(Optional.of(ciclo));
+        when(cicloRepository.calcularBurnUp(eq(10L), any())).thenReturn(linhasEncerrado());
+
+        assertEquals(ciclo.getProgressoFinal(), service.carregar(10L, usuario).progresso());
+    }
+
+    @Test
+    @DisplayName("BURN-UP: Deve recusar ciclo de outro usuário")
+    void carregar_outroUsuario() {
+        Usuario dono = new Usuario(); dono.setId(1L);
+        Usuario intruso = new Usuario(); intruso.setId(2L);
+
+        when(cicloRepository.findById(10L)).thenReturn(Optional.of(criarCiclo(dono, true)));
+
+        RuntimeException erro = assertThrows(RuntimeException.class, () -> service.carregar(10L, intruso));
+        assertEquals("Acesso negado.", erro.getMessage());
+        verify(cicloRepository, never()).calcularBurnUp(any(), any());
+    }
+
+    // --- TESTES DE CACHE ---
+
+    @Test
+    @DisplayName("BURN-UP: Ciclo encerrado deve sair do cache até o snapshot mudar")
+    void carregar_encerradoUsaCache() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Ciclo ciclo = criarCiclo(usuario, false);
+
+        when(cicloRepository.findById(10L)).thenReturn(Optional.of(ciclo));
+        when(cicloRepository.calcularBurnUp(eq(10L), any())).thenReturn(linhasEncerrado());
+
+        BurnUpCicloDTO primeiro = service.carregar(10L, usuario);
+        BurnUpCicloDTO segundo = service.carregar(10L, usuario);
+
+        assertSame(primeiro, segundo);
+        verify(cicloRepository, times(1)).calcularBurnUp(eq(10L), any());
+
+        // Registro antigo corrigido: o snapshot é refeito e a série volta a ser calculada
+        ciclo.setProgressoCongeladoEm(LocalDateTime.now());
+        service.carregar(10L, usuario);
+
+        verify(cicloRepository, times(2)).calcularBurnUp(eq(10L), any());
+    }
+
+    @Test
+    @DisplayName("BURN-UP: Ciclo ativo deve ser calculado a cada chamada")
+    void carregar_ativoNaoUsaCache() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+
+        when(cicloRepository.findById(10L)).thenReturn(Optional.of(criarCiclo(usuario, true)));
+        when(cicloRepository.calcularBurnUp(eq(10L), any())).thenReturn(List.of());
+
+        service.carregar(10L, usuario);
+        service.carregar(10L, usuario);
+
+        verify(cicloRepository, times(2)).calcularBurnUp(eq(10L), any());
+        verify(burnUpCache, never()).obter(any(), any());
+    }
+}
@@ -1,7 +1,14 @@
 package com.nomeacao.api.service;
 
+import com.nomeacao.api.dto.CicloAtivoDTO;
 import com.nomeacao.api.dto.DadosCriacaoCiclo;
+import com.nomeacao.api.dto.DadosProximoItemCiclo;
 import com.nomeacao.api.dto.DadosSugestaoCiclo;
+import com.nomeacao.api.dto.DadosSugestaoLote;
+import com.nomeacao.api.dto.ResumoHistoricoDTO;
+import com.nomeacao.api.infra.cache.ComposicaoConcursoAlteradaEvent;
+import com.nomeacao.api.infra.cache.CicloAtivoCache;
+import com.nomeacao.api.infra.cache.SugestaoCache;
 import com.nomeacao.api.model.*;
 import com.nomeacao.api.repository.*;
 import org.junit.jupiter.api.DisplayName;
@@ -9,13 +16,22 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,12 +49,24 @@ class CicloServiceTest {
     @Mock
     private ConcursoMateriaRepository concursoMateriaRepository;
 
+    @Mock
+    private CicloHistoricoRepository cicloHistoricoRepository;
+
+    @Spy
+    private CicloAtivoCache cicloAtivoCache = new CicloAtivoCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Spy
+    private SugestaoCache sugestaoCache = new SugestaoCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
     @Mock
     private MateriaRepository materiaRepository;
 
     @Mock
     private RegistroEstudoRepository registroRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     // --- TESTES DE SUGESTÃO (ALGORITMO) ---
 
     @Test
@@ -96,6 +124,69 @@ class CicloServiceTest {
         );
     }
 
+    // --- TESTES DE SUGESTÃO (CACHE E LOTE) ---
+
+    @Test
+    @DisplayName("SUGERIR: Deve reaproveitar a sugestão até a composição do concurso mudar")
+    void sugerir_deveUsarCacheAteComposicaoMudar() {
+        when(concursoMateriaRepository.findAllByConcursoId(1L)).thenReturn(composicaoSimples());
+
+        List<DadosSugestaoCiclo> primeira = cicloService.sugerir(1L, 10.0, 50);
+        List<DadosSugestaoCiclo> segunda = cicloService.sugerir(1L, 10.0, 50);
+
+        assertEquals(primeira, segunda);
+        verify(concursoMateriaRepository, times(1)).findAllByConcursoId(1L);
+
+        // Vincular/alterar/desvincular matéria publica o evento e a versão muda
+        sugestaoCache.aoAlterarComposicao(new ComposicaoConcursoAlteradaEvent(1L));
+        cicloService.sugerir(1L, 10.0, 50);
+
+        verify(concursoMateriaRepository, times(2)).findAllByConcursoId(1L);
+    }
+
+    @Test
+    @DisplayName("LOTE: Deve carregar a composição uma vez só para várias cargas horárias")
+    void sugerirEmLote_deveCarregarComposicaoUmaVez() {
+        when(concursoMateriaRepository.findAllByConcursoId(1L)).thenReturn(composicaoSimples());
+
+        List<DadosSugestaoLote> lote = cicloService.sugerirEmLote(1L, List.of(10.0, 20.0, 10.0, 5.0), 50);
+
+        assertEquals(3, lote.size()); // Repetidas são calculadas uma vez
+        assertEquals(List.of(10.0, 20.0, 5.0), lote.stream().map(DadosSugestaoLote::horas).toList());
+        assertEquals(20.0, lote.get(1).itens().stream().mapToDouble(DadosSugestaoCiclo::horasSugeridas).sum());
+        verify(concursoMateriaRepository, times(1)).findAllByConcursoId(1L);
+    }
+
+    @Test
+    @DisplayName("LOTE: Deve validar a quantidade de cargas horárias")
+    void sugerirEmLote_deveValidarQuantidade() {
+        List<Double> muitas = new ArrayList<>();
+        for (int i = 1; i <= 201; i++) muitas.add((double) i);
+
+        RuntimeException vazia = assertThrows(RuntimeException.class, () -> cicloService.sugerirEmLote(1L, List.of(), 50));
+        RuntimeException excesso = assertThrows(RuntimeException.class, () -> cicloService.sugerirEmLote(1L, muitas, 50));
+
+        assertEquals("Informe ao menos uma carga horária.", vazia.getMessage());
+        assertTrue(excesso.getMessage().contains("200"));
+        verifyNoInteractions(concursoMateriaRepository);
+    }
+
+    private List<ConcursoMateria> composicaoSimples() {
+        Materia m1 = new Materia(); m1.setId(1L); m1.setNome("Portugues");
+        Materia m2 = new Materia(); m2.setId(2L); m2.setNome("Direito");
+
+        ConcursoMateria cm1 = new ConcursoMateria();
+        cm1.setMateria(m1);
+        cm1.setPeso(1.0);
+        cm1.setQuestoesProva(10);
+
+        ConcursoMateria cm2 = new ConcursoMateria();
+        cm2.setMateria(m2);
+        cm2.setPeso(2.0);
+        cm2.setQuestoesProva(20);
+        return List.of(cm1, cm2);
+    }
+
     // --- TESTES DE GERAÇÃO DE CICLO ---
 
     @Test
@@ -129,17 +220,48 @@ class CicloServiceTest {
         // 1. Verifica se fechou o antigo
         assertFalse(cicloAntigo.getAtivo());
         assertNotNull(cicloAntigo.getDataFim());
-        verify(cicloRepository).save(cicloAntigo);
+        verify(cicloRepository).saveAndFlush(cicloAntigo); // Antes do novo: índice único de ciclo ativo
+        verify(cicloRepository).congelarProgresso(eq(55L), any());
+        verify(cicloAtivoCache).invalidar(10L);
 
         // 2. Verifica se salvou o novo
         verify(cicloRepository).save(argThat(cicloNovo -> 
             cicloNovo.getAtivo() &&
             cicloNovo.getConcurso().equals(concurso) &&
+            cicloNovo.getUsuario() == usuario &&
             cicloNovo.getItens().size() == 1 &&
             cicloNovo.getItens().get(0).getMateria().getId().equals(100L)
         ));
     }
 
+    @Test
+    @DisplayName("GERAR: Deve numerar o rodízio pela ordem dos itens")
+    void gerarCiclo_deveNumerarRodizio() {
+        Usuario usuario = new Usuario(); usuario.setId(10L);
+        Concurso concurso = new Concurso(); concurso.setId(1L); concurso.setUsuario(usuario);
+
+        DadosCriacaoCiclo dados = new DadosCriacaoCiclo(1L, "Rodízio", 6.0, 0, List.of(
+            new DadosCriacaoCiclo.DadosItemCiclo(100L, 2.0, 0, 5),
+            new DadosCriacaoCiclo.DadosItemCiclo(200L, 2.0, 0, null),  // Sem ordem: vai para o fim
+            new DadosCriacaoCiclo.DadosItemCiclo(300L, 2.0, 0, 1)
+        ));
+
+        when(concursoRepository.findById(1L)).thenReturn(Optional.of(concurso));
+        when(materiaRepository.findById(anyLong())).thenAnswer(inv -> {
+            Materia m = new Materia(); m.setId(inv.getArgument(0)); return Optional.of(m);
+        });
+
+        cicloService.gerarCiclo(dados, usuario);
+
+        verify(cicloRepository).save(argThat(ciclo -> {
+            var posicoes = ciclo.getItens().stream().map(ItemCiclo::getPosicao).toList();
+            return posicoes.equals(List.of(1, 2, 0))
+                && ciclo.getTotalItens() == 3
+                && ciclo.getPosicaoAtual() == 0
+                && ciclo.getSegundosNaPosicao() == 0L;
+        }));
+    }
+
     @Test
     @DisplayName("GERAR: Deve impedir criação para concurso de outro usuário")
     void gerarCiclo_deveImpedirAcessoIndevido() {
@@ -179,6 +301,8 @@ class CicloServiceTest {
         assertFalse(ciclo.getAtivo());
         assertNotNull(ciclo.getDataFim());
         verify(cicloRepository).save(ciclo);
+        verify(cicloRepository).congelarProgresso(eq(99L), any()); // Snapshot gravado junto com o encerramento
+        verify(cicloAtivoCache).invalidar(1L);
     }
 
     @Test
@@ -197,5 +321,227 @@ class CicloServiceTest {
         assertThrows(RuntimeException.class, () -> 
             cicloService.encerrar(99L, usuario)
         );
+        verify(cicloRepository, never()).congelarProgresso(any(), any());
+    }
+
+    @Test
+    @DisplayName("RECALCULAR: Deve refazer o snapshot só de ciclo encerrado")
+    void recalcularProgresso_soCicloEncerrado() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Concurso concurso = new Concurso(); concurso.setUsuario(usuario);
+
+        Ciclo encerrado = new Ciclo();
+        encerrado.setId(98L);
+        encerrado.setAtivo(false);
+        encerrado.setDataFim(LocalDateTime.now().minusDays(3));
+        encerrado.setConcurso(concurso);
+
+        Ciclo ativo = new Ciclo();
+        ativo.setId(99L);
+        ativo.setAtivo(true);
+        ativo.setConcurso(concurso);
+
+        when(cicloRepository.findById(98L)).thenReturn(Optional.of(encerrado));
+        when(cicloRepository.findById(99L)).thenReturn(Optional.of(ativo));
+
+        cicloService.recalcularProgresso(98L, usuario);
+
+        verify(cicloRepository).congelarProgresso(eq(98L), any());
+        assertThrows(RuntimeException.class, () -> cicloService.recalcularProgresso(99L, usuario));
+        verify(cicloRepository, never()).congelarProgresso(eq(99L), any());
+    }
+
+    // --- TESTES DE VOLTAS ---
+
+    @Test
+    @DisplayName("VOLTA: Deve gravar o cumprido como desconto e reiniciar o rodízio")
+    void fecharVolta_gravaDescontos() {
+        Ciclo ciclo = cicloComDoisItens();
+        ciclo.getItens().get(0).setSegundosRealizados(7200L + 3600L); // Uma volta já descontada + a atual
+        ciclo.getItens().get(0).setQuestoesRealizadas(10L);
+        ciclo.getItens().get(1).setSegundosRealizados(5000L);
+        ciclo.setVoltasConcluidas(1);
+        ciclo.setPosicaoAtual(1);
+        ciclo.setSegundosNaPosicao(900L);
+
+        when(cicloRepository.buscarComItens(9L)).thenReturn(Optional.of(ciclo));
+        when(cicloHistoricoRepository.descontosPorMateria(3L)).thenReturn(Map.of(100L, new ResumoHistoricoDTO(100L, 7200L, 0L)));
+
+        cicloService.fecharVolta(9L, ciclo.getConcurso().getUsuario());
+
+        verify(cicloHistoricoRepository).saveAll(argThat((List<CicloHistorico> cumprido) ->
+            cumprido.size() == 2 &&
+            cumprido.get(0).getHorasDescontadas() == 1.0 && cumprido.get(0).getQuestoesDescontadas() == 10 &&
+            cumprido.get(1).getHorasDescontadas() == 1.0 && cumprido.get(1).getQuestoesDescontadas() == 0 &&
+            cumprido.stream().allMatch(h -> h.getVolta() == 2)
+        ));
+        assertEquals(2, ciclo.getVoltasConcluidas());
+        assertEquals(0, ciclo.getPosicaoAtual());
+        assertEquals(0L, ciclo.getSegundosNaPosicao());
+        verify(eventPublisher).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("VOLTA: Deve recusar fechar com matéria abaixo da meta")
+    void fecharVolta_recusaComPendencias() {
+        Ciclo ciclo = cicloComDoisItens();
+        ciclo.getItens().get(0).setSegundosRealizados(3600L);
+        ciclo.getItens().get(0).setQuestoesRealizadas(9L);   // Faltou 1 questão
+        ciclo.getItens().get(1).setSegundosRealizados(3599L); // Faltou 1 segundo
+
+        when(cicloRepository.buscarComItens(9L)).thenReturn(Optional.of(ciclo));
+
+        RuntimeException erro = assertThrows(RuntimeException.class,
+            () -> cicloService.fecharVolta(9L, ciclo.getConcurso().getUsuario()));
+
+        assertEquals("Ainda há matérias abaixo da meta nesta volta: Portugues, Direito.", erro.getMessage());
+        verify(cicloHistoricoRepository, never()).saveAll(any());
+    }
+
+    private Ciclo cicloComDoisItens() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Concurso concurso = new Concurso(); concurso.setId(3L); concurso.setUsuario(usuario);
+
+        Ciclo ciclo = new Ciclo();
+        ciclo.setId(9L);
+        ciclo.setAtivo(true);
+        ciclo.setConcurso(concurso);
+
+        Materia m1 = new Materia(); m1.setId(100L); m1.setNome("Portugues");
+        Materia m2 = new Materia(); m2.setId(200L); m2.setNome("Direito");
+
+        ItemCiclo i1 = new ItemCiclo(); i1.setMateria(m1); i1.setHorasMeta(1.0); i1.setQuestoesMeta(10);
+        ItemCiclo i2 = new ItemCiclo(); i2.setMateria(m2); i2.setHorasMeta(1.0); i2.setQuestoesMeta(0);
+        ciclo.adicionarItem(i1);
+        ciclo.adicionarItem(i2);
+        return ciclo;
+    }
+
+    // --- TESTES DE RODÍZIO ---
+
+    @Test
+    @DisplayName("PRÓXIMO: Deve devolver o item da vez com o tempo que falta")
+    void buscarProximo_itemDaVez() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+
+        when(cicloRepository.buscarCicloAtivo(1L)).thenReturn(Optional.of(new CicloAtivoDTO(7L, 3L)));
+        when(cicloRepository.buscarItemDaVez(7L)).thenReturn(Optional.of(
+            new DadosProximoItemCiclo(7L, 70L, 100L, "Direito", 1, 3, 1.5, 1800L)
+        ));
+
+        var proximo = cicloService.buscarProximo(usuario).orElseThrow();
+
+        assertEquals("Direito", proximo.nomeMateria());
+        assertEquals(3600L, proximo.segundosRestantes()); // 1,5h - 30min
+        assertEquals(0L, new DadosProximoItemCiclo(7L, 70L, 100L, "Direito", 1, 3, 1.0, 4000L).segundosRestantes());
+    }
+
+    @Test
+    @DisplayName("PRÓXIMO: Sem ciclo ativo não deve consultar itens")
+    void buscarProximo_semCicloAtivo() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        when(cicloRepository.buscarCicloAtivo(1L)).thenReturn(Optional.empty());
+
+        assertTrue(cicloService.buscarProximo(usuario).isEmpty());
+        verify(cicloRepository, never()).buscarItemDaVez(any());
+    }
+
+    // --- TESTES DE REBALANCEAMENTO ---
+
+    @Test
+    @DisplayName("REBALANCEAR: Deve redistribuir o que falta pelo acerto e pelo déficit, sem os itens cumpridos")
+    void rebalancear_redistribuiRestante() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        when(cicloRepository.buscarCicloAtivo(1L)).thenReturn(Optional.of(new CicloAtivoDTO(10L, 1L)));
+
+        // materia_id, nome, peso, questoes_prova, horas_meta, questoes_meta, segundos, questoes, feitas, certas
+        List<Object[]> linhas = List.of(
+            new Object[]{1L, "Direito", 1.0, 10, 6.0, 0, 18000L, 0L, 100L, 90L},   // Falta 1h de 6h, acerto 90%
+            new Object[]{2L, "Portugues", 1.0, 10, 4.0, 0, 0L, 0L, 40L, 20L},      // Falta tudo, acerto 50%
+            new Object[]{3L, "Informatica", 1.0, 10, 2.0, 0, 10800L, 0L, 0L, 0L}   // Já cumprida
+        );
+        when(cicloRepository.buscarEstatisticasRebalanceamento(10L)).thenReturn(linhas);
+
+        var resultado = cicloService.rebalancear(usuario).orElseThrow();
+
+        // Restam 5h: Portugues concentra (score 15 contra ~1,8) e leva o passo do saldo pelo maior resto
+        assertEquals(3, resultado.size());
+        assertEquals("Portugues", resultado.get(0).nomeMateria());
+        assertEquals(4.5, resultado.get(0).horasSugeridas());
+        assertEquals(0.5, resultado.get(1).horasSugeridas());
+        assertEquals(0.9, resultado.get(1).taxaAcerto(), 0.001);
+        assertEquals(0.0, resultado.get(2).horasSugeridas());
+        assertNull(resultado.get(2).taxaAcerto());
+        assertEquals(5.0, resultado.stream().mapToDouble(r -> r.horasSugeridas()).sum());
+    }
+
+    @Test
+    @DisplayName("REBALANCEAR: Sem ciclo ativo não deve consultar estatísticas")
+    void rebalancear_semCicloAtivo() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        when(cicloRepository.buscarCicloAtivo(1L)).thenReturn(Optional.empty());
+
+        assertTrue(cicloService.rebalancear(usuario).isEmpty());
+        verify(cicloRepository, never()).buscarEstatisticasRebalanceamento(any());
+    }
+
+    // --- TESTES DE HISTÓRICO ---
+
+    @Test
+    @DisplayName("HISTÓRICO: Deve calcular o progresso de todos os ciclos com uma consulta só")
+    void listarHistorico_progressoEmLote() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Concurso concurso = new Concurso(); concurso.setId(10L); concurso.setNome("TRF"); concurso.setUsuario(usuario);
+
+        Ciclo atual = new Ciclo(); atual.setId(2L); atual.setConcurso(concurso); atual.setAtivo(true);
+        Ciclo antigo = new Ciclo(); antigo.setId(1L); antigo.setConcurso(concurso); antigo.setAtivo(false);
+        Ciclo vazio = new Ciclo(); vazio.setId(3L); vazio.setConcurso(concurso); vazio.setAtivo(false);
+
+        when(concursoRepository.findById(10L)).thenReturn(Optional.of(concurso));
+        when(cicloRepository.findAllByConcursoIdOrderByDataInicioDesc(10L)).thenReturn(List.of(atual, antigo, vazio));
+        // ciclo_id, horas_meta, segundos
+        when(cicloRepository.somarRealizadoPorItemDoConcurso(eq(10L), eq(1L), any())).thenReturn(List.of(
+            new Object[]{2L, 2.0, 3600L},   // 50%
+            new Object[]{2L, 1.0, 7200L},   // 200% -> limitado a 100%
+            new Object[]{1L, 4.0, 3600L},   // 25%
+            new Object[]{1L, 0.0, 3600L}    // sem meta = 0%
+        ));
+
+        var historico = cicloService.listarHistorico(10L, usuario);
+
+        assertEquals(75.0, historico.get(0).progresso());
+        assertEquals(12.5, historico.get(1).progresso());
+        assertEquals(0.0, historico.get(2).progresso()); // Ciclo sem itens
+        verifyNoInteractions(registroRepository);
+    }
+
+    @Test
+    @DisplayName("HISTÓRICO: Ciclos encerrados devem vir do snapshot congelado")
+    void listarHistorico_usaSnapshotDosEncerrados() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Concurso concurso = new Concurso(); concurso.setId(10L); concurso.setNome("TRF"); concurso.setUsuario(usuario);
+
+        Ciclo atual = new Ciclo(); atual.setId(2L); atual.setConcurso(concurso); atual.setAtivo(true);
+        Ciclo antigo = new Ciclo(); antigo.setId(1L); antigo.setConcurso(concurso); antigo.setAtivo(false);
+        antigo.setProgressoFinal(42.5);
+
+        when(concursoRepository.findById(10L)).thenReturn(Optional.of(concurso));
+        when(cicloRepository.findAllByConcursoIdOrderByDataInicioDesc(10L)).thenReturn(List.of(atual, antigo));
+        // A consulta só devolve os ciclos sem snapshot
+        when(cicloRepository.somarRealizadoPorItemDoConcurso(eq(10L), eq(1L), any())).thenReturn(List.<Object[]>of(
+            new Object[]{2L, 2.0, 3600L}
+        ));
+
+        var historico = cicloService.listarHistorico(10L, usuario);
+
+        assertEquals(50.0, historico.get(0).progresso());
+        assertEquals(42.5, historico.get(1).progresso());
+
+        // Só encerrados: nenhuma soma de registros
+        reset(cicloRepository);
+        when(cicloRepository.findAllByConcursoIdOrderByDataInicioDesc(10L)).thenReturn(List.of(antigo));
+
+        assertEquals(42.5, cicloService.listarHistorico(10L, usuario).get(0).progresso());
+        verify(cicloRepository, never()).somarRealizadoPorItemDoConcurso(any(), any(), any());
     }
-}
\ No newline at end of file
+}
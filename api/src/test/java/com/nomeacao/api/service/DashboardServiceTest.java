@@ -1,25 +1,41 @@
 package com.nomeacao.api.service;
 
+import com.nomeacao.api.dto.CicloAtivoDTO;
 import com.nomeacao.api.dto.*;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
+import com.nomeacao.api.infra.cache.CicloAtivoCache;
+import com.nomeacao.api.infra.cache.DashboardCache;
+import com.nomeacao.api.infra.concorrencia.DashboardExecutor;
+import com.nomeacao.api.infra.exception.TempoEsgotadoException;
 import com.nomeacao.api.model.*;
+import com.nomeacao.api.repository.CicloHistoricoRepository;
 import com.nomeacao.api.repository.CicloRepository;
-import com.nomeacao.api.repository.RegistroEstudoRepository;
+import com.nomeacao.api.repository.ResumoDiarioRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import java.sql.Date;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class DashboardServiceTest {
@@ -28,11 +44,31 @@ class DashboardServiceTest {
     private DashboardService service;
 
     @Mock
-    private RegistroEstudoRepository registroRepository;
+    private ResumoDiarioRepository resumoDiarioRepository;
 
     @Mock
     private CicloRepository cicloRepository;
 
+    @Mock
+    private CicloHistoricoRepository cicloHistoricoRepository;
+
+    @Spy
+    private DashboardCache dashboardCache = new DashboardCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+    @Spy
+    private CicloAtivoCache cicloAtivoCache = new CicloAtivoCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+    @Spy
+    private DashboardExecutor dashboardExecutor = new DashboardExecutor(4);
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void encerrarExecutor() {
+        dashboardExecutor.encerrar();
+    }
+
     // --- TESTES DE KPIs E GRÁFICOS ---
 
     @Test
@@ -44,15 +80,21 @@ class DashboardServiceTest {
         ResumoGeralDTO resumoMock = new ResumoGeralDTO(7200L, 100L, 80L);
 
         // ATUALIZADO: Adicionado any() extra para o parâmetro 'topicos'
-        when(registroRepository.calcularResumoGeral(
+        when(resumoDiarioRepository.calcularResumoGeral(
             eq(usuario), any(), any(), any(), any(), any(), any()
         )).thenReturn(resumoMock);
 
         // ATUALIZADO: Adicionado any() extra para o parâmetro 'topicos'
-        when(registroRepository.calcularEvolucaoDiaria(
+        when(resumoDiarioRepository.calcularEvolucaoDiaria(
             any(), any(), any(), any(), any(), any(), any()
         )).thenReturn(Collections.emptyList());
 
+        when(resumoDiarioRepository.calcularTotaisPorMateria(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(
+                    new TotalMateriaDTO(2L, "Português", 1800L, 0L, 0L),
+                    new TotalMateriaDTO(1L, "Direito", 5400L, 100L, 80L)
+                ));
+
         // Act
         // ATUALIZADO: Passando null para 'topicos' (5º argumento)
         DashboardDTO dashboard = service.carregarDashboard(usuario, null, null, null, null, null, null);
@@ -61,6 +103,9 @@ class DashboardServiceTest {
         assertEquals(2.0, dashboard.horasLiquidas()); // 7200 / 3600
         assertEquals(80.0, dashboard.taxaAcertos()); // 80 / 100
         assertEquals(100, dashboard.questoesFeitas());
+        assertEquals(List.of("Direito", "Português"),
+                dashboard.materias().stream().map(DashboardDTO.TotalMateria::nomeMateria).toList());
+        assertEquals(1.5, dashboard.materias().get(0).horasLiquidas());
     }
 
     @Test
@@ -72,16 +117,16 @@ class DashboardServiceTest {
         LocalDate anteontem = hoje.minusDays(2); 
 
         List<EvolucaoDiariaDTO> evolucaoBanco = List.of(
-            new EvolucaoDiariaDTO(Date.valueOf(anteontem), 3600L), // 1h
-            new EvolucaoDiariaDTO(Date.valueOf(hoje), 7200L)       // 2h
+            new EvolucaoDiariaDTO(anteontem, 3600L), // 1h
+            new EvolucaoDiariaDTO(hoje, 7200L)       // 2h
         );
 
         // ATUALIZADO: Adicionado any() extra
-        when(registroRepository.calcularResumoGeral(any(), any(), any(), any(), any(), any(), any()))
+        when(resumoDiarioRepository.calcularResumoGeral(any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(new ResumoGeralDTO(0L, 0L, 0L));
 
         // ATUALIZADO: Adicionado any() extra
-        when(registroRepository.calcularEvolucaoDiaria(any(), any(), any(), any(), any(), any(), any()))
+        when(resumoDiarioRepository.calcularEvolucaoDiaria(any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(evolucaoBanco);
 
         // Act
@@ -103,6 +148,70 @@ class DashboardServiceTest {
         assertEquals(2.0, grafico.get(2).valor()); // Hoje
     }
 
+    @Test
+    @DisplayName("DASHBOARD: Deve agrupar a evolução por semana (segunda a domingo) sem perder horas")
+    void carregarDashboard_granularidadeSemanal() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+
+        LocalDate segunda = LocalDate.of(2025, 3, 3);
+        when(resumoDiarioRepository.calcularResumoGeral(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new ResumoGeralDTO(0L, 0L, 0L));
+        when(resumoDiarioRepository.calcularEvolucaoDiaria(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(
+                    new EvolucaoDiariaDTO(segunda.plusDays(1), 3600L),  // terça da 1ª semana
+                    new EvolucaoDiariaDTO(segunda.plusDays(6), 3600L),  // domingo da 1ª semana
+                    new EvolucaoDiariaDTO(segunda.plusDays(14), 1800L)  // segunda da 3ª semana
+                ));
+
+        DashboardDTO dashboard = service.carregarDashboard(
+            usuario, segunda.plusDays(2).atStartOfDay(), segunda.plusDays(20).atTime(23, 59, 59),
+            null, null, null, null, Granularidade.SEMANA, null
+        );
+
+        List<DadosGrafico> grafico = dashboard.evolucaoDiaria();
+        assertEquals(3, grafico.size());
+        assertEquals(segunda.toString(), grafico.get(0).label()); // Período começa na segunda
+        assertEquals(2.0, grafico.get(0).valor());
+        assertEquals(0.0, grafico.get(1).valor());
+        assertEquals(0.5, grafico.get(2).valor());
+    }
+
+    @Test
+    @DisplayName("DASHBOARD: AUTO deve pedir ao banco semanas em períodos longos e respeitar o limite de pontos")
+    void carregarDashboard_autoComLimiteDePontos() {
+        ReflectionTestUtils.setField(service, "modoAgregacao", DashboardService.ModoAgregacao.AGRUPADA);
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+
+        LocalDate fim = LocalDate.of(2025, 12, 31);
+        LocalDate inicio = fim.minusDays(400);
+        LocalDate pico = LocalDate.of(2025, 6, 2); // segunda-feira
+
+        List<Object[]> linhas = List.of(
+            new Object[]{1, 1, null, null, null, 36000L, 0L, 0L},
+            new Object[]{0, 1, pico, null, null, 36000L, 0L, 0L}
+        );
+        when(resumoDiarioRepository.agregarDashboard(eq(1L), eq("week"), eq(inicio.atStartOfDay()), eq(fim.atTime(23, 59, 59)), any(), any(), any(), any()))
+                .thenReturn(linhas);
+
+        DashboardDTO dashboard = service.carregarDashboard(
+            usuario, inicio.atStartOfDay(), fim.atTime(23, 59, 59), null, null, null, null, Granularidade.AUTO, 10
+        );
+
+        List<DadosGrafico> grafico = dashboard.evolucaoDiaria();
+        assertEquals(10, grafico.size());
+        assertTrue(grafico.stream().anyMatch(p -> p.label().equals(pico.toString()) && p.valor() == 10.0)); // LTTB mantém o pico
+        assertEquals(fim.with(java.time.DayOfWeek.MONDAY).toString(), grafico.get(9).label());
+    }
+
+    @Test
+    @DisplayName("DASHBOARD: Deve rejeitar limite de pontos menor que 3")
+    void carregarDashboard_limiteDePontosInvalido() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+
+        assertThrows(RuntimeException.class,
+                () -> service.carregarDashboard(usuario, null, null, null, null, null, null, Granularidade.DIA, 2));
+    }
+
     // --- TESTES DE CICLO E PROGRESSO ---
 
     @Test
@@ -120,22 +229,24 @@ class DashboardServiceTest {
         item.setMateria(mat1);
         item.setHorasMeta(10.0);
         item.setQuestoesMeta(0);
+        item.setSegundosRealizados(18000L); // Contador mantido a cada registro
 
         Ciclo ciclo = new Ciclo();
         ciclo.setId(50L);
         ciclo.setConcurso(concurso);
         ciclo.setItens(List.of(item));
+        ciclo.setSituacaoRitmo(SituacaoRitmo.ATRASADO); // Gravado pelo job de ritmo
+        ciclo.setItensAtrasados(1);
+        ciclo.setHorasDiariasNecessarias(1.25);
 
-        when(cicloRepository.findFirstByUsuarioAndAtivoTrue(usuario)).thenReturn(Optional.of(ciclo));
-
-        ResumoHistoricoDTO historicoMat1 = new ResumoHistoricoDTO(100L, 18000L, 0L); 
-        when(registroRepository.somarEstudosPorConcurso(10L)).thenReturn(List.of(historicoMat1));
+        when(cicloRepository.buscarCicloAtivo(usuario.getId())).thenReturn(Optional.of(new CicloAtivoDTO(ciclo.getId(), null)));
+        when(cicloRepository.buscarComItens(ciclo.getId())).thenReturn(Optional.of(ciclo));
 
         // ATUALIZADO: Adicionado any() extra
-        when(registroRepository.calcularResumoGeral(any(), any(), any(), any(), any(), any(), any()))
+        when(resumoDiarioRepository.calcularResumoGeral(any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(new ResumoGeralDTO(0L, 0L, 0L));
         // ATUALIZADO: Adicionado any() extra
-        when(registroRepository.calcularEvolucaoDiaria(any(), any(), any(), any(), any(), any(), any()))
+        when(resumoDiarioRepository.calcularEvolucaoDiaria(any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(Collections.emptyList());
 
         // Act
@@ -152,6 +263,43 @@ class DashboardServiceTest {
         assertEquals(18000L, itemProg.saldoSegundos()); 
         
         assertEquals(50.0, dashboard.progressoGeral());
+        assertEquals("ATRASADO", dashboard.ritmo().situacao());
+        assertEquals(1.25, dashboard.ritmo().horasDiariasNecessarias());
+    }
+
+    @Test
+    @DisplayName("DASHBOARD: Deve descontar o cumprido nas voltas fechadas (uma leitura agrupada)")
+    void carregarDashboard_descontaVoltasFechadas() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Concurso concurso = new Concurso(); concurso.setId(10L); concurso.setNome("Concurso Teste");
+        Materia mat1 = new Materia(); mat1.setId(100L); mat1.setNome("Matéria 1");
+
+        ItemCiclo item = new ItemCiclo();
+        item.setMateria(mat1);
+        item.setHorasMeta(2.0);
+        item.setQuestoesMeta(20);
+        item.setSegundosRealizados(9000L);   // 2h30 no total
+        item.setQuestoesRealizadas(25L);
+
+        Ciclo ciclo = new Ciclo(); ciclo.setId(50L); ciclo.setConcurso(concurso); ciclo.setItens(List.of(item));
+
+        when(cicloRepository.buscarCicloAtivo(1L)).thenReturn(Optional.of(new CicloAtivoDTO(50L, 10L)));
+        when(cicloRepository.buscarComItens(50L)).thenReturn(Optional.of(ciclo));
+        // Uma volta fechada: 2h e 20 questões cumpridas
+        when(cicloHistoricoRepository.descontosPorMateria(10L)).thenReturn(Map.of(100L, new ResumoHistoricoDTO(100L, 7200L, 20L)));
+        when(resumoDiarioRepository.calcularResumoGeral(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new ResumoGeralDTO(0L, 0L, 0L));
+        when(resumoDiarioRepository.calcularEvolucaoDiaria(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+
+        DashboardDTO dashboard = service.carregarDashboard(usuario, null, null, null, null, null, null);
+
+        DashboardDTO.ItemProgresso itemProg = dashboard.itens().get(0);
+        assertEquals(1800L, itemProg.segundosRealizados()); // Sobra da volta anterior
+        assertEquals(25.0, itemProg.percentualHoras());
+        assertEquals(5L, itemProg.questoesRealizadas());
+        assertEquals(25.0, itemProg.percentualQuestoes());
+        verify(cicloHistoricoRepository, times(1)).descontosPorMateria(10L);
     }
 
     @Test
@@ -160,14 +308,14 @@ class DashboardServiceTest {
         Usuario usuario = new Usuario(); usuario.setId(1L);
 
         // ATUALIZADO: Adicionado any() extra
-        when(registroRepository.calcularResumoGeral(any(), any(), any(), any(), any(), any(), any()))
+        when(resumoDiarioRepository.calcularResumoGeral(any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(new ResumoGeralDTO(null, null, null)); 
         
         // ATUALIZADO: Adicionado any() extra
-        when(registroRepository.calcularEvolucaoDiaria(any(), any(), any(), any(), any(), any(), any()))
+        when(resumoDiarioRepository.calcularEvolucaoDiaria(any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(Collections.emptyList());
         
-        when(cicloRepository.findFirstByUsuarioAndAtivoTrue(usuario)).thenReturn(Optional.empty());
+        when(cicloRepository.buscarCicloAtivo(usuario.getId())).thenReturn(Optional.empty());
 
         // Act
         // ATUALIZADO: Passando null para 'topicos'
@@ -177,4 +325,212 @@ class DashboardServiceTest {
         assertEquals(0, dashboard.questoesFeitas());
         assertNull(dashboard.cicloId());
     }
-}
\ No newline at end of file
+
+    // --- TESTES DO CAMINHO NATIVO (GROUPING SETS) ---
+
+    @Test
+    @DisplayName("DASHBOARD: Caminho nativo deve separar resumo e série da mesma consulta e ler o ciclo dos contadores")
+    void carregarDashboard_agregacaoNativa() {
+        ReflectionTestUtils.setField(service, "modoAgregacao", DashboardService.ModoAgregacao.AGRUPADA);
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+
+        LocalDate hoje = LocalDate.now();
+        LocalDate ontem = hoje.minusDays(1);
+
+        Concurso concurso = new Concurso(); concurso.setId(10L); concurso.setNome("Concurso Teste");
+        Materia mat1 = new Materia(); mat1.setId(100L); mat1.setNome("Matéria 1");
+        ItemCiclo item = new ItemCiclo();
+        item.setMateria(mat1);
+        item.setHorasMeta(10.0);
+        item.setQuestoesMeta(0);
+        item.setSegundosRealizados(18000L);
+        Ciclo ciclo = new Ciclo(); ciclo.setId(50L); ciclo.setConcurso(concurso); ciclo.setItens(List.of(item));
+
+        // grupo_periodo, grupo_materia, periodo, materia_id, nome_materia, segundos, questoes, acertos
+        List<Object[]> linhas = List.of(
+            new Object[]{1, 1, null, null, null, 10800L, 100L, 80L},
+            new Object[]{0, 1, java.sql.Date.valueOf(ontem), null, null, 3600L, 0L, 0L},
+            new Object[]{0, 1, hoje, null, null, 7200L, 0L, 0L},
+            new Object[]{1, 0, null, 200L, "Matéria 2", 1800L, 40L, 30L},
+            new Object[]{1, 0, null, 100L, "Matéria 1", 9000L, 60L, 50L}
+        );
+        when(resumoDiarioRepository.agregarDashboard(eq(1L), eq("day"), eq(ontem.atStartOfDay()), eq(hoje.atTime(23, 59, 59)), any(), any(), any(), any()))
+                .thenReturn(linhas);
+        when(cicloRepository.buscarCicloAtivo(usuario.getId())).thenReturn(Optional.of(new CicloAtivoDTO(ciclo.getId(), null)));
+        when(cicloRepository.buscarComItens(ciclo.getId())).thenReturn(Optional.of(ciclo));
+
+        DashboardDTO dashboard = service.carregarDashboard(
+            usuario, ontem.atStartOfDay(), hoje.atTime(23, 59, 59), null, null, null, null
+        );
+
+        assertEquals(3.0, dashboard.horasLiquidas());
+        assertEquals(80.0, dashboard.taxaAcertos());
+        assertEquals(2, dashboard.evolucaoDiaria().size());
+        assertEquals(1.0, dashboard.evolucaoDiaria().get(0).valor());
+        assertEquals(2.0, dashboard.evolucaoDiaria().get(1).valor());
+        assertEquals(50L, dashboard.cicloId());
+        assertEquals(50.0, dashboard.itens().get(0).percentualHoras());
+        // Totais por matéria da mesma consulta, a mais estudada primeiro
+        assertEquals(2, dashboard.materias().size());
+        assertEquals(new DashboardDTO.TotalMateria(100L, "Matéria 1", 2.5, 60, 83.3), dashboard.materias().get(0));
+        assertEquals(new DashboardDTO.TotalMateria(200L, "Matéria 2", 0.5, 40, 75.0), dashboard.materias().get(1));
+        verify(resumoDiarioRepository, never()).calcularResumoGeral(any(), any(), any(), any(), any(), any(), any());
+        verify(resumoDiarioRepository, never()).calcularTotaisPorMateria(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    // --- TESTES DE EXECUÇÃO PARALELA ---
+
+    @Test
+    @DisplayName("PARALELO: Seções devem rodar ao mesmo tempo e registrar o tempo de cada uma")
+    void carregarDashboard_secoesEmParalelo() throws Exception {
+        ReflectionTestUtils.setField(service, "modoExecucao", DashboardService.ModoExecucao.PARALELA);
+        ReflectionTestUtils.setField(service, "prazo", Duration.ofSeconds(5));
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+
+        // Cada seção só termina quando as três já começaram: em série isso estouraria o prazo
+        CountDownLatch todasIniciadas = new CountDownLatch(3);
+        when(resumoDiarioRepository.calcularResumoGeral(any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(inv -> { todasIniciadas.countDown(); todasIniciadas.await(); return new ResumoGeralDTO(3600L, 10L, 5L); });
+        when(resumoDiarioRepository.calcularEvolucaoDiaria(any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(inv -> { todasIniciadas.countDown(); todasIniciadas.await(); return Collections.emptyList(); });
+        when(cicloRepository.buscarCicloAtivo(usuario.getId()))
+                .thenAnswer(inv -> { todasIniciadas.countDown(); todasIniciadas.await(); return Optional.empty(); });
+
+        DashboardDTO dashboard = service.carregarDashboard(usuario, null, null, null, null, null, null);
+
+        assertEquals(1.0, dashboard.horasLiquidas());
+        assertEquals(50.0, dashboard.taxaAcertos());
+        assertNull(dashboard.cicloId());
+        assertEquals(0, todasIniciadas.getCount());
+        for (String secao : List.of("resumo", "evolucao", "ciclo")) {
+            assertEquals(1, meterRegistry.get("dashboard.secao").tag("secao", secao).timer().count());
+        }
+    }
+
+    @Test
+    @DisplayName("PARALELO: Com a agregação padrão (nativa), varredura e ciclo devem rodar ao mesmo tempo")
+    void carregarDashboard_nativoEmParalelo() {
+        // Mesmos valores do application.properties, só a execução muda
+        ReflectionTestUtils.setField(service, "modoAgregacao", DashboardService.ModoAgregacao.AGRUPADA);
+        ReflectionTestUtils.setField(service, "modoExecucao", DashboardService.ModoExecucao.PARALELA);
+        ReflectionTestUtils.setField(service, "prazo", Duration.ofSeconds(3));
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+
+        CountDownLatch ambasIniciadas = new CountDownLatch(2);
+        List<Object[]> linhas = List.<Object[]>of(new Object[]{1, 1, null, null, null, 7200L, 10L, 5L});
+        when(resumoDiarioRepository.agregarDashboard(eq(1L), eq("day"), isNull(), isNull(), any(), any(), any(), any()))
+                .thenAnswer(inv -> { ambasIniciadas.countDown(); ambasIniciadas.await(); return linhas; });
+        when(cicloRepository.buscarCicloAtivo(usuario.getId()))
+                .thenAnswer(inv -> { ambasIniciadas.countDown(); ambasIniciadas.await(); return Optional.empty(); });
+
+        DashboardDTO dashboard = service.carregarDashboard(usuario, null, null, null, null, null, null);
+
+        assertEquals(2.0, dashboard.horasLiquidas());
+        assertEquals(50.0, dashboard.taxaAcertos());
+        assertNull(dashboard.cicloId());
+        assertEquals(0, ambasIniciadas.getCount());
+        for (String secao : List.of("agrupada", "ciclo")) {
+            assertEquals(1, meterRegistry.get("dashboard.secao").tag("secao", secao).timer().count());
+        }
+        verify(resumoDiarioRepository, never()).calcularResumoGeral(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("PARALELO: Deve falhar com tempo esgotado quando uma seção passa do prazo")
+    void carregarDashboard_prazoEsgotado() {
+        ReflectionTestUtils.setField(service, "modoExecucao", DashboardService.ModoExecucao.PARALELA);
+        ReflectionTestUtils.setField(service, "prazo", Duration.ofMillis(100));
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+
+        CountDownLatch nuncaLiberado = new CountDownLatch(1);
+        when(resumoDiarioRepository.calcularResumoGeral(any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(inv -> { nuncaLiberado.await(10, TimeUnit.SECONDS); return new ResumoGeralDTO(0L, 0L, 0L); });
+        lenient().when(resumoDiarioRepository.calcularEvolucaoDiaria(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+        lenient().when(cicloRepository.buscarCicloAtivo(usuario.getId())).thenReturn(Optional.empty());
+
+        assertThrows(TempoEsgotadoException.class,
+                () -> service.carregarDashboard(usuario, null, null, null, null, null, null));
+    }
+
+    // --- TESTES DE CACHE ---
+
+    @Test
+    @DisplayName("CACHE: Deve reaproveitar o resultado até o usuário escrever algo")
+    void carregarDashboard_cacheInvalidadoPorEscrita() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+
+        when(resumoDiarioRepository.calcularResumoGeral(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new ResumoGeralDTO(3600L, 0L, 0L));
+        when(resumoDiarioRepository.calcularEvolucaoDiaria(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+
+        // Mesmos filtros em ordem diferente caem na mesma entrada
+        service.carregarDashboard(usuario, null, null, List.of(2L, 1L), null, null, null);
+        service.carregarDashboard(usuario, null, null, List.of(1L, 2L), null, null, null);
+
+        verify(resumoDiarioRepository, times(1)).calcularResumoGeral(any(), any(), any(), any(), any(), any(), any());
+
+        Usuario outro = new Usuario(); outro.setId(2L);
+        service.carregarDashboard(outro, null, null, null, null, null, null);
+
+        dashboardCache.aoAlterarDados(new DadosUsuarioAlteradosEvent(1L, Agregado.REGISTROS));
+        service.carregarDashboard(usuario, null, null, List.of(1L, 2L), null, null, null);
+        service.carregarDashboard(outro, null, null, null, null, null, null); // Só o usuário que escreveu perde o cache
+
+        verify(resumoDiarioRepository, times(3)).calcularResumoGeral(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    // --- TESTES DO MAPA DE CALOR ---
+
+    @Test
+    @DisplayName("MAPA DE CALOR: Deve empacotar os minutos de 365 dias em poucos bytes e quantizar os níveis")
+    void carregarMapaCalor_empacotaEQuantiza() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        LocalDate hoje = LocalDate.now();
+        LocalDate inicio = hoje.minusDays(364);
+
+        when(resumoDiarioRepository.somarMinutosPorDia(1L, inicio, hoje)).thenReturn(List.of(
+            new Object[]{java.sql.Date.valueOf(inicio), 30L},
+            new Object[]{hoje.minusDays(1), 300L},
+            new Object[]{hoje, 120L}
+        ));
+
+        MapaCalorDTO mapa = service.carregarMapaCalor(usuario, null, 5);
+
+        assertEquals(inicio, mapa.inicio());
+        assertEquals(365, mapa.dias());
+        assertEquals(300L, mapa.maximoMinutos());
+        assertEquals(450L, mapa.totalMinutos());
+
+        long[] minutos = MapaCalor.desempacotar(mapa.minutos(), 365);
+        assertEquals(30L, minutos[0]);
+        assertEquals(0L, minutos[100]);
+        assertEquals(300L, minutos[363]);
+        assertEquals(120L, minutos[364]);
+        assertTrue(mapa.minutos().length() < 500); // 1 byte por dia vazio/curto
+
+        assertEquals(365, mapa.niveis().length());
+        assertEquals('1', mapa.niveis().charAt(0));   // 30/300 ainda aparece
+        assertEquals('0', mapa.niveis().charAt(100));
+        assertEquals('4', mapa.niveis().charAt(363));
+        assertEquals('2', mapa.niveis().charAt(364)); // 120/300 * 4 = 1,6 -> 2
+    }
+
+    @Test
+    @DisplayName("MAPA DE CALOR: Deve servir do cache no mesmo dia, sem níveis quando não pedidos, e validar limites")
+    void carregarMapaCalor_cacheEValidacao() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        when(resumoDiarioRepository.somarMinutosPorDia(eq(1L), any(), any())).thenReturn(Collections.emptyList());
+
+        MapaCalorDTO mapa = service.carregarMapaCalor(usuario, 30, null);
+        service.carregarMapaCalor(usuario, 30, null);
+
+        assertNull(mapa.niveis());
+        assertEquals(0L, mapa.totalMinutos());
+        verify(resumoDiarioRepository, times(1)).somarMinutosPorDia(eq(1L), any(), any());
+
+        assertThrows(RuntimeException.class, () -> service.carregarMapaCalor(usuario, 0, null));
+        assertThrows(RuntimeException.class, () -> service.carregarMapaCalor(usuario, 365, 1));
+    }
+}
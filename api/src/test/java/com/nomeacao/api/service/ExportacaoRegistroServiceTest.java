@@ -0,0 +1,106 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.dto.DadosExportacaoRegistro;
+import com.nomeacao.api.dto.FormatoExportacao;
+import com.nomeacao.api.model.Usuario;
+import com.nomeacao.api.repository.RegistroEstudoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportacaoRegistroServiceTest {
+
+    @InjectMocks
+    private ExportacaoRegistroService service;
+
+    @Mock
+    private RegistroEstudoRepository repository;
+
+    @Spy
+    private JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static final DadosExportacaoRegistro PRIMEIRO = new DadosExportacaoRegistro(1L,
+            LocalDateTime.of(2026, 3, 1, 8, 0), "Direito", null, "TRF", "Teoria", 3600, 10, 8, true, "ok");
+    private static final DadosExportacaoRegistro SEGUNDO = new DadosExportacaoRegistro(2L,
+            LocalDateTime.of(2026, 3, 2, 9, 30), "Português, Gramática", null, null, null, 1800, null, null, false,
+            "disse \"crase\"\nrevisar");
+
+    // O repositório entrega as linhas uma a uma no consumidor, como o cursor faz
+    @SuppressWarnings("unchecked")
+    private void simularCursor() {
+        when(repository.exportar(eq(1L), any(), any(), any(), any(), any(), any(), anyInt(), any())).thenAnswer(inv -> {
+            Consumer<DadosExportacaoRegistro> destino = inv.getArgument(8);
+            destino.accept(PRIMEIRO);
+            destino.accept(SEGUNDO);
+            return 2L;
+        });
+    }
+
+    private String exportar(FormatoExportacao formato) throws Exception {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        var saida = new ByteArrayOutputStream();
+        service.exportar(null, null, null, null, null, null, formato, usuario).writeTo(saida);
+        return saida.toString(StandardCharsets.UTF_8);
+    }
+
+    // --- TESTES DE FORMATO ---
+
+    @Test
+    @DisplayName("EXPORTAR: CSV com BOM, cabeçalho e escape de vírgulas, aspas e quebras de linha")
+    void exportar_csv() throws Exception {
+        simularCursor();
+
+        String[] linhas = exportar(FormatoExportacao.CSV).split("\r\n");
+
+        assertTrue(linhas[0].startsWith("\uFEFFid,data_inicio,materia"));
+        assertEquals("1,2026-03-01T08:00,Direito,,TRF,Teoria,3600,10,8,true,ok", linhas[1]);
+        assertEquals("2,2026-03-02T09:30,\"Português, Gramática\",,,,1800,,,false,\"disse \"\"crase\"\"\nrevisar\"", linhas[2]);
+    }
+
+    @Test
+    @DisplayName("EXPORTAR: NDJSON com um objeto por linha")
+    void exportar_ndjson() throws Exception {
+        simularCursor();
+
+        String[] linhas = exportar(FormatoExportacao.NDJSON).split("\n");
+
+        assertEquals(2, linhas.length);
+        assertEquals(1L, jsonMapper.readTree(linhas[0]).get("id").asLong());
+        assertEquals("Português, Gramática", jsonMapper.readTree(linhas[1]).get("materia").asString());
+    }
+
+    // --- TESTES DE MÉTRICAS ---
+
+    @Test
+    @DisplayName("EXPORTAR: Deve contar linhas e bytes enviados por formato")
+    void exportar_registraMetricas() throws Exception {
+        simularCursor();
+
+        String corpo = exportar(FormatoExportacao.CSV);
+
+        assertEquals(2.0, meterRegistry.counter("registros.exportacao.linhas", "formato", "csv").count());
+        assertEquals(corpo.getBytes(StandardCharsets.UTF_8).length,
+                meterRegistry.counter("registros.exportacao.bytes", "formato", "csv").count());
+    }
+}
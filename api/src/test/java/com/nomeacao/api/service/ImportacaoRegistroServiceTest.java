@@ -0,0 +1,213 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.dto.FormatoExportacao;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
+import com.nomeacao.api.model.*;
+import com.nomeacao.api.repository.*;
+import com.nomeacao.api.service.ProgressoCicloService.SomaLote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportacaoRegistroServiceTest {
+
+    @InjectMocks
+    private ImportacaoRegistroService service;
+
+    @Mock private RegistroEstudoRepository repository;
+    @Mock private MateriaRepository materiaRepository;
+    @Mock private TopicoRepository topicoRepository;
+    @Mock private ConcursoRepository concursoRepository;
+    @Mock private TipoEstudoRepository tipoRepository;
+    @Mock private ResumoDiarioService resumoDiarioService;
+    @Mock private ProgressoCicloService progressoCicloService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private Usuario usuario;
+    private final List<List<Object[]>> lotes = new ArrayList<>();
+
+    @BeforeEach
+    void configurar() {
+        ReflectionTestUtils.setField(service, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(service, "maximoLinhas", 1000);
+        ReflectionTestUtils.setField(service, "simultaneas", 1);
+        ReflectionTestUtils.setField(service, "pausaEntreLotes", Duration.ZERO);
+
+        usuario = new Usuario(); usuario.setId(1L);
+
+        Materia direito = new Materia(); direito.setId(6L); direito.setNome("Direito");
+        Materia portugues = new Materia(); portugues.setId(7L); portugues.setNome("Português");
+        Topico crase = new Topico(); crase.setId(30L); crase.setNome("Crase"); crase.setMateria(portugues);
+        Concurso trf = new Concurso(); trf.setId(2L); trf.setNome("TRF");
+
+        lenient().when(materiaRepository.findAllByUsuario(usuario)).thenReturn(List.of(direito, portugues));
+        lenient().when(topicoRepository.findAllByMateriaUsuario(usuario)).thenReturn(List.of(crase));
+        lenient().when(concursoRepository.findAllByUsuario(usuario)).thenReturn(List.of(trf));
+        lenient().when(tipoRepository.findAllByUsuario(usuario)).thenReturn(List.of());
+        // Copia cada lote: o serviço reaproveita a lista entre lotes
+        lenient().when(repository.inserirEmLote(any())).thenAnswer(inv -> {
+            List<Object[]> lote = new ArrayList<>(inv.getArgument(0));
+            lotes.add(lote);
+            return lote.size();
+        });
+    }
+
+    private static ByteArrayInputStream arquivo(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // --- TESTES DE CSV ---
+
+    @Test
+    @DisplayName("IMPORTAR: CSV da exportação volta inteiro, em lotes, com nomes resolvidos uma vez")
+    void importar_csvEmLotes() throws Exception {
+        String csv = "\uFEFFid,data_inicio,materia,topico,concurso,tipo_estudo,segundos,questoes_feitas,questoes_certas,conta_no_ciclo,anotacoes\r\n"
+                + "1,2026-03-01T08:00,Direito,,TRF,,3600,10,8,true,\"vírgula, e \"\"aspas\"\"\nem duas linhas\"\r\n"
+                + "2,2026-03-02 09:30:00,português,Crase,2,,1800,,,false,\r\n"
+                + "3,2026-03-03T10:00,6,,,,600,,,,\r\n";
+
+        var resultado = service.importar(arquivo(csv), FormatoExportacao.CSV, usuario);
+
+        assertEquals(3, resultado.linhasLidas());
+        assertEquals(3, resultado.importadas());
+        assertEquals(0, resultado.comErro());
+        assertEquals(2, lotes.size()); // Lote de 2 + resto
+        verify(materiaRepository, times(1)).findAllByUsuario(usuario);
+
+        Object[] primeira = lotes.get(0).get(0);
+        assertEquals(LocalDateTime.of(2026, 3, 1, 8, 0), primeira[0]);
+        assertEquals("vírgula, e \"aspas\"\nem duas linhas", primeira[4]);
+        assertEquals(2L, primeira[9]);
+
+        Object[] segunda = lotes.get(0).get(1);
+        assertEquals(7L, segunda[7]);   // Nome sem diferenciar maiúsculas
+        assertEquals(30L, segunda[8]);  // Tópico da matéria
+        assertEquals(false, segunda[5]);
+    }
+
+    @Test
+    @DisplayName("IMPORTAR: Linha inválida vai para o relatório e o resto do arquivo segue")
+    void importar_errosPorLinha() throws Exception {
+        String csv = "data_inicio,materia,segundos,questoes_feitas,questoes_certas\n"
+                + "2026-03-01T08:00,Direito,3600,,\n"
+                + "ontem,Direito,3600,,\n"
+                + "2026-03-01T09:00,Física,3600,,\n"
+                + "2026-03-01T10:00,Direito,-5,,\n"
+                + "2026-03-01T11:00,Direito,60,5,9\n"
+                + "2026-03-01T12:00,Direito,60,5,4\n";
+
+        var resultado = service.importar(arquivo(csv), FormatoExportacao.CSV, usuario);
+
+        assertEquals(6, resultado.linhasLidas());
+        assertEquals(2, resultado.importadas());
+        assertEquals(4, resultado.comErro());
+        assertEquals(3L, resultado.erros().get(0).linha());
+        assertTrue(resultado.erros().get(0).mensagem().startsWith("Data inválida"));
+        assertEquals("Matéria inexistente: 'Física'.", resultado.erros().get(1).mensagem());
+        assertEquals("Valor inválido em segundos: '-5'.", resultado.erros().get(2).mensagem());
+        assertEquals("Questões certas não podem passar das feitas.", resultado.erros().get(3).mensagem());
+    }
+
+    @Test
+    @DisplayName("IMPORTAR: Cabeçalho sem as colunas obrigatórias recusa o arquivo inteiro")
+    void importar_cabecalhoInvalido() {
+        RuntimeException erro = assertThrows(RuntimeException.class,
+                () -> service.importar(arquivo("data,nome\n2026-03-01,Direito\n"), FormatoExportacao.CSV, usuario));
+
+        assertTrue(erro.getMessage().startsWith("O cabeçalho precisa ter"));
+        verify(repository, never()).inserirEmLote(any());
+    }
+
+    // --- TESTES DE NDJSON E CONSOLIDAÇÃO ---
+
+    @Test
+    @DisplayName("IMPORTAR: NDJSON soma no ciclo uma vez por concurso/matéria e refaz os resumos no final")
+    @SuppressWarnings("unchecked")
+    void importar_ndjsonConsolidaUmaVez() throws Exception {
+        String ndjson = """
+                {"dataInicio":"2026-03-01T08:00:00","materia":"Direito","concurso":"TRF","segundos":3600,"questoesFeitas":10}
+                {"dataInicio":"2026-03-05T08:00:00","materia":6,"concurso":2,"segundos":1800,"contarHorasNoCiclo":false}
+
+                isto não é json
+                {"dataInicio":"2026-03-02T08:00:00","materia":"Direito","segundos":600}
+                """;
+
+        var resultado = service.importar(arquivo(ndjson), FormatoExportacao.NDJSON, usuario);
+
+        assertEquals(4, resultado.linhasLidas()); // JSON quebrado também conta como lido
+        assertEquals(3, resultado.importadas());
+        assertEquals(1, resultado.comErro());
+        assertEquals(4L, resultado.erros().get(0).linha());
+
+        ArgumentCaptor<Collection<SomaLote>> somas = ArgumentCaptor.forClass(Collection.class);
+        verify(progressoCicloService).adicionarEmLote(eq(1L), somas.capture(),
+                eq(LocalDateTime.of(2026, 3, 1, 8, 0)), eq(LocalDateTime.of(2026, 3, 5, 8, 0)));
+        assertEquals(List.of(new SomaLote(2L, 6L, 3600, 10)), List.copyOf(somas.getValue()));
+
+        verify(resumoDiarioService, times(1)).reconstruir(1L);
+        verify(eventPublisher).publishEvent(any(DadosUsuarioAlteradosEvent.class));
+    }
+
+    @Test
+    @DisplayName("IMPORTAR: Lote que falha no meio consolida os lotes já gravados antes de subir o erro")
+    @SuppressWarnings("unchecked")
+    void importar_falhaNoMeioConsolidaOQueFoiGravado() {
+        doAnswer(inv -> ((List<Object[]>) inv.getArgument(0)).size())
+                .doThrow(new RuntimeException("Conexão perdida."))
+                .when(repository).inserirEmLote(any());
+        String csv = "data_inicio,materia,concurso,segundos,questoes_feitas\n"
+                + "2026-03-01T08:00,Direito,TRF,3600,10\n"
+                + "2026-03-02T08:00,Direito,TRF,1800,0\n"
+                + "2026-03-09T08:00,Direito,TRF,900,5\n"  // 2º lote: não entra no ciclo
+                + "2026-03-10T08:00,Direito,TRF,900,5\n";
+
+        RuntimeException erro = assertThrows(RuntimeException.class,
+                () -> service.importar(arquivo(csv), FormatoExportacao.CSV, usuario));
+
+        assertEquals("Conexão perdida. Os 2 registros gravados antes da falha foram mantidos.", erro.getMessage());
+        ArgumentCaptor<Collection<SomaLote>> somas = ArgumentCaptor.forClass(Collection.class);
+        verify(progressoCicloService).adicionarEmLote(eq(1L), somas.capture(),
+                eq(LocalDateTime.of(2026, 3, 1, 8, 0)), eq(LocalDateTime.of(2026, 3, 2, 8, 0)));
+        assertEquals(List.of(new SomaLote(2L, 6L, 5400, 10)), List.copyOf(somas.getValue()));
+        verify(resumoDiarioService).reconstruir(1L);
+        verify(eventPublisher).publishEvent(any(DadosUsuarioAlteradosEvent.class));
+    }
+
+    @Test
+    @DisplayName("IMPORTAR: Deve recusar quando já houver importações demais em andamento")
+    void importar_limiteSimultaneas() {
+        ReflectionTestUtils.setField(service, "simultaneas", 0);
+
+        RuntimeException erro = assertThrows(RuntimeException.class,
+                () -> service.importar(arquivo(""), FormatoExportacao.CSV, usuario));
+
+        assertEquals("Há importações demais em andamento. Tente novamente em instantes.", erro.getMessage());
+        verifyNoInteractions(materiaRepository);
+    }
+}
@@ -0,0 +1,82 @@
+package com.nomeacao.api.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/*
+ * Benchmark JMH do rateio (não roda com os testes). Para executar:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test
+ *   java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main RateioHamiltonBenchmark
+ * "laco" = passo a passo como era no CicloService (re-filtra e re-ordena a lista a cada passo);
+ * "motor" = RateioHamilton. passos = saldo a distribuir (o caso grande é o de scores zerados).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateioHamiltonBenchmark {
+
+    @Param({"12", "40", "200"})
+    public int materias;
+
+    @Param({"10", "100000"})
+    public long passos;
+
+    private long[] pisos;
+    private double[] restos;
+    private double[] scores;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        pisos = new long[materias];
+        restos = new double[materias];
+        scores = new double[materias];
+        for (int i = 0; i < materias; i++) {
+            pisos[i] = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(10);
+            restos[i] = random.nextDouble() * 0.5;
+            scores[i] = random.nextInt(200);
+        }
+    }
+
+    @Benchmark
+    public long[] motor() {
+        return RateioHamilton.distribuir(pisos, restos, scores, passos);
+    }
+
+    @Benchmark
+    public double[] laco() {
+        int n = materias;
+        double[] calculado = new double[n];
+        double[] resto = restos.clone();
+        for (int i = 0; i < n; i++) calculado[i] = pisos[i];
+        List<Integer> indices = IntStream.range(0, n).boxed().toList();
+
+        for (long saldo = passos; saldo > 0; saldo--) {
+            List<Integer> zerados = indices.stream()
+                    .filter(i -> calculado[i] == 0)
+                    .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+                    .toList();
+            int escolhido = !zerados.isEmpty()
+                    ? zerados.get(0)
+                    : indices.stream().max(Comparator.comparingDouble(i -> resto[i])).orElse(0);
+            calculado[escolhido]++;
+            resto[escolhido] = -1.0;
+        }
+        return calculado;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateioHamiltonBenchmark.class.getSimpleName()).build()).run();
+    }
+}
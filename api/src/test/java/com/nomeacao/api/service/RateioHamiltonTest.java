@@ -0,0 +1,197 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.dto.DadosSugestaoCiclo;
+import com.nomeacao.api.infra.cache.SugestaoCache;
+import com.nomeacao.api.model.ConcursoMateria;
+import com.nomeacao.api.model.Materia;
+import com.nomeacao.api.repository.ConcursoMateriaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateioHamiltonTest {
+
+    @InjectMocks
+    private CicloService cicloService;
+
+    @Mock
+    private ConcursoMateriaRepository concursoMateriaRepository;
+
+    @Spy
+    private SugestaoCache sugestaoCache = new SugestaoCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    // --- TESTES DE PROPRIEDADE (CONTRA O LAÇO ANTIGO) ---
+
+    @Test
+    @DisplayName("RATEIO: Deve dar exatamente o mesmo resultado do laço passo a passo em milhares de casos aleatórios")
+    void sugerir_identicoAoLacoAntigo() {
+        Random random = new Random(20240601L);
+
+        for (int caso = 0; caso < 3000; caso++) {
+            List<ConcursoMateria> materias = gerarMaterias(random);
+            double horasMeta = gerarHoras(random);
+            Integer questoesMeta = random.nextInt(5) == 0 ? null : random.nextInt(1500);
+
+            when(concursoMateriaRepository.findAllByConcursoId(anyLong())).thenReturn(materias);
+            List<DadosSugestaoCiclo> sugestao = cicloService.sugerir((long) caso, horasMeta, questoesMeta); // Concurso por caso: sem acerto de cache
+
+            Referencia esperado = sugerirComLacoAntigo(materias, horasMeta, questoesMeta);
+            String contexto = "caso " + caso + ": horas=" + horasMeta + " questoes=" + questoesMeta + " materias=" + descrever(materias);
+
+            assertEquals(materias.size(), sugestao.size(), contexto);
+            for (DadosSugestaoCiclo item : sugestao) {
+                int i = item.materiaId().intValue();
+                assertEquals(esperado.horas[i], item.horasSugeridas(), contexto + " materia " + i);
+                assertEquals(esperado.questoes[i], item.questoesSugeridas(), contexto + " materia " + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("RATEIO: Meta enorme com scores zerados não pode depender do tamanho da meta")
+    void sugerir_metaEnormeEmTempoConstante() {
+        List<ConcursoMateria> materias = List.of(materia(0, 0.0, 10), materia(1, 1.0, 0), materia(2, 0.0, 0));
+        when(concursoMateriaRepository.findAllByConcursoId(anyLong())).thenReturn(materias);
+
+        List<DadosSugestaoCiclo> sugestao = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> cicloService.sugerir(1L, 10_000_000.0, 50_000_000));
+
+        // Resgate de um passo para cada, o resto inteiro no primeiro item da lista (regra do laço antigo)
+        assertEquals(10_000_000.0, sugestao.stream().mapToDouble(DadosSugestaoCiclo::horasSugeridas).sum());
+        assertEquals(10_000_000.0 - 1.0, sugestao.get(0).horasSugeridas());
+        assertEquals(0L, sugestao.get(0).materiaId());
+    }
+
+    // --- TESTES DO MOTOR ---
+
+    @Test
+    @DisplayName("RATEIO: Resgate por maior score, depois maior resto, empates pela ordem da lista")
+    void distribuir_ordemDasRegras() {
+        long[] pisos = {2, 0, 3, 0, 1};
+        double[] restos = {0.3, 0.1, 0.4, 0.2, 0.4};
+        double[] scores = {10, 5, 20, 5, 8};
+
+        // 2 resgates (itens 1 e 3, mesmo score -> ordem da lista), depois restos 0,4 (item 2, depois item 4)
+        assertArrayEquals(new long[]{0, 1, 1, 1, 0}, RateioHamilton.distribuir(pisos, restos, scores, 3));
+        assertArrayEquals(new long[]{0, 1, 1, 1, 1}, RateioHamilton.distribuir(pisos, restos, scores, 4));
+        // Todos atendidos: o que sobra vai para o primeiro
+        assertArrayEquals(new long[]{3, 1, 1, 1, 1}, RateioHamilton.distribuir(pisos, restos, scores, 7));
+        assertArrayEquals(new long[5], RateioHamilton.distribuir(pisos, restos, scores, 0));
+    }
+
+    // --- REFERÊNCIA: cópia fiel do laço que existia no CicloService.sugerir ---
+
+    private record Referencia(double[] horas, int[] questoes) {}
+
+    private static Referencia sugerirComLacoAntigo(List<ConcursoMateria> materias, Double horasMeta, Integer questoesMeta) {
+        final double PASSO_HORAS = 0.5;
+        final int PASSO_QUESTOES = 5;
+        int n = materias.size();
+        double[] score = new double[n], horas = new double[n], restoH = new double[n], restoQ = new double[n];
+        int[] questoes = new int[n];
+
+        double scoreTotal = 0;
+        for (int i = 0; i < n; i++) {
+            score[i] = materias.get(i).getPeso() * materias.get(i).getQuestoesProva();
+            scoreTotal += score[i];
+        }
+        if (scoreTotal == 0) scoreTotal = 1;
+        int qMeta = (questoesMeta != null) ? questoesMeta : 0;
+
+        for (int i = 0; i < n; i++) {
+            double horasIdeais = (score[i] / scoreTotal) * horasMeta;
+            horas[i] = Math.floor(horasIdeais / PASSO_HORAS) * PASSO_HORAS;
+            restoH[i] = horasIdeais - horas[i];
+            if (qMeta > 0) {
+                double questoesIdeais = (score[i] / scoreTotal) * qMeta;
+                questoes[i] = (int) (Math.floor(questoesIdeais / PASSO_QUESTOES) * PASSO_QUESTOES);
+                restoQ[i] = questoesIdeais - questoes[i];
+            }
+        }
+
+        double somaHoras = Arrays.stream(horas).sum();
+        double saldoHoras = Math.round((horasMeta - somaHoras) * 10.0) / 10.0;
+        int saldoQuestoes = qMeta - Arrays.stream(questoes).sum();
+
+        while (saldoHoras >= PASSO_HORAS) {
+            int escolhido = escolher(horas, restoH, score);
+            horas[escolhido] += PASSO_HORAS;
+            restoH[escolhido] = -1.0;
+            saldoHoras = Math.round((saldoHoras - PASSO_HORAS) * 10.0) / 10.0;
+        }
+        double[] questoesD = Arrays.stream(questoes).asDoubleStream().toArray();
+        while (saldoQuestoes >= PASSO_QUESTOES) {
+            int escolhido = escolher(questoesD, restoQ, score);
+            questoesD[escolhido] += PASSO_QUESTOES;
+            questoes[escolhido] += PASSO_QUESTOES;
+            restoQ[escolhido] = -1.0;
+            saldoQuestoes -= PASSO_QUESTOES;
+        }
+        return new Referencia(horas, questoes);
+    }
+
+    // Mesma semântica do stream antigo: sort estável por score desc entre os zerados; max do resto fica com o primeiro no empate
+    private static int escolher(double[] calculado, double[] resto, double[] score) {
+        List<Integer> zerados = new ArrayList<>();
+        for (int i = 0; i < calculado.length; i++) if (calculado[i] == 0) zerados.add(i);
+        if (!zerados.isEmpty()) {
+            zerados.sort(Comparator.comparingDouble((Integer i) -> score[i]).reversed());
+            return zerados.get(0);
+        }
+        int melhor = 0;
+        for (int i = 1; i < resto.length; i++) if (Double.compare(resto[i], resto[melhor]) > 0) melhor = i;
+        return melhor;
+    }
+
+    // --- GERADORES ---
+
+    private static List<ConcursoMateria> gerarMaterias(Random random) {
+        double[] pesos = {0.0, 0.5, 1.0, 1.0, 1.5, 2.0, 3.0};
+        int n = 1 + random.nextInt(random.nextInt(4) == 0 ? 40 : 12);
+        boolean tudoZerado = random.nextInt(20) == 0;
+        List<ConcursoMateria> materias = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double peso = tudoZerado ? 0.0 : pesos[random.nextInt(pesos.length)];
+            int questoes = random.nextInt(6) == 0 ? 0 : 1 + random.nextInt(random.nextBoolean() ? 10 : 120);
+            materias.add(materia(i, peso, questoes));
+        }
+        return materias;
+    }
+
+    private static double gerarHoras(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> random.nextInt(400) * 0.5;               // Múltiplos do passo
+            case 1 -> Math.round(random.nextDouble() * 3000) / 10.0; // Uma casa decimal
+            case 2 -> random.nextDouble() * 200;               // Qualquer valor
+            default -> random.nextInt(5);                      // Metas pequenas (muitos zerados)
+        };
+    }
+
+    private static ConcursoMateria materia(long id, double peso, int questoesProva) {
+        Materia materia = new Materia(); materia.setId(id); materia.setNome("M" + id);
+        ConcursoMateria cm = new ConcursoMateria();
+        cm.setMateria(materia);
+        cm.setPeso(peso);
+        cm.setQuestoesProva(questoesProva);
+        return cm;
+    }
+
+    private static String descrever(List<ConcursoMateria> materias) {
+        StringJoiner sj = new StringJoiner(", ", "[", "]");
+        materias.forEach(cm -> sj.add(cm.getPeso() + "x" + cm.getQuestoesProva()));
+        return sj.toString();
+    }
+}
@@ -1,23 +1,43 @@
 package com.nomeacao.api.service;
 
+import com.nomeacao.api.dto.CicloAtivoDTO;
+import com.nomeacao.api.dto.CursorRegistro;
 import com.nomeacao.api.dto.DadosAtualizacaoRegistro;
 import com.nomeacao.api.dto.DadosCadastroRegistro;
 import com.nomeacao.api.dto.DadosDetalhamentoRegistro;
+import com.nomeacao.api.dto.DadosReatribuicaoLote;
+import com.nomeacao.api.dto.DadosResultadoSincronizacao;
+import com.nomeacao.api.dto.DadosSessaoSincronizada;
+import com.nomeacao.api.dto.DadosSincronizacao;
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.CicloAtivoCache;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
 import com.nomeacao.api.model.*;
 import com.nomeacao.api.repository.*;
+import com.nomeacao.api.repository.RegistroEstudoRepositoryCustom.GrupoAfetado;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,6 +64,18 @@ class RegistroEstudoServiceTest {
     @Mock
     private CicloRepository cicloRepository;
 
+    @Spy
+    private CicloAtivoCache cicloAtivoCache = new CicloAtivoCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+    @Mock
+    private ResumoDiarioService resumoDiarioService;
+
+    @Mock
+    private ProgressoCicloService progressoCicloService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     // --- TESTES DE CRIAÇÃO (REGISTRAR) ---
 
     @Test
@@ -61,10 +93,6 @@ class RegistroEstudoServiceTest {
         concursoDoCiclo.setId(50L);
         concursoDoCiclo.setNome("Concurso Teste");
 
-        Ciclo cicloAtivo = new Ciclo();
-        cicloAtivo.setAtivo(true);
-        cicloAtivo.setConcurso(concursoDoCiclo);
-
         // DTO sem Concurso ID (simulando front-end)
         DadosCadastroRegistro dados = new DadosCadastroRegistro(
             10L, null, null, null, 
@@ -72,8 +100,9 @@ class RegistroEstudoServiceTest {
         );
 
         when(materiaRepository.findById(10L)).thenReturn(Optional.of(materia));
-        // O pulo do gato: Mockar a busca pelo ciclo ativo
-        when(cicloRepository.findFirstByUsuarioAndAtivoTrue(usuario)).thenReturn(Optional.of(cicloAtivo));
+        // O pulo do gato: Mockar a busca pelo ciclo ativo (ids, via CicloAtivoCache)
+        when(cicloRepository.buscarCicloAtivo(1L)).thenReturn(Optional.of(new CicloAtivoDTO(7L, 50L)));
+        when(concursoRepository.getReferenceById(50L)).thenReturn(concursoDoCiclo);
 
         // Act
         service.registrar(dados, usuario);
@@ -85,6 +114,38 @@ class RegistroEstudoServiceTest {
             registro.getMateria().getId().equals(10L) &&
             registro.getSegundos() == 3600
         ));
+        verify(resumoDiarioService).adicionar(argThat(r -> r.getSegundos() == 3600));
+        verify(progressoCicloService).adicionar(argThat(r -> r.getSegundos() == 3600));
+    }
+
+    @Test
+    @DisplayName("REGISTRAR: Deve buscar o ciclo ativo uma vez até a invalidação")
+    void registrar_cicloAtivoEmCache() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Materia materia = new Materia(); materia.setId(10L); materia.setUsuario(usuario);
+        Concurso concurso = new Concurso(); concurso.setId(50L);
+
+        DadosCadastroRegistro dados = new DadosCadastroRegistro(
+            10L, null, null, null,
+            LocalDateTime.now(), 600, null, null, true, null
+        );
+
+        when(materiaRepository.findById(10L)).thenReturn(Optional.of(materia));
+        when(cicloRepository.buscarCicloAtivo(1L)).thenReturn(Optional.of(new CicloAtivoDTO(7L, 50L)));
+        when(concursoRepository.getReferenceById(50L)).thenReturn(concurso);
+
+        service.registrar(dados, usuario);
+        service.registrar(dados, usuario);
+        verify(cicloRepository, times(1)).buscarCicloAtivo(1L);
+
+        // gerarCiclo/encerrar/excluir/arquivar invalidam
+        cicloAtivoCache.invalidar(1L);
+        when(cicloRepository.buscarCicloAtivo(1L)).thenReturn(Optional.empty());
+        service.registrar(dados, usuario);
+
+        verify(cicloRepository, times(2)).buscarCicloAtivo(1L);
+        verify(repository, times(3)).save(any());
+        verify(repository).save(argThat(r -> r.getConcurso() == null));
     }
 
     @Test
@@ -106,6 +167,7 @@ class RegistroEstudoServiceTest {
 
         assertThrows(RuntimeException.class, () -> service.registrar(dados, usuarioLogado));
         verify(repository, never()).save(any());
+        verifyNoInteractions(resumoDiarioService);
     }
 
     @Test
@@ -171,6 +233,37 @@ class RegistroEstudoServiceTest {
         ));
     }
 
+    @Test
+    @DisplayName("ATUALIZAR: Deve tirar os valores antigos do resumo diário e somar os novos")
+    void atualizar_mantemResumoDiario() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Materia materia = new Materia(); materia.setId(10L); materia.setNome("Matéria");
+
+        RegistroEstudo registro = new RegistroEstudo();
+        registro.setId(100L);
+        registro.setUsuario(usuario);
+        registro.setMateria(materia);
+        registro.setSegundos(100);
+
+        DadosAtualizacaoRegistro dados = new DadosAtualizacaoRegistro(
+            100L, null, 500, null, null, null, null, null, null, null
+        );
+
+        when(repository.findById(100L)).thenReturn(Optional.of(registro));
+
+        // Captura os segundos no momento de cada chamada (a entidade é mutável)
+        List<Integer> segundosVistos = new ArrayList<>();
+        doAnswer(inv -> segundosVistos.add(((RegistroEstudo) inv.getArgument(0)).getSegundos()))
+                .when(resumoDiarioService).remover(any());
+        doAnswer(inv -> segundosVistos.add(((RegistroEstudo) inv.getArgument(0)).getSegundos()))
+                .when(resumoDiarioService).adicionar(any());
+
+        service.atualizar(dados, usuario);
+
+        // Primeiro remove com o valor antigo, depois adiciona com o novo
+        assertEquals(List.of(100, 500), segundosVistos);
+    }
+
     @Test
     @DisplayName("ATUALIZAR: Deve impedir edição de registro de outro usuário")
     void atualizar_acessoNegado() {
@@ -190,6 +283,117 @@ class RegistroEstudoServiceTest {
         assertThrows(RuntimeException.class, () -> service.atualizar(dados, usuarioLogado));
     }
 
+    // --- TESTES DE LISTAGEM POR CURSOR ---
+
+    private static DadosDetalhamentoRegistro linha(long id, LocalDateTime data) {
+        return new DadosDetalhamentoRegistro(id, 10L, "Direito", null, null, null, null, data, 3600, 0, 0, null);
+    }
+
+    @Test
+    @DisplayName("CURSOR: Deve devolver o cursor do último item quando houver próxima página, sem contar")
+    void listarPorCursor_comProximaPagina() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        LocalDateTime base = LocalDateTime.of(2026, 3, 10, 8, 0);
+
+        // Pediu 2, o repositório recebe 3 (uma a mais só para saber se há próxima)
+        when(repository.buscarPorCursor(eq(1L), any(), any(), any(), any(), any(), any(), any(), eq(3)))
+                .thenReturn(List.of(linha(9L, base), linha(8L, base), linha(5L, base.minusDays(1))));
+
+        var pagina = service.listarPorCursor(null, null, null, null, null, null, null, 2, false, usuario);
+
+        assertEquals(2, pagina.conteudo().size());
+        assertNull(pagina.total());
+        assertEquals(new CursorRegistro(base, 8L), CursorRegistro.decodificar(pagina.proximoCursor()));
+        verify(repository, never()).contarFiltrados(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("CURSOR: Última página sem próximo cursor e com total quando pedido")
+    void listarPorCursor_ultimaPaginaComTotal() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        LocalDateTime base = LocalDateTime.of(2026, 3, 10, 8, 0);
+        String cursor = new CursorRegistro(base, 8L).codificar();
+
+        when(repository.buscarPorCursor(eq(1L), any(), any(), any(), any(), any(), any(),
+                eq(new CursorRegistro(base, 8L)), eq(3))).thenReturn(List.of(linha(5L, base.minusDays(1))));
+        when(repository.contarFiltrados(eq(1L), any(), any(), any(), any(), any(), any())).thenReturn(3L);
+
+        var pagina = service.listarPorCursor(null, null, null, null, null, null, cursor, 2, true, usuario);
+
+        assertEquals(1, pagina.conteudo().size());
+        assertNull(pagina.proximoCursor());
+        assertEquals(3L, pagina.total());
+    }
+
+    @Test
+    @DisplayName("CURSOR: Deve recusar cursor adulterado")
+    void listarPorCursor_cursorInvalido() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+
+        RuntimeException erro = assertThrows(RuntimeException.class,
+                () -> service.listarPorCursor(null, null, null, null, null, null, "nao-e-cursor", 20, false, usuario));
+        assertEquals("Cursor inválido.", erro.getMessage());
+    }
+
+    // --- TESTES DE SINCRONIZAÇÃO OFFLINE ---
+
+    private static DadosSessaoSincronizada sessao(UUID clienteId, Long concursoId, int segundos) {
+        return new DadosSessaoSincronizada(clienteId, 10L, null, concursoId, null,
+                LocalDateTime.of(2026, 3, 1, 8, 0), segundos, 5, 4, null, null);
+    }
+
+    @Test
+    @DisplayName("SINCRONIZAR: Deve separar criadas, duplicadas e rejeitadas e aplicar só as criadas")
+    @SuppressWarnings("unchecked")
+    void sincronizar_situacoesPorSessao() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        UUID nova = UUID.randomUUID(), repetida = UUID.randomUUID(), invalida = UUID.randomUUID();
+
+        when(cicloRepository.buscarCicloAtivo(1L)).thenReturn(Optional.of(new CicloAtivoDTO(3L, 2L)));
+        when(repository.sincronizar(eq(1L), any())).thenReturn(List.of(
+                new Object[]{nova, 100L, null},
+                new Object[]{repetida, null, 50L},
+                new Object[]{invalida, null, null}
+        ));
+
+        var dados = new DadosSincronizacao(List.of(
+                sessao(nova, null, 1800), sessao(repetida, 2L, 600), sessao(invalida, 2L, 600), sessao(nova, null, 999)));
+        var resultado = service.sincronizar(dados, usuario);
+
+        assertEquals(List.of(
+                new DadosResultadoSincronizacao.Sessao(nova, 100L, DadosResultadoSincronizacao.Situacao.CRIADA),
+                new DadosResultadoSincronizacao.Sessao(repetida, 50L, DadosResultadoSincronizacao.Situacao.DUPLICADA),
+                new DadosResultadoSincronizacao.Sessao(invalida, null, DadosResultadoSincronizacao.Situacao.REJEITADA)
+        ), resultado.sessoes());
+
+        // UUID repetido no lote vai uma vez só; sem concurso herda o do ciclo ativo
+        ArgumentCaptor<List<DadosSessaoSincronizada>> enviadas = ArgumentCaptor.forClass(List.class);
+        verify(repository).sincronizar(eq(1L), enviadas.capture());
+        assertEquals(3, enviadas.getValue().size());
+        assertEquals(2L, enviadas.getValue().get(0).concursoId());
+        assertEquals(1800, enviadas.getValue().get(0).segundos());
+
+        verify(resumoDiarioService).adicionarEmLote(1L, List.of(100L), List.of(LocalDate.of(2026, 3, 1)));
+        verify(progressoCicloService).adicionarEmLote(eq(1L),
+                eq(List.of(new ProgressoCicloService.SomaLote(2L, 10L, 1800, 5))), any(), any());
+        verify(eventPublisher).publishEvent(any(DadosUsuarioAlteradosEvent.class));
+    }
+
+    @Test
+    @DisplayName("SINCRONIZAR: Reenvio só com duplicadas não mexe em resumos nem no ciclo")
+    void sincronizar_reenvioSemEfeito() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        UUID repetida = UUID.randomUUID();
+
+        when(cicloRepository.buscarCicloAtivo(1L)).thenReturn(Optional.empty());
+        when(repository.sincronizar(eq(1L), any())).thenReturn(List.<Object[]>of(new Object[]{repetida, null, 50L}));
+
+        var resultado = service.sincronizar(new DadosSincronizacao(List.of(sessao(repetida, null, 600))), usuario);
+
+        assertEquals(DadosResultadoSincronizacao.Situacao.DUPLICADA, resultado.sessoes().get(0).situacao());
+        verifyNoInteractions(resumoDiarioService, progressoCicloService, eventPublisher);
+    }
+
     // --- TESTES DE EXCLUSÃO ---
 
     @Test
@@ -203,6 +407,129 @@ class RegistroEstudoServiceTest {
 
         service.excluir(10L, usuario);
 
+        verify(resumoDiarioService).remover(registro);
+        verify(progressoCicloService).remover(registro);
         verify(repository).delete(registro);
+        verify(eventPublisher).publishEvent(new DadosUsuarioAlteradosEvent(1L, Agregado.REGISTROS));
+    }
+
+    // --- TESTES DE OPERAÇÕES EM LOTE ---
+
+    private static GrupoAfetado grupo(Long concursoAnterior, Long concursoAtual, int registros) {
+        LocalDateTime inicio = LocalDateTime.of(2026, 3, 1, 8, 0);
+        return new GrupoAfetado(inicio.toLocalDate(), concursoAnterior, concursoAtual, 10L,
+                1800L * registros, 5L * registros, inicio, inicio.plusHours(2), registros);
+    }
+
+    @Test
+    @DisplayName("EXCLUIR EM LOTE: Deve excluir num statement só e tirar os grupos do ciclo")
+    void excluirEmLote_setBased() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        List<Long> ids = List.of(100L, 101L, 102L, 999L);
+
+        when(repository.excluirEmLote(1L, ids)).thenReturn(List.of(grupo(2L, null, 2), grupo(null, null, 1)));
+
+        var resultado = service.excluirEmLote(ids, usuario);
+
+        assertEquals(3, resultado.afetados());
+        var ordem = inOrder(resumoDiarioService, repository);
+        ordem.verify(resumoDiarioService).removerEmLote(1L, ids);
+        ordem.verify(repository).excluirEmLote(1L, ids);
+        verify(resumoDiarioService).recalcularMeses(1L, List.of(LocalDate.of(2026, 3, 1)));
+        verify(progressoCicloService).adicionarEmLote(1L, List.of(new ProgressoCicloService.SomaLote(2L, 10L, -3600, -10)),
+                LocalDateTime.of(2026, 3, 1, 8, 0), LocalDateTime.of(2026, 3, 1, 10, 0));
+        verify(repository, never()).findAllById(any());
+        verify(eventPublisher).publishEvent(new DadosUsuarioAlteradosEvent(1L, Agregado.REGISTROS));
+    }
+
+    @Test
+    @DisplayName("EXCLUIR EM LOTE: Ids inexistentes não afetam nada nem disparam evento")
+    void excluirEmLote_nenhumEncontrado() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        when(repository.excluirEmLote(1L, List.of(999L))).thenReturn(List.of());
+
+        assertEquals(0, service.excluirEmLote(List.of(999L), usuario).afetados());
+        verifyNoInteractions(progressoCicloService, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("EXCLUIR EM LOTE: Deve negar a seleção inteira se algum id for de outro usuário")
+    void excluirEmLote_idAlheio() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        List<Long> ids = List.of(100L, 200L);
+        when(repository.existsByIdInAndUsuarioIdNot(ids, 1L)).thenReturn(true);
+
+        assertThrows(RuntimeException.class, () -> service.excluirEmLote(ids, usuario));
+        verify(repository, never()).excluirEmLote(any(), any());
+        verifyNoInteractions(resumoDiarioService, progressoCicloService, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("REATRIBUIR EM LOTE: Troca de concurso move os segundos entre os itens do ciclo")
+    void reatribuirEmLote_trocaConcurso() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Concurso concurso = new Concurso(); concurso.setId(3L); concurso.setUsuario(usuario);
+        List<Long> ids = List.of(100L, 101L);
+
+        when(concursoRepository.findById(3L)).thenReturn(Optional.of(concurso));
+        when(repository.reatribuirEmLote(1L, ids, null, null, 3L, null))
+                .thenReturn(List.of(grupo(2L, 3L, 1), grupo(3L, 3L, 1)));
+
+        var resultado = service.reatribuirEmLote(new DadosReatribuicaoLote(ids, null, 3L, null), usuario);
+
+        assertEquals(2, resultado.afetados());
+        verify(resumoDiarioService).removerEmLote(1L, ids);
+        verify(resumoDiarioService).adicionarEmLote(1L, ids, List.of(LocalDate.of(2026, 3, 1)));
+        verify(progressoCicloService).adicionarEmLote(eq(1L), eq(List.of(
+                new ProgressoCicloService.SomaLote(2L, 10L, -1800, -5),
+                new ProgressoCicloService.SomaLote(3L, 10L, 1800, 5))), any(), any());
+    }
+
+    @Test
+    @DisplayName("REATRIBUIR EM LOTE: Tópico restringe à matéria dele e não mexe no ciclo")
+    void reatribuirEmLote_topico() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Materia materia = new Materia(); materia.setId(10L); materia.setUsuario(usuario);
+        Topico topico = new Topico(); topico.setId(7L); topico.setMateria(materia);
+        List<Long> ids = List.of(100L);
+
+        when(topicoRepository.findById(7L)).thenReturn(Optional.of(topico));
+        when(repository.reatribuirEmLote(1L, ids, 7L, 10L, null, null)).thenReturn(List.of(grupo(2L, 2L, 1)));
+
+        assertEquals(1, service.reatribuirEmLote(new DadosReatribuicaoLote(ids, 7L, null, null), usuario).afetados());
+        verifyNoInteractions(progressoCicloService);
+    }
+
+    @Test
+    @DisplayName("REATRIBUIR EM LOTE: Tópico com registros de outra matéria na seleção deve ser recusado")
+    void reatribuirEmLote_topicoComOutraMateria() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Materia materia = new Materia(); materia.setId(10L); materia.setNome("Direito"); materia.setUsuario(usuario);
+        Topico topico = new Topico(); topico.setId(7L); topico.setMateria(materia);
+        List<Long> ids = List.of(100L, 101L);
+
+        when(topicoRepository.findById(7L)).thenReturn(Optional.of(topico));
+        when(repository.existsByIdInAndUsuarioIdAndMateriaIdNot(ids, 1L, 10L)).thenReturn(true);
+
+        var ex = assertThrows(RuntimeException.class,
+                () -> service.reatribuirEmLote(new DadosReatribuicaoLote(ids, 7L, null, null), usuario));
+        assertTrue(ex.getMessage().contains("Direito"));
+        verify(repository, never()).reatribuirEmLote(any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(resumoDiarioService);
+    }
+
+    @Test
+    @DisplayName("REATRIBUIR EM LOTE: Deve negar destino de outro usuário antes de alterar qualquer coisa")
+    void reatribuirEmLote_destinoAlheio() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        Usuario outro = new Usuario(); outro.setId(2L);
+        TipoEstudo tipo = new TipoEstudo(); tipo.setId(5L); tipo.setUsuario(outro);
+
+        when(tipoRepository.findById(5L)).thenReturn(Optional.of(tipo));
+
+        var dados = new DadosReatribuicaoLote(List.of(100L), null, null, 5L);
+        assertThrows(RuntimeException.class, () -> service.reatribuirEmLote(dados, usuario));
+        verifyNoInteractions(resumoDiarioService);
+        verify(repository, never()).reatribuirEmLote(any(), any(), any(), any(), any(), any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.infra.cache.Agregado;
+import com.nomeacao.api.infra.cache.DadosUsuarioAlteradosEvent;
+import com.nomeacao.api.infra.concorrencia.AvaliacaoRitmoExecutor;
+import com.nomeacao.api.repository.CicloRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RitmoCicloServiceTest {
+
+    @InjectMocks
+    private RitmoCicloService service;
+
+    @Mock
+    private CicloRepository cicloRepository;
+
+    @Spy
+    private AvaliacaoRitmoExecutor executor = new AvaliacaoRitmoExecutor(2);
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void encerrarExecutor() {
+        executor.encerrar();
+    }
+
+    // --- TESTES DE AVALIAÇÃO EM LOTE ---
+
+    @Test
+    @DisplayName("RITMO: Deve percorrer os ciclos ativos por keyset e avaliar cada faixa num UPDATE só")
+    void avaliarCiclosAtivos_percorrePorKeyset() {
+        ReflectionTestUtils.setField(service, "tamanhoLote", 3);
+
+        when(cicloRepository.buscarIdsAtivosApos(0L, 3)).thenReturn(List.of(2L, 5L, 9L));
+        when(cicloRepository.buscarIdsAtivosApos(9L, 3)).thenReturn(List.of(10L, 11L, 40L));
+        when(cicloRepository.buscarIdsAtivosApos(40L, 3)).thenReturn(List.of(41L)); // Página incompleta: acabou
+        when(cicloRepository.avaliarRitmo(any(), any(), any(), any())).thenAnswer(inv ->
+                inv.getArgument(0).equals(41L) ? List.of(8L) : List.of(7L, 7L, 9L));
+
+        int avaliados = service.avaliarCiclosAtivos();
+
+        assertEquals(7, avaliados);
+        verify(cicloRepository).avaliarRitmo(eq(2L), eq(9L), any(), any());
+        verify(cicloRepository).avaliarRitmo(eq(10L), eq(40L), any(), any());
+        verify(cicloRepository).avaliarRitmo(eq(41L), eq(41L), any(), any());
+        verify(cicloRepository, times(3)).buscarIdsAtivosApos(anyLong(), eq(3));
+        assertEquals(1, meterRegistry.get("ciclo.ritmo.avaliacao").timer().count());
+    }
+
+    @Test
+    @DisplayName("RITMO: Cada usuário com ciclo avaliado recebe um evento de CICLOS por lote (cache e ETag)")
+    void avaliarCiclosAtivos_publicaEventoPorUsuario() {
+        ReflectionTestUtils.setField(service, "tamanhoLote", 3);
+
+        when(cicloRepository.buscarIdsAtivosApos(0L, 3)).thenReturn(List.of(1L, 2L, 3L));
+        when(cicloRepository.buscarIdsAtivosApos(3L, 3)).thenReturn(List.of());
+        when(cicloRepository.avaliarRitmo(eq(1L), eq(3L), any(), any())).thenReturn(List.of(7L, 7L, 9L));
+
+        assertEquals(3, service.avaliarCiclosAtivos());
+        verify(eventPublisher).publishEvent(new DadosUsuarioAlteradosEvent(7L, Agregado.CICLOS));
+        verify(eventPublisher).publishEvent(new DadosUsuarioAlteradosEvent(9L, Agregado.CICLOS));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("RITMO: Falha num lote não deve impedir os demais")
+    void avaliarCiclosAtivos_falhaIsolada() {
+        ReflectionTestUtils.setField(service, "tamanhoLote", 2);
+
+        when(cicloRepository.buscarIdsAtivosApos(0L, 2)).thenReturn(List.of(1L, 2L));
+        when(cicloRepository.buscarIdsAtivosApos(2L, 2)).thenReturn(List.of(3L, 4L));
+        when(cicloRepository.buscarIdsAtivosApos(4L, 2)).thenReturn(List.of());
+        when(cicloRepository.avaliarRitmo(eq(1L), eq(2L), any(), any())).thenThrow(new RuntimeException("deadlock"));
+        when(cicloRepository.avaliarRitmo(eq(3L), eq(4L), any(), any())).thenReturn(List.of(5L, 6L));
+
+        assertEquals(2, service.avaliarCiclosAtivos());
+        verify(eventPublisher, never()).publishEvent(new DadosUsuarioAlteradosEvent(1L, Agregado.CICLOS));
+    }
+}
@@ -0,0 +1,107 @@
+package com.nomeacao.api.service;
+
+import com.nomeacao.api.dto.VisaoVidaDTO;
+import com.nomeacao.api.dto.VisaoVidaDTO.Sequencia;
+import com.nomeacao.api.model.Usuario;
+import com.nomeacao.api.repository.ResumoMensalRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VisaoVidaServiceTest {
+
+    @InjectMocks
+    private VisaoVidaService service;
+
+    @Mock
+    private ResumoMensalRepository resumoMensalRepository;
+
+    // --- TESTES DE TOTAIS E QUEBRAS ---
+
+    @Test
+    @DisplayName("VIDA: Deve separar total, série mensal, matérias e concursos da mesma consulta")
+    void carregar_separaGrupos() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        LocalDate mesAtual = LocalDate.now().withDayOfMonth(1);
+        LocalDate doisMesesAtras = mesAtual.minusMonths(2);
+
+        // grupo, mes, materia_id, materia_nome, concurso_id, concurso_nome, segundos, questoes, acertos, sessoes, dias
+        when(resumoMensalRepository.agregarVisaoVida(1L)).thenReturn(List.of(
+            new Object[]{3, java.sql.Date.valueOf(doisMesesAtras), null, null, null, null, 7200L, 10L, 5L, 2L, 0b11},
+            new Object[]{3, mesAtual, null, null, null, null, 3600L, 10L, 10L, 1L, 0b1},
+            new Object[]{5, null, 1L, "Direito", null, null, 3600L, 20L, 15L, 2L, 0b11},
+            new Object[]{5, null, 2L, "Português", null, null, 7200L, 0L, 0L, 1L, 0b1},
+            new Object[]{6, null, null, null, 9L, "TRF", 9000L, 20L, 15L, 2L, 0b11},
+            new Object[]{6, null, null, null, null, null, 1800L, 0L, 0L, 1L, 0b1},
+            new Object[]{7, null, null, null, null, null, 10800L, 20L, 15L, 3L, 0b11}
+        ));
+
+        VisaoVidaDTO vida = service.carregar(usuario);
+
+        assertEquals(3.0, vida.horasTotais());
+        assertEquals(20L, vida.questoesFeitas());
+        assertEquals(75.0, vida.taxaAcertos());
+        assertEquals(3L, vida.sessoes());
+        assertEquals(3, vida.diasEstudados()); // 2 bits + 1 bit
+
+        // Mês sem estudo no meio aparece zerado
+        assertEquals(3, vida.evolucaoMensal().size());
+        assertEquals(doisMesesAtras.toString(), vida.evolucaoMensal().get(0).label());
+        assertEquals(0.0, vida.evolucaoMensal().get(1).valor());
+
+        assertEquals("Português", vida.porMateria().get(0).nome()); // Ordenado por horas
+        assertEquals("TRF", vida.porConcurso().get(0).nome());
+        assertEquals("Sem concurso", vida.porConcurso().get(1).nome());
+        assertNull(vida.porConcurso().get(1).id());
+    }
+
+    @Test
+    @DisplayName("VIDA: Usuário sem histórico deve receber tudo zerado")
+    void carregar_semHistorico() {
+        Usuario usuario = new Usuario(); usuario.setId(1L);
+        when(resumoMensalRepository.agregarVisaoVida(1L)).thenReturn(List.of());
+
+        VisaoVidaDTO vida = service.carregar(usuario);
+
+        assertEquals(0.0, vida.horasTotais());
+        assertTrue(vida.evolucaoMensal().isEmpty());
+        assertEquals(0, vida.melhorSequencia().dias());
+        assertEquals(0, vida.sequenciaAtual().dias());
+    }
+
+    // --- TESTES DE SEQUÊNCIAS ---
+
+    @Test
+    @DisplayName("VIDA: Sequência deve atravessar a virada do mês e quebrar em mês sem estudo")
+    void calcularSequencias_viradaDeMes() {
+        var dias = new TreeMap<LocalDate, Integer>();
+        // 29, 30 e 31/jan + 1 e 2/fev = 5 dias seguidos; abril só dia 1 (março vazio quebra)
+        dias.put(LocalDate.of(2025, 1, 1), (1 << 28) | (1 << 29) | (1 << 30));
+        dias.put(LocalDate.of(2025, 2, 1), 0b11);
+        dias.put(LocalDate.of(2025, 4, 1), 0b1);
+
+        Sequencia[] seq = VisaoVidaService.calcularSequencias(dias, LocalDate.of(2025, 4, 2));
+
+        assertEquals(5, seq[0].dias());
+        assertEquals(LocalDate.of(2025, 1, 29), seq[0].inicio());
+        assertEquals(LocalDate.of(2025, 2, 2), seq[0].fim());
+
+        // Estudou ontem: a sequência atual ainda vale
+        assertEquals(1, seq[1].dias());
+        assertEquals(LocalDate.of(2025, 4, 1), seq[1].inicio());
+
+        // Dois dias depois ela já se perdeu
+        assertEquals(0, VisaoVidaService.calcularSequencias(dias, LocalDate.of(2025, 4, 3))[1].dias());
+    }
+}